@@ -0,0 +1,481 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compact binary snapshot of all calendars, read through a memory-mapped file.
+ * Every string (subjects, locations, calendar names, ...) is written once to a
+ * shared dictionary and events refer to it by number. Each calendar stores its
+ * events as fixed-width columns ordered by start time, so a calendar can be
+ * searched directly in the mapped file and an Event is only built for the rows
+ * a query actually returns.
+ *
+ * <p>Layout (big-endian):
+ * <pre>
+ * long magic, int version, long lastSeq, int currentName
+ * int stringCount, then per string: int byteLength, UTF-8 bytes
+ * int calendarCount, then per calendar:
+ *   int name, int timeZone, int eventCount, int ruleCount, int ruleBytes
+ *   long start[], long end[], long maxEnd[], long idHigh[], long idLow[]
+ *   int subject[], int description[], int location[], int status[]
+ *   rules (ruleBytes bytes)
+ * </pre>
+ * Times are seconds since 1970-01-01T00:00 in the calendar's local time, and
+ * maxEnd[i] is the latest end time among rows 0 to i. Strings are dictionary
+ * numbers, with -1 for a missing value.
+ */
+public class BinarySnapshot {
+
+  private static final long MAGIC = 0x43414c534e415031L; // "CALSNAP1"
+  private static final int VERSION = 1;
+
+  /**
+   * Read-only view of one calendar in a mapped snapshot.
+   */
+  public static final class MappedCalendar implements EventStore {
+    private final BinarySnapshot file;
+    private final String name;
+    private final String timeZone;
+    private final int size;
+    private final List<RecurrenceRule> rules;
+
+    //absolute positions of the columns in the mapped file
+    private final int startPos;
+    private final int endPos;
+    private final int maxEndPos;
+    private final int idHighPos;
+    private final int idLowPos;
+    private final int subjectPos;
+    private final int descriptionPos;
+    private final int locationPos;
+    private final int statusPos;
+
+    private MappedCalendar(BinarySnapshot file, String name, String timeZone, int size,
+                           int position, List<RecurrenceRule> rules) {
+      this.file = file;
+      this.name = name;
+      this.timeZone = timeZone;
+      this.size = size;
+      this.rules = rules;
+
+      this.startPos = position;
+      this.endPos = startPos + 8 * size;
+      this.maxEndPos = endPos + 8 * size;
+      this.idHighPos = maxEndPos + 8 * size;
+      this.idLowPos = idHighPos + 8 * size;
+      this.subjectPos = idLowPos + 8 * size;
+      this.descriptionPos = subjectPos + 4 * size;
+      this.locationPos = descriptionPos + 4 * size;
+      this.statusPos = locationPos + 4 * size;
+    }
+
+    /**
+     * Get name of the calendar.
+     *
+     * @return calendar name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Get time zone of the calendar.
+     *
+     * @return time zone
+     */
+    public String getTimeZone() {
+      return timeZone;
+    }
+
+    /**
+     * Returns the number of stored events (not counting rule occurrences).
+     *
+     * @return number of stored events
+     */
+    @Override
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns the rule-based series of the calendar.
+     *
+     * @return unmodifiable list of recurrence rules
+     */
+    @Override
+    public List<RecurrenceRule> getRecurrenceRules() {
+      return rules;
+    }
+
+    @Override
+    public long getStartSecond(int row) {
+      return file.buffer.getLong(startPos + 8 * row);
+    }
+
+    @Override
+    public long getEndSecond(int row) {
+      return file.buffer.getLong(endPos + 8 * row);
+    }
+
+    @Override
+    public long getMaxEndSecond(int row) {
+      return file.buffer.getLong(maxEndPos + 8 * row);
+    }
+
+    @Override
+    public boolean subjectEquals(int row, String subject) {
+      return subject.equals(subject(row));
+    }
+
+    @Override
+    public boolean identifierEquals(int row, UUID identifier) {
+      long high = file.buffer.getLong(idHighPos + 8 * row);
+      long low = file.buffer.getLong(idLowPos + 8 * row);
+      return identifier == null ? high == 0 && low == 0
+              : high == identifier.getMostSignificantBits()
+                      && low == identifier.getLeastSignificantBits();
+    }
+
+    /**
+     * Builds the stored event at the given row.
+     *
+     * @param row index in start-time order
+     * @return the event
+     */
+    @Override
+    public Event event(int row) {
+      long high = file.buffer.getLong(idHighPos + 8 * row);
+      long low = file.buffer.getLong(idLowPos + 8 * row);
+
+      return new Event.EventBuilder()
+              .subject(subject(row))
+              .start(Event.toDateTime(getStartSecond(row)))
+              .end(Event.toDateTime(getEndSecond(row)))
+              .description(file.string(file.buffer.getInt(descriptionPos + 4 * row)))
+              .location(file.string(file.buffer.getInt(locationPos + 4 * row)))
+              .status(file.string(file.buffer.getInt(statusPos + 4 * row)))
+              .identifier(high == 0 && low == 0 ? null : new UUID(high, low))
+              .build();
+    }
+
+    private String subject(int row) {
+      return file.string(file.buffer.getInt(subjectPos + 4 * row));
+    }
+  }
+
+  private final ByteBuffer buffer;
+  private final long lastSeq;
+  private final String current;
+  private final int[] stringPositions;
+  private final String[] strings;
+  private final List<MappedCalendar> calendars;
+
+  private BinarySnapshot(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+
+    if (buffer.limit() < 24 || buffer.getLong(0) != MAGIC) {
+      throw new IOException("Not a calendar snapshot.");
+    }
+    if (buffer.getInt(8) != VERSION) {
+      throw new IOException("Unsupported snapshot version: " + buffer.getInt(8));
+    }
+    this.lastSeq = buffer.getLong(12);
+    int currentId = buffer.getInt(20);
+
+    //only the positions of the strings are read here; text is decoded when asked for
+    int position = 24;
+    int count = buffer.getInt(position);
+    position += 4;
+    this.stringPositions = new int[count];
+    this.strings = new String[count];
+    for (int i = 0; i < count; i++) {
+      stringPositions[i] = position;
+      position += 4 + buffer.getInt(position);
+    }
+    this.current = string(currentId);
+
+    int calendarCount = buffer.getInt(position);
+    position += 4;
+    List<MappedCalendar> list = new ArrayList<>(calendarCount);
+    for (int i = 0; i < calendarCount; i++) {
+      String name = string(buffer.getInt(position));
+      String timeZone = string(buffer.getInt(position + 4));
+      int size = buffer.getInt(position + 8);
+      int ruleCount = buffer.getInt(position + 12);
+      int ruleBytes = buffer.getInt(position + 16);
+      position += 20;
+
+      int rulePos = position + 56 * size;
+      List<RecurrenceRule> rules = readRules(rulePos, ruleCount);
+      list.add(new MappedCalendar(this, name, timeZone, size, position, rules));
+      position = rulePos + ruleBytes;
+    }
+    this.calendars = Collections.unmodifiableList(list);
+  }
+
+  /**
+   * Maps a snapshot file into memory. Only the header and the dictionary offsets
+   * are read; events stay in the file until a query asks for them.
+   *
+   * @param path of the snapshot file
+   * @return the opened snapshot
+   * @throws IOException if the file cannot be read or is not a snapshot
+   */
+  public static BinarySnapshot open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot is too large to map.");
+      }
+      //the mapping stays valid after the channel is closed
+      return new BinarySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes all calendars in MultiCalendarManagement to a snapshot file. The
+   * stored events are read through CalendarManagement.getStoredEventView, once
+   * per column, so the events of a calendar kept in an EventStore are built
+   * one at a time rather than all at once.
+   *
+   * @param path    of the file to write
+   * @param lastSeq sequence number of the last command the snapshot contains
+   * @param current name of the calendar in use, or null if none is
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path path, long lastSeq, String current) throws IOException {
+    List<MultiCalendarManagement.CalendarWithTimeZone> cals =
+            MultiCalendarManagement.getCalendars();
+    Map<String, Integer> dictionary = new LinkedHashMap<>();
+    int currentId = intern(dictionary, current);
+
+    List<Collection<Event>> events = new ArrayList<>(cals.size());
+    List<List<RecurrenceRule>> rules = new ArrayList<>(cals.size());
+    for (MultiCalendarManagement.CalendarWithTimeZone cal : cals) {
+      CalendarManagement calendar = MultiCalendarManagement.getCal(cal);
+      events.add(calendar.getStoredEventView());
+      rules.add(calendar.getRecurrenceRules());
+
+      intern(dictionary, MultiCalendarManagement.getName(cal));
+      intern(dictionary, MultiCalendarManagement.getTime(cal));
+      for (Event e : events.get(events.size() - 1)) {
+        intern(dictionary, e.getSubject());
+        intern(dictionary, e.getDescription());
+        intern(dictionary, e.getLocation());
+        intern(dictionary, e.getStatus());
+      }
+      for (RecurrenceRule rule : rules.get(rules.size() - 1)) {
+        intern(dictionary, rule.getSubject());
+        intern(dictionary, rule.getDescription());
+        intern(dictionary, rule.getLocation());
+        intern(dictionary, rule.getStatus());
+      }
+    }
+
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeLong(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(lastSeq);
+      out.writeInt(currentId);
+
+      out.writeInt(dictionary.size());
+      for (String s : dictionary.keySet()) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+
+      out.writeInt(cals.size());
+      for (int i = 0; i < cals.size(); i++) {
+        Collection<Event> list = events.get(i);
+        List<RecurrenceRule> ruleList = rules.get(i);
+
+        out.writeInt(dictionary.get(MultiCalendarManagement.getName(cals.get(i))));
+        out.writeInt(dictionary.get(MultiCalendarManagement.getTime(cals.get(i))));
+        out.writeInt(list.size());
+        out.writeInt(ruleList.size());
+        out.writeInt(ruleBytes(ruleList));
+
+        writeColumns(out, list, dictionary);
+        for (RecurrenceRule rule : ruleList) {
+          writeRule(out, rule, dictionary);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get sequence number of the last logged command contained in the snapshot.
+   *
+   * @return sequence number
+   */
+  public long getLastSeq() {
+    return lastSeq;
+  }
+
+  /**
+   * Get name of the calendar that was in use.
+   *
+   * @return calendar name, or null if none was in use
+   */
+  public String getCurrent() {
+    return current;
+  }
+
+  /**
+   * Returns the calendars in the snapshot, in the order they were created.
+   *
+   * @return unmodifiable list of mapped calendars
+   */
+  public List<MappedCalendar> getCalendars() {
+    return calendars;
+  }
+
+  // --- Helper methods ---
+
+  //decodes a dictionary string the first time it is asked for
+  private String string(int id) {
+    if (id < 0) {
+      return null;
+    }
+
+    String s = strings[id];
+    if (s == null) {
+      int position = stringPositions[id];
+      byte[] bytes = new byte[buffer.getInt(position)];
+      buffer.get(position + 4, bytes);
+      s = new String(bytes, StandardCharsets.UTF_8);
+      strings[id] = s;
+    }
+    return s;
+  }
+
+  private List<RecurrenceRule> readRules(int position, int count) {
+    List<RecurrenceRule> rules = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      UUID identifier = new UUID(buffer.getLong(position), buffer.getLong(position + 8));
+      String subject = string(buffer.getInt(position + 16));
+      String description = string(buffer.getInt(position + 20));
+      String location = string(buffer.getInt(position + 24));
+      String status = string(buffer.getInt(position + 28));
+      LocalTime startTime = LocalTime.ofSecondOfDay(buffer.getInt(position + 32));
+      LocalTime endTime = LocalTime.ofSecondOfDay(buffer.getInt(position + 36));
+      LocalDate firstDate = LocalDate.ofEpochDay(buffer.getLong(position + 40));
+      LocalDate lastDate = LocalDate.ofEpochDay(buffer.getLong(position + 48));
+      int mask = buffer.getInt(position + 56);
+      int exceptions = buffer.getInt(position + 60);
+      position += 64;
+
+      Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+      for (DayOfWeek day : DayOfWeek.values()) {
+        if ((mask & (1 << (day.getValue() - 1))) != 0) {
+          weekdays.add(day);
+        }
+      }
+
+      RecurrenceRule rule = new RecurrenceRule(identifier, subject, startTime, endTime,
+              firstDate, lastDate, weekdays, description, location, status);
+      for (int j = 0; j < exceptions; j++) {
+        rule = rule.withException(LocalDate.ofEpochDay(buffer.getLong(position)));
+        position += 8;
+      }
+      rules.add(rule);
+    }
+
+    return Collections.unmodifiableList(rules);
+  }
+
+  private static void writeColumns(DataOutputStream out, Collection<Event> events,
+                                   Map<String, Integer> dictionary) throws IOException {
+    for (Event e : events) {
+      out.writeLong(e.getStartSecond());
+    }
+    for (Event e : events) {
+      out.writeLong(e.getEndSecond());
+    }
+
+    long maxEnd = Long.MIN_VALUE;
+    for (Event e : events) {
+      maxEnd = Math.max(maxEnd, EventRows.endOrStart(e.getStartSecond(), e.getEndSecond()));
+      out.writeLong(maxEnd);
+    }
+
+    for (Event e : events) {
+      out.writeLong(e.getIdentifier() == null ? 0 : e.getIdentifier().getMostSignificantBits());
+    }
+    for (Event e : events) {
+      out.writeLong(e.getIdentifier() == null ? 0 : e.getIdentifier().getLeastSignificantBits());
+    }
+
+    for (Event e : events) {
+      out.writeInt(intern(dictionary, e.getSubject()));
+    }
+    for (Event e : events) {
+      out.writeInt(intern(dictionary, e.getDescription()));
+    }
+    for (Event e : events) {
+      out.writeInt(intern(dictionary, e.getLocation()));
+    }
+    for (Event e : events) {
+      out.writeInt(intern(dictionary, e.getStatus()));
+    }
+  }
+
+  private static void writeRule(DataOutputStream out, RecurrenceRule rule,
+                                Map<String, Integer> dictionary) throws IOException {
+    int mask = 0;
+    for (DayOfWeek day : rule.getWeekdays()) {
+      mask |= 1 << (day.getValue() - 1);
+    }
+
+    out.writeLong(rule.getIdentifier().getMostSignificantBits());
+    out.writeLong(rule.getIdentifier().getLeastSignificantBits());
+    out.writeInt(intern(dictionary, rule.getSubject()));
+    out.writeInt(intern(dictionary, rule.getDescription()));
+    out.writeInt(intern(dictionary, rule.getLocation()));
+    out.writeInt(intern(dictionary, rule.getStatus()));
+    out.writeInt(rule.getStartTime().toSecondOfDay());
+    out.writeInt(rule.getEndTime().toSecondOfDay());
+    out.writeLong(rule.getFirstDate().toEpochDay());
+    out.writeLong(rule.getLastDate().toEpochDay());
+    out.writeInt(mask);
+    out.writeInt(rule.getExceptions().size());
+    for (LocalDate date : rule.getExceptions()) {
+      out.writeLong(date.toEpochDay());
+    }
+  }
+
+  private static int ruleBytes(List<RecurrenceRule> rules) {
+    int bytes = 0;
+    for (RecurrenceRule rule : rules) {
+      bytes += 64 + 8 * rule.getExceptions().size();
+    }
+    return bytes;
+  }
+
+  private static int intern(Map<String, Integer> dictionary, String s) {
+    if (s == null) {
+      return -1;
+    }
+    return dictionary.computeIfAbsent(s, k -> dictionary.size());
+  }
+}
@@ -0,0 +1,116 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for BinarySnapshot.
+ */
+public class BinarySnapshotTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path path;
+  private CalendarManagement cal;
+  private LocalDateTime base;
+
+  @Before
+  public void setUp() throws IOException {
+    path = folder.newFile("calendar.snapshot").toPath();
+    base = LocalDateTime.of(2025, 6, 2, 9, 0);
+
+    new MultiCalendarManagement();
+    cal = new CalendarManagement();
+    for (int i = 0; i < 50; i++) {
+      cal.addSingleEvent("Event " + (i % 7), base.plusHours(5 * i),
+              base.plusHours(5 * i + 1 + i % 3), "Description", "Room " + (i % 2), null);
+    }
+    //one long event that overlaps many shorter ones
+    cal.addSingleEvent("Conference", base.plusDays(1), base.plusDays(4), null, null, "public");
+    cal.addRecurringSeriesUntilDate("Standup", LocalTime.of(8, 30), LocalTime.of(8, 45),
+            LocalDate.of(2025, 6, 2), LocalDate.of(2025, 6, 30), "MWF", null, null, null);
+    MultiCalendarManagement.addCalendar(cal, "America/New_York", "Work");
+    MultiCalendarManagement.addCalendar(new CalendarManagement(), "Europe/London", "Empty");
+
+    BinarySnapshot.write(path, 42, "Work");
+  }
+
+  @Test
+  public void testHeader() throws IOException {
+    BinarySnapshot snapshot = BinarySnapshot.open(path);
+
+    assertEquals(42, snapshot.getLastSeq());
+    assertEquals("Work", snapshot.getCurrent());
+    assertEquals(2, snapshot.getCalendars().size());
+    assertEquals("Europe/London", snapshot.getCalendars().get(1).getTimeZone());
+    assertEquals(0, snapshot.getCalendars().get(1).size());
+  }
+
+  @Test
+  public void testEventsMatchCalendar() throws IOException {
+    BinarySnapshot.MappedCalendar mapped = BinarySnapshot.open(path).getCalendars().get(0);
+    List<Event> expected = cal.getStoredEvents();
+    List<Event> actual = mapped.events();
+
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Event e = expected.get(i);
+      Event a = actual.get(i);
+      assertEquals(e.getSubject(), a.getSubject());
+      assertEquals(e.getStart(), a.getStart());
+      assertEquals(e.getEnd(), a.getEnd());
+      assertEquals(e.getDescription(), a.getDescription());
+      assertEquals(e.getLocation(), a.getLocation());
+      assertEquals(e.getStatus(), a.getStatus());
+      assertEquals(e.getIdentifier(), a.getIdentifier());
+    }
+    assertEquals(cal.getRecurrenceRules().get(0).expandAll().size(),
+            mapped.getRecurrenceRules().get(0).expandAll().size());
+  }
+
+  @Test
+  public void testQueriesMatchCalendar() throws IOException {
+    BinarySnapshot.MappedCalendar mapped = BinarySnapshot.open(path).getCalendars().get(0);
+
+    for (int h = 0; h < 24 * 12; h += 7) {
+      LocalDateTime from = base.plusHours(h);
+      LocalDateTime to = from.plusHours(9);
+      assertEquals(cal.getEventsBetween(from, to).size(),
+              mapped.getEventsBetween(from, to).size());
+      assertEquals(cal.isTimeSlotOccupied(from), mapped.isTimeSlotOccupied(from));
+    }
+
+    assertTrue(mapped.isTimeSlotOccupied(base.plusDays(2).plusMinutes(3)));
+    assertFalse(mapped.isTimeSlotOccupied(base.minusHours(1)));
+  }
+
+  @Test
+  public void testFindEvent() throws IOException {
+    BinarySnapshot.MappedCalendar mapped = BinarySnapshot.open(path).getCalendars().get(0);
+
+    assertEquals("Room 1", mapped.findEvent("Event 1", base.plusHours(5)).getLocation());
+    assertEquals("Standup",
+            mapped.findEvent("Standup", LocalDateTime.of(2025, 6, 4, 8, 30)).getSubject());
+    assertNull(mapped.findEvent("Event 2", base.plusHours(5)));
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsOtherFiles() throws IOException {
+    Files.writeString(path, "snapshot\t0\n");
+    BinarySnapshot.open(path);
+  }
+}
@@ -2,6 +2,7 @@ import javax.swing.JFrame;
 import javax.swing.JTable;
 import javax.swing.JSpinner;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JPanel;
 import javax.swing.JDialog;
 import javax.swing.JScrollPane;
@@ -9,19 +10,16 @@ import javax.swing.JTextField;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.SpinnerDateModel;
-import javax.swing.table.DefaultTableModel;
 
 import java.awt.BorderLayout;
 import java.awt.GridLayout;
 
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.time.Period;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 
 import java.util.Date;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Class for GUI version of calendar.
@@ -30,9 +28,11 @@ public class CalendarAppView extends JFrame {
   private CalendarManagement calendar;
   private JTable eventTable;
   private JSpinner dateSpinner;
-  private DefaultTableModel tableModel;
-  private static final DateTimeFormatter formatter =
-          DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+  private JComboBox<String> spanBox;
+  private EventTableModel tableModel;
+  private static final String[] SPANS = {"Day", "Week", "Month", "Year"};
+  private static final Period[] SPAN_LENGTHS = {
+          Period.ofDays(1), Period.ofWeeks(1), Period.ofMonths(1), Period.ofYears(1)};
 
   /**
    * Setup for initializing the calendar app.
@@ -63,44 +63,58 @@ public class CalendarAppView extends JFrame {
     JButton refreshButton = new JButton("Refresh List");
     JButton addButton = new JButton("Add Event");
     JButton editButton = new JButton("Edit Selected Event");
+    JButton previousButton = new JButton("Previous");
+    JButton nextButton = new JButton("Next");
+    spanBox = new JComboBox<>(SPANS);
+    spanBox.setSelectedIndex(2);
 
     topPanel.add(new JLabel("Start Date:"));
     topPanel.add(dateSpinner);
+    topPanel.add(spanBox);
     topPanel.add(refreshButton);
     topPanel.add(addButton);
     topPanel.add(editButton);
+    topPanel.add(previousButton);
+    topPanel.add(nextButton);
 
     add(topPanel, BorderLayout.NORTH);
 
-    tableModel = new DefaultTableModel(
-            new Object[]{"Subject", "Start", "End", "Description"}, 0);
+    tableModel = new EventTableModel(calendar);
     eventTable = new JTable(tableModel);
     add(new JScrollPane(eventTable), BorderLayout.CENTER);
 
     refreshButton.addActionListener(e -> loadEvents());
     addButton.addActionListener(e -> new AddEventDialog(this, calendar));
     editButton.addActionListener(e -> editSelectedEvent());
+    spanBox.addActionListener(e -> loadEvents());
+    //every change starts a new load, which makes any load still running stale
+    dateSpinner.addChangeListener(e -> loadEvents());
+    previousButton.addActionListener(e -> moveSpan(-1));
+    nextButton.addActionListener(e -> moveSpan(1));
+    loadEvents();
   }
 
+  //show every event starting in the selected span; the table loads rows in the
+  //background as they scroll in
   private void loadEvents() {
-    tableModel.setRowCount(0);
+    LocalDateTime from = selectedDate().atStartOfDay();
+    tableModel.setRange(from, from.plus(selectedSpan()));
+  }
+
+  private void moveSpan(int direction) {
+    LocalDate date = direction < 0
+            ? selectedDate().minus(selectedSpan()) : selectedDate().plus(selectedSpan());
+    //the spinner's change listener loads the new span
+    dateSpinner.setValue(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+  }
+
+  private LocalDate selectedDate() {
     Date date = (Date) dateSpinner.getValue();
-    LocalDate selectedDate = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-
-    List<Event> events = calendar.getAllEvents().stream()
-            .filter(e -> !e.getStart().toLocalDate().isBefore(selectedDate))
-            .sorted((e1, e2) -> e1.getStart().compareTo(e2.getStart()))
-            .limit(10)
-            .collect(Collectors.toList());
-
-    for (Event e : events) {
-      tableModel.addRow(new Object[]{
-              e.getSubject(),
-              formatter.format(e.getStart()),
-              formatter.format(e.getEnd()),
-              e.getDescription() != null ? e.getDescription() : ""
-      });
-    }
+    return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+  }
+
+  private Period selectedSpan() {
+    return SPAN_LENGTHS[spanBox.getSelectedIndex()];
   }
 
   private void editSelectedEvent() {
@@ -111,22 +125,15 @@ public class CalendarAppView extends JFrame {
       return;
     }
 
-    String subject = (String) tableModel.getValueAt(selectedRow, 0);
-    LocalDateTime start = LocalDateTime.parse(
-            (String) tableModel.getValueAt(selectedRow, 1), formatter);
-
-    Event selectedEvent = calendar.getAllEvents().stream()
-            .filter(e -> e.getSubject().equals(subject) && e.getStart().equals(start))
-            .findFirst().orElse(null);
-
-    if (selectedEvent == null) {
+    CalendarManagement.Handle selected = tableModel.getHandleAt(selectedRow);
+    if (selected == null) {
       JOptionPane.showMessageDialog(this,
               "Selected event could not be found.");
       return;
     }
 
-    new EditEventDialog(this, calendar, selectedEvent);
-    loadEvents();
+    new EditEventDialog(this, calendar, selected);
+    tableModel.refresh();
   }
 }
 
@@ -222,10 +229,12 @@ class EditEventDialog extends JDialog {
    *
    * @param parent   parent JFrame to use
    * @param calendar to access
-   * @param event    to be edited
+   * @param handle   of the event to be edited
    */
-  public EditEventDialog(JFrame parent, CalendarManagement calendar, Event event) {
+  public EditEventDialog(JFrame parent, CalendarManagement calendar,
+                         CalendarManagement.Handle handle) {
     super(parent, "Edit Event", true);
+    Event event = calendar.getEvent(handle);
     setLayout(new GridLayout(6, 2));
 
     JTextField subjectField = new JTextField(event.getSubject());
@@ -271,11 +280,12 @@ class EditEventDialog extends JDialog {
         return;
       }
 
-      calendar.editSingleEvent(event, "subject", subjectField.getText().trim());
-      calendar.editSingleEvent(event, "start", newStart.toString());
-      calendar.editSingleEvent(event, "end", newEnd.toString());
-      calendar.editSingleEvent(event, "description", descriptionField.getText().trim());
-      calendar.editSingleEvent(event, "location", locationField.getText().trim());
+      //each edit replaces the event; the handle leads to the latest version
+      calendar.editEvent(handle, "subject", subjectField.getText().trim());
+      calendar.editEvent(handle, "start", newStart.toString());
+      calendar.editEvent(handle, "end", newEnd.toString());
+      calendar.editEvent(handle, "description", descriptionField.getText().trim());
+      calendar.editEvent(handle, "location", locationField.getText().trim());
 
       JOptionPane.showMessageDialog(this, "Event updated successfully.");
       dispose();
@@ -0,0 +1,165 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stress test for reading a CalendarManagement from many threads while one
+ * thread keeps changing it.
+ */
+public class CalendarConcurrencyTest {
+
+  private static final int READERS = 4;
+
+  private CalendarManagement calendar;
+  private LocalDateTime base;
+  private AtomicBoolean writerDone;
+  private AtomicReference<Throwable> failure;
+
+  @Before
+  public void setUp() {
+    calendar = new CalendarManagement();
+    base = LocalDateTime.of(2025, 6, 2, 0, 0);
+    writerDone = new AtomicBoolean(false);
+    failure = new AtomicReference<>();
+  }
+
+  @Test
+  public void testReadersSeeGrowingPrefixOfWrites() throws InterruptedException {
+    final int total = 3000;
+
+    Runnable writer = () -> {
+      for (int i = 0; i < total; i++) {
+        calendar.addSingleEvent("E" + i, base.plusHours(i), base.plusHours(i).plusMinutes(30),
+                "", "", "public");
+      }
+    };
+
+    Runnable reader = () -> {
+      int lastSize = 0;
+      //a failed writer never reaches the total, so stop on any failure
+      while (failure.get() == null && (!writerDone.get() || lastSize < total)) {
+        List<Event> all = calendar.getAllEvents();
+
+        //each read is one consistent version: exactly the first n writes, in order
+        assertTrue(all.size() >= lastSize);
+        for (int i = 0; i < all.size(); i++) {
+          assertEquals("E" + i, all.get(i).getSubject());
+        }
+        lastSize = all.size();
+
+        //a later read must never see an older version
+        if (lastSize > 0) {
+          LocalDateTime newest = base.plusHours(lastSize - 1).plusMinutes(10);
+          assertTrue(calendar.isTimeSlotOccupied(newest));
+          assertTrue(calendar.getEventsBetween(base, base.plusHours(total)).size() >= lastSize);
+        }
+      }
+    };
+
+    runConcurrently(writer, reader);
+    assertEquals(total, calendar.getAllEvents().size());
+  }
+
+  @Test
+  public void testSeriesEditsAreAllOrNothing() throws InterruptedException {
+    final int members = 200;
+    calendar.addEventSeriesByOccurrences("Class", LocalTime.of(10, 0), LocalTime.of(11, 0),
+            LocalDate.of(2025, 6, 2), "MTWRF", members, "Lecture", "Room 0", "public");
+
+    Runnable writer = () -> {
+      for (int i = 1; i <= 300; i++) {
+        calendar.editEntireSeries("Class", base.withHour(10), "location", "Room " + i);
+      }
+    };
+
+    Runnable reader = () -> {
+      while (!writerDone.get()) {
+        List<Event> all = calendar.getAllEvents();
+        assertEquals(members, all.size());
+        String location = all.get(0).getLocation();
+        for (Event e : all) {
+          assertEquals(location, e.getLocation());
+        }
+
+        List<Event> window = calendar.getEventsBetween(base, base.plusYears(2));
+        assertEquals(members, window.size());
+        String windowLocation = window.get(0).getLocation();
+        for (Event e : window) {
+          assertEquals(windowLocation, e.getLocation());
+        }
+      }
+    };
+
+    runConcurrently(writer, reader);
+    for (Event e : calendar.getAllEvents()) {
+      assertEquals("Room 300", e.getLocation());
+    }
+  }
+
+  @Test
+  public void testLookupsDoNotWaitForWriter() throws InterruptedException {
+    calendar.addSingleEvent("Dentist", base.withHour(9), base.withHour(10), "", "", "");
+    calendar.addEventSeriesByOccurrences("Class", LocalTime.of(10, 0), LocalTime.of(11, 0),
+            LocalDate.of(2025, 6, 2), "MTWRF", 5, "", "", "");
+    CalendarManagement.Handle dentist = calendar.getHandle(
+            calendar.findEvent("Dentist", base.withHour(9)));
+
+    Runnable reader = () -> {
+      assertEquals("Dentist", calendar.getEvent(dentist).getSubject());
+      Event lesson = calendar.findEventIgnoreCase("class", base.plusDays(1).withHour(10));
+      assertEquals("Class", lesson.getSubject());
+      assertEquals(lesson.getStart(), calendar.getEvent(calendar.getHandle(lesson)).getStart());
+    };
+
+    //the writer's lock is held the whole time, as during a long change
+    Thread thread = new Thread(() -> guarded(reader));
+    synchronized (calendar) {
+      thread.start();
+      thread.join(10_000);
+      assertFalse(thread.isAlive());
+    }
+    assertNull(failure.get());
+  }
+
+  //run one writer and several readers, failing the test on any reader error
+  private void runConcurrently(Runnable writer, Runnable reader) throws InterruptedException {
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < READERS; i++) {
+      threads.add(new Thread(() -> guarded(reader)));
+    }
+    threads.add(new Thread(() -> {
+      guarded(writer);
+      writerDone.set(true);
+    }));
+
+    for (Thread t : threads) {
+      t.start();
+    }
+    for (Thread t : threads) {
+      t.join(60_000);
+    }
+
+    assertNull(failure.get());
+  }
+
+  private void guarded(Runnable task) {
+    try {
+      task.run();
+    } catch (Throwable t) {
+      failure.compareAndSet(null, t);
+      writerDone.set(true);
+    }
+  }
+}
@@ -1,48 +1,775 @@
+import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Collections;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Class to manage all calendar events.
+ * A calendar can be shared between one writer and many reader threads: every
+ * change is made under a lock and then published as an immutable snapshot, and
+ * the read methods (getAllEvents, getEventsBetween, isTimeSlotOccupied, findEvent)
+ * only look at the latest snapshot, so they never block and always see either all
+ * or none of a change. Handles are kept under a lock of their own, which the
+ * writer only takes to publish, so looking them up does not wait for a change.
+ *
+ * <p>A calendar loaded from a snapshot can keep the loaded events in an
+ * EventStore instead of one Event object each (see CalendarManagement(EventStore)).
+ * Queries then merge the rows of the store with the events on the heap; an
+ * edited event leaves the store and is kept on the heap from then on.
  */
 public class CalendarManagement {
 
-  private List<Event> events;
+  private static final long SECONDS_PER_DAY = 86400;
+  //epoch day 0 was a Thursday, the fourth day of a week starting on Monday
+  private static final long EPOCH_WEEKDAY = 3;
+  //first range searched for occurrences before or after a moment; doubled until enough
+  private static final long FIRST_SPAN = 7 * SECONDS_PER_DAY;
+  //events starting at the same second: by series identifier, for a stable page order
+  private static final Comparator<Event> OCCURRENCE_ORDER =
+          Comparator.comparingLong(Event::getStartSecond).thenComparing(Event::getIdentifier);
+  //offsetShift result when the offsets are not constant around a day
+  private static final int NO_SHIFT = Integer.MIN_VALUE;
+  //latest start time a cursor can be at
+  private static final long MAX_SECOND = Event.toSecond(LocalDateTime.MAX);
+
+  //all stored events, indexed by time; Event has no equals, so membership is by identity
+  private final EventIntervalTree timeIndex;
+  //stored events kept in an EventStore rather than in timeIndex; replaced on every
+  //change, like the views of a snapshot
+  private EventArchive archive;
+  //number of events per (subject, start, end); used for duplicate checks
+  private final Map<DuplicateKey, Integer> duplicateIndex;
+  //members of every series, keyed by the shared identifier
+  private final Map<UUID, Set<Event>> seriesIndex;
+  //series stored as rules; their occurrences are only created when queried. A
+  //series edited from a date on is split into rules for consecutive dates, which
+  //keep its identifier
+  private final Map<UUID, List<RecurrenceRule>> rules;
+  //rules per (subject with its case folded, second of the day they start); used
+  //for duplicate checks
+  private final Map<LookupKey, List<RecurrenceRule>> ruleLookup;
+  //every rule from its first start to its last end, weighted by its number of
+  //occurrences; used for ranges and counts
+  private final EventIntervalTree ruleIndex;
+  //every rule on each of its weekdays, on a timeline of one week from Monday
+  //00:00; used for moments and ranges within a day
+  private final EventIntervalTree weekIndex;
+  //entries of every rule in ruleIndex and weekIndex, by identity
+  private final Map<RecurrenceRule, List<RuleWindow>> ruleWindows;
+  //guards the handle maps, which readers change when they give out a handle
+  private final Object handleLock;
+  //handles given out for stored events, both ways, by identity
+  private final Map<Event, Handle> handles;
+  private final Map<Handle, Event> handled;
+  //handles given out for occurrences of rules, by series and start second
+  private final Map<UUID, Map<Long, Handle>> occurrenceHandles;
+  //handles given out for events in the archive, by row of its store
+  private final Map<Integer, Handle> archiveHandles;
+  //changes to the handles made since the last publish; applied with it, so a handle
+  //always matches the snapshot it was looked up in
+  private final List<Runnable> handleChanges;
+  //one shared instance of each subject, location and status in this calendar
+  private final StringDictionary strings;
   private final SingleEventBuilder singleEventBuilder;
   private final EventSeriesBuilder eventSeriesBuilder;
+  //latest published state; the only field read without holding a lock
+  private volatile Snapshot snapshot;
+
+  /**
+   * Internal class holding an immutable version of the calendar for readers.
+   * The views share all unchanged nodes with older and newer versions.
+   */
+  private static final class Snapshot {
+    private final EventArchive archive;
+    private final EventIntervalTree.View events;
+    private final EventIntervalTree.View rules;
+    private final EventIntervalTree.View week;
+
+    private Snapshot(EventArchive archive, EventIntervalTree.View events,
+                     EventIntervalTree.View rules, EventIntervalTree.View week) {
+      this.archive = archive;
+      this.events = events;
+      this.rules = rules;
+      this.week = week;
+    }
+  }
+
+  /**
+   * Internal class for the entries of a rule in ruleIndex and weekIndex: a
+   * stand-in event covering the times the rule's occurrences fall in, which
+   * leads back to the rule.
+   */
+  private static final class RuleWindow extends Event {
+    private final RecurrenceRule rule;
+    private final long occurrences;
+
+    private RuleWindow(RecurrenceRule rule, long occurrences, long start, long end) {
+      super(rule.getSubject(), Event.toDateTime(start), null, Event.toDateTime(end),
+              null, null, rule.getIdentifier());
+      this.rule = rule;
+      this.occurrences = occurrences;
+    }
+  }
+
+  /**
+   * Internal class used as the hash key for duplicate detection.
+   */
+  private static final class DuplicateKey {
+    private final String subject;
+    private final long start;
+    private final long end;
+
+    private DuplicateKey(Event e) {
+      this.subject = e.getSubject();
+      this.start = e.getStartSecond();
+      this.end = e.getEndSecond();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof DuplicateKey)) {
+        return false;
+      }
+      DuplicateKey other = (DuplicateKey) o;
+      return start == other.start && end == other.end
+              && Objects.equals(subject, other.subject);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * Objects.hashCode(subject) + Long.hashCode(start)) + Long.hashCode(end);
+    }
+  }
+
+  /**
+   * Internal class used as the hash key for finding a rule by subject and time of day.
+   */
+  private static final class LookupKey {
+    private final String subject;
+    private final long start;
+
+    private LookupKey(String subject, long start) {
+      this.subject = subject;
+      this.start = start;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof LookupKey)) {
+        return false;
+      }
+      LookupKey other = (LookupKey) o;
+      return start == other.start && Objects.equals(subject, other.subject);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Objects.hashCode(subject) + Long.hashCode(start);
+    }
+  }
+
+  /**
+   * Result of copying one event with copyEventsBetween.
+   */
+  public static final class CopyResult {
+    private final Event event;
+    private final boolean copied;
+
+    private CopyResult(Event event, boolean copied) {
+      this.event = event;
+      this.copied = copied;
+    }
+
+    /**
+     * Get the copy, with the start and end it has (or would have) in the target.
+     *
+     * @return copied event
+     */
+    public Event getEvent() {
+      return event;
+    }
+
+    /**
+     * Checks whether the copy was added to the target calendar.
+     *
+     * @return true if added, false if skipped because of a conflict
+     */
+    public boolean isCopied() {
+      return copied;
+    }
+  }
+
+  /**
+   * Position between two events in start-time order, used to page through the
+   * calendar. It sits after the given number of events that start at its second
+   * and before every other event starting at or after that second, so it stays
+   * meaningful while events elsewhere in the calendar are added or removed.
+   */
+  public static final class Cursor {
+    private final long second;
+    private final int skip;
+
+    private Cursor(long second, int skip) {
+      this.second = second;
+      this.skip = skip;
+    }
+
+    /**
+     * Creates the position just before the first event that starts at or after
+     * the given time.
+     *
+     * @param dateTime earliest start time of the events after the position
+     * @return cursor at that time
+     */
+    public static Cursor at(LocalDateTime dateTime) {
+      long second = Event.toSecond(dateTime);
+      return new Cursor(dateTime.getNano() > 0 ? second + 1 : second, 0);
+    }
+
+    /**
+     * Get the time of the position.
+     *
+     * @return start time of the events the position sits between
+     */
+    public LocalDateTime getTime() {
+      return Event.toDateTime(second);
+    }
+  }
+
+  /**
+   * One page of events in start-time order, with the cursors on either side of
+   * it for fetching the previous and next pages.
+   */
+  public static final class Page {
+    private final List<Event> events;
+    private final Cursor previous;
+    private final Cursor next;
+    private final boolean hasPrevious;
+    private final boolean hasNext;
+
+    private Page(List<Event> events, Cursor previous, Cursor next,
+                 boolean hasPrevious, boolean hasNext) {
+      this.events = Collections.unmodifiableList(events);
+      this.previous = previous;
+      this.next = next;
+      this.hasPrevious = hasPrevious;
+      this.hasNext = hasNext;
+    }
+
+    /**
+     * Get the events of the page, ordered by start time.
+     *
+     * @return unmodifiable list of events
+     */
+    public List<Event> getEvents() {
+      return events;
+    }
+
+    /**
+     * Get the position just before the first event of the page.
+     *
+     * @return cursor for getPageBefore
+     */
+    public Cursor getPrevious() {
+      return previous;
+    }
+
+    /**
+     * Get the position just after the last event of the page.
+     *
+     * @return cursor for getPageAfter
+     */
+    public Cursor getNext() {
+      return next;
+    }
+
+    /**
+     * Checks whether any event comes before this page.
+     *
+     * @return true if there is a previous page
+     */
+    public boolean hasPrevious() {
+      return hasPrevious;
+    }
+
+    /**
+     * Checks whether any event comes after this page.
+     *
+     * @return true if there is a next page
+     */
+    public boolean hasNext() {
+      return hasNext;
+    }
+  }
+
+  /**
+   * Stable reference to one event of the calendar. Events never change, so
+   * editing one replaces it with a new Event; a handle follows those
+   * replacements and always leads to the current version. It also works for an
+   * occurrence of a rule-based series, before and after the occurrence is
+   * edited into an event of its own.
+   */
+  public static final class Handle {
+    //series and start of the occurrence the handle was made for; null for a stored event
+    private final UUID series;
+    private final long second;
+    //row of the archived event the handle was made for, or -1
+    private final int row;
+
+    private Handle(UUID series, long second, int row) {
+      this.series = series;
+      this.second = second;
+      this.row = row;
+    }
+  }
 
   /**
    * Builder for CalendarManagement object to help manage the calendar.
    */
   public CalendarManagement() {
-    this.events = new ArrayList<>();
-    this.singleEventBuilder = new SingleEventBuilder();
-    this.eventSeriesBuilder = new EventSeriesBuilder();
+    this.timeIndex = new EventIntervalTree();
+    this.archive = EventArchive.EMPTY;
+    this.duplicateIndex = new HashMap<>();
+    this.seriesIndex = new HashMap<>();
+    this.rules = new HashMap<>();
+    this.ruleLookup = new HashMap<>();
+    this.ruleIndex = new EventIntervalTree();
+    this.weekIndex = new EventIntervalTree();
+    this.ruleWindows = new IdentityHashMap<>();
+    this.handleLock = new Object();
+    this.handles = new IdentityHashMap<>();
+    this.handled = new IdentityHashMap<>();
+    this.occurrenceHandles = new HashMap<>();
+    this.archiveHandles = new HashMap<>();
+    this.handleChanges = new ArrayList<>();
+    this.strings = new StringDictionary();
+    this.singleEventBuilder = new SingleEventBuilder(strings);
+    this.eventSeriesBuilder = new EventSeriesBuilder(strings);
+    publish();
+  }
+
+  /**
+   * Builder for a CalendarManagement that keeps the events of the given store
+   * where they are, instead of building an Event object for each, and indexes
+   * its rule-based series like any other. The store must not be changed
+   * afterwards. Events added or edited later are kept on the heap.
+   *
+   * @param store events and rules to start the calendar with
+   */
+  public CalendarManagement(EventStore store) {
+    this();
+    this.archive = new EventArchive(store);
+    store.getRecurrenceRules().forEach(this::indexRule);
+    publish();
   }
 
   /**
-   * Returns an unmodifiable list of all events.
+   * Returns an unmodifiable list of all events, including every occurrence of
+   * rule-based series. Stored events come first, ordered by start time.
    *
    * @return list of all events in the calendar
    */
   public List<Event> getAllEvents() {
-    return Collections.unmodifiableList(events);
+    Snapshot current = snapshot;
+    List<Event> all = mergeByStart(current.archive.toList(), current.events.toList());
+    for (Event window : current.rules.toList()) {
+      all.addAll(((RuleWindow) window).rule.expandAll());
+    }
+    return Collections.unmodifiableList(all);
   }
 
   /**
-   * Returns all events that overlap the given date range (inclusive).
+   * Returns the events that are stored one by one, ordered by start time.
+   * Occurrences of rule-based series are not included.
+   *
+   * @return list of stored events
+   */
+  public List<Event> getStoredEvents() {
+    Snapshot current = snapshot;
+    return Collections.unmodifiableList(
+            mergeByStart(current.archive.toList(), current.events.toList()));
+  }
+
+  /**
+   * Returns the stored events as a read-only collection that only builds the
+   * events kept in a store while it is walked, ordered by start time, so they
+   * can be written out without holding all of them at once.
+   *
+   * @return collection of the stored events
+   */
+  public Collection<Event> getStoredEventView() {
+    Snapshot current = snapshot;
+    EventArchive archived = current.archive;
+    List<Event> events = current.events.toList();
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<Event> iterator() {
+        return mergeByStart(archived.iterator(), events.iterator());
+      }
+
+      @Override
+      public int size() {
+        return archived.size() + events.size();
+      }
+    };
+  }
+
+  /**
+   * Returns the dictionary that the events of this calendar share their
+   * subjects, locations and statuses through.
+   *
+   * @return string dictionary of the calendar
+   */
+  public StringDictionary getStringDictionary() {
+    return strings;
+  }
+
+  /**
+   * Returns the rule-based series of the calendar, ordered by the start of their
+   * first possible occurrence. A series edited from a date on has a rule for
+   * the dates before and one for the dates after.
+   *
+   * @return unmodifiable list of recurrence rules
+   */
+  public List<RecurrenceRule> getRecurrenceRules() {
+    List<Event> windows = snapshot.rules.toList();
+    List<RecurrenceRule> result = new ArrayList<>(windows.size());
+    for (Event window : windows) {
+      result.add(((RuleWindow) window).rule);
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Returns the stable handle of an event of this calendar, the same one every
+   * time it is asked for. Looks the event up in the latest snapshot by its start,
+   * so it runs in O(log n) and does not wait for a change being made.
+   *
+   * @param event stored event or occurrence of a series, as returned by a query
+   * @return handle that keeps leading to the event after it is edited
+   * @throws IllegalArgumentException if the event is not (or no longer) in the calendar
+   */
+  public Handle getHandle(Event event) {
+    long second = event.getStartSecond();
+    synchronized (handleLock) {
+      Snapshot current = snapshot;
+      for (Event stored : storedAt(current.events, second)) {
+        if (stored == event) {
+          return handles.computeIfAbsent(event, e -> {
+            Handle handle = new Handle(null, second, -1);
+            handled.put(handle, e);
+            return handle;
+          });
+        }
+      }
+
+      //an archived event is built anew by every query, so it is found by its fields
+      int row = current.archive.rowOf(event);
+      if (row >= 0) {
+        return archiveHandles.computeIfAbsent(row, r -> new Handle(null, second, r));
+      }
+
+      for (RecurrenceRule rule : rulesAt(current, second)) {
+        if (rule.isOccurrence(event)) {
+          return occurrenceHandles.computeIfAbsent(rule.getIdentifier(), id -> new HashMap<>())
+                  .computeIfAbsent(second, start -> new Handle(rule.getIdentifier(), start, -1));
+        }
+      }
+    }
+    throw new IllegalArgumentException("Event is not in this calendar.");
+  }
+
+  /**
+   * Returns the current version of the event behind a handle. Runs in O(1) for a
+   * stored event and in O(log n) for an occurrence of a series, without waiting
+   * for a change being made.
+   *
+   * @param handle from getHandle
+   * @return the event, or null if it is no longer in the calendar
+   */
+  public Event getEvent(Handle handle) {
+    synchronized (handleLock) {
+      Event stored = handled.get(handle);
+      if (stored != null) {
+        return stored;
+      }
+      if (handle.row >= 0) {
+        return snapshot.archive.event(handle.row);
+      }
+      if (handle.series == null) {
+        return null;
+      }
+
+      for (RecurrenceRule rule : rulesAt(snapshot, handle.second)) {
+        if (rule.getIdentifier().equals(handle.series)) {
+          return rule.occurrence(LocalDate.ofEpochDay(
+                  Math.floorDiv(handle.second, SECONDS_PER_DAY)));
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Edits the event behind a handle, which keeps leading to the edited event,
+   * so several properties can be changed one after another.
+   *
+   * @param handle   of the event to edit
+   * @param property to change
+   * @param newValue of the property
+   * @return the edited event
+   * @throws IllegalArgumentException if the event is no longer in the calendar
+   */
+  public synchronized Event editEvent(Handle handle, String property, String newValue) {
+    Event event = getEvent(handle);
+    if (event == null) {
+      throw new IllegalArgumentException("Event is no longer in the calendar.");
+    }
+    return editSingleEvent(event, property, newValue);
+  }
+
+  /**
+   * Finds the first added event with the given subject and start time. Reads the
+   * events starting at that time from the latest snapshot, in O(log n) plus the
+   * number of them.
+   *
+   * @param subject of the event
+   * @param start   time of the event
+   * @return the matching event, or null if there is none
+   */
+  public Event findEvent(String subject, LocalDateTime start) {
+    return find(snapshot, subject, Event.toSecond(start), false);
+  }
+
+  /**
+   * Finds the first added event whose subject matches the given one ignoring
+   * case and that starts at the given time. Searches the snapshot the same way
+   * as findEvent, so it does not scan the calendar.
+   *
+   * @param subject of the event, in any case
+   * @param start   time of the event
+   * @return the matching event, or null if there is none
+   */
+  public Event findEventIgnoreCase(String subject, LocalDateTime start) {
+    return find(snapshot, subject, Event.toSecond(start), true);
+  }
+
+  /**
+   * Returns all events that overlap the given date range (inclusive),
+   * ordered by start time. Uses the interval tree index, and finds the
+   * rule-based series with occurrences in the range through an index of their
+   * own, which only they are expanded for.
    *
    * @param from start of the time range
    * @param to   end of the time range
    * @return list of events that overlap with the given time range
    */
   public List<Event> getEventsBetween(LocalDateTime from, LocalDateTime to) {
-    return events.stream()
+    Snapshot current = snapshot;
+    List<Event> result = mergeByStart(
+            current.archive.overlapping(Cursor.at(from).second, Event.toSecond(to)),
+            current.events.overlapping(from, to));
+    if (current.rules.size() == 0) {
+      return result;
+    }
+
+    List<Event> occurrences = new ArrayList<>();
+    for (RecurrenceRule rule : rulesBetween(current, Event.toSecond(from), Event.toSecond(to))) {
+      occurrences.addAll(rule.expand(from, to));
+    }
+    return merge(result, occurrences);
+  }
+
+  /**
+   * Returns the first events that start at or after the given moment, ordered by
+   * start time, such as the next ten events shown from a date. Stored events come
+   * from a bounded walk of the interval tree, and each rule-based series only
+   * expands as many occurrences as could be shown.
+   *
+   * @param from  earliest start time
+   * @param limit largest number of events to return
+   * @return at most limit events starting at or after from
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  public List<Event> getEventsFrom(LocalDateTime from, int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative.");
+    }
+    return startingFrom(snapshot, Cursor.at(from).second, limit);
+  }
+
+  /**
+   * Returns the first page of events that start at or after the given moment.
+   * Later and earlier pages are fetched with the page's cursors, so scrolling
+   * through a large calendar costs O(log n + size) per page.
+   *
+   * @param from earliest start time
+   * @param size largest number of events on the page
+   * @return page of events starting at or after from
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public Page getUpcomingEvents(LocalDateTime from, int size) {
+    return getPageAfter(Cursor.at(from), size);
+  }
+
+  /**
+   * Counts the events that start at or after one moment and strictly before
+   * another. Uses the event counts kept in the interval trees, and only counts
+   * the rule-based series running at either end by whole weeks, so it runs in
+   * O(log n) however many events are in the range.
+   *
+   * @param from earliest start time
+   * @param to   moment the events start before
+   * @return number of events starting in the range; long series running for
+   *         centuries can add up to more than an int holds
+   */
+  public long countEventsStarting(LocalDateTime from, LocalDateTime to) {
+    Snapshot current = snapshot;
+    long low = Cursor.at(from).second;
+    long high = Math.min(Cursor.at(to).second, MAX_SECOND);
+    return high <= low ? 0 : countBefore(current, high) - countBefore(current, low);
+  }
+
+  /**
+   * Returns the position just before the event at the given offset among the
+   * events starting at or after a moment, so that a page can be fetched from
+   * any row of a long list without walking the rows before it. Searches the
+   * start times with countEventsStarting, so it runs in O(log n) per step of
+   * a binary search over the seconds after the moment.
+   *
+   * @param from   earliest start time
+   * @param offset number of events to pass
+   * @return cursor for getPageAfter; past the last event if there are fewer events
+   * @throws IllegalArgumentException if the offset is negative
+   */
+  public Cursor getCursor(LocalDateTime from, int offset) {
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset cannot be negative.");
+    }
+
+    Snapshot current = snapshot;
+    long low = Cursor.at(from).second;
+    long high = MAX_SECOND;
+    long target = Math.min(countBefore(current, low) + offset, countBefore(current, high));
+
+    //latest second that still has no more than target events before it
+    while (low < high) {
+      long middle = low + (high - low + 1) / 2;
+      if (countBefore(current, middle) <= target) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    //only the events starting at that very second are left to skip
+    return new Cursor(low, (int) (target - countBefore(current, low)));
+  }
+
+  /**
+   * Returns the page of events right after the given position.
+   *
+   * @param cursor position to start after, usually Page.getNext
+   * @param size   largest number of events on the page
+   * @return page of the events following the cursor
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public Page getPageAfter(Cursor cursor, int size) {
+    checkPageSize(size);
+    Snapshot current = snapshot;
+
+    //one more than the page, to find out whether a next page exists
+    List<Event> found = startingFrom(current, cursor.second, cursor.skip + size + 1);
+    int skipped = countLeading(found, cursor.second, cursor.skip);
+    List<Event> events = new ArrayList<>(found.subList(skipped, found.size()));
+    boolean hasNext = events.size() > size;
+    if (hasNext) {
+      events = new ArrayList<>(events.subList(0, size));
+    }
+
+    Cursor start = new Cursor(cursor.second, skipped);
+    boolean hasPrevious = skipped > 0
+            || !startingBefore(current, cursor.second, 1).isEmpty();
+    if (events.isEmpty()) {
+      return new Page(events, start, start, hasPrevious, false);
+    }
+
+    Event first = events.get(0);
+    Cursor previous = first.getStartSecond() == cursor.second
+            ? start : new Cursor(first.getStartSecond(), 0);
+    long last = events.get(events.size() - 1).getStartSecond();
+    int before = last == cursor.second ? skipped : 0;
+    Cursor next = new Cursor(last, before + countTrailing(events, last));
+    return new Page(events, previous, next, hasPrevious, hasNext);
+  }
+
+  /**
+   * Returns the page of events right before the given position.
+   *
+   * @param cursor position to end before, usually Page.getPrevious
+   * @param size   largest number of events on the page
+   * @return page of the events preceding the cursor
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public Page getPageBefore(Cursor cursor, int size) {
+    checkPageSize(size);
+    Snapshot current = snapshot;
+
+    //events at the cursor's own second that it has already passed
+    List<Event> ties = startingFrom(current, cursor.second, cursor.skip);
+    ties = ties.subList(0, countLeading(ties, cursor.second, cursor.skip));
+    //one more than the page, to find out whether a previous page exists
+    List<Event> events = startingBefore(current, cursor.second, size + 1);
+    events.addAll(ties);
+    boolean hasPrevious = events.size() > size;
+    if (hasPrevious) {
+      events = new ArrayList<>(events.subList(events.size() - size, events.size()));
+    }
+
+    Cursor end = new Cursor(cursor.second, ties.size());
+    boolean hasNext = startingFrom(current, cursor.second, ties.size() + 1).size() > ties.size();
+    if (events.isEmpty()) {
+      return new Page(events, end, end, false, hasNext);
+    }
+
+    long first = events.get(0).getStartSecond();
+    int after = countLeading(events, first, events.size());
+    int total = first == cursor.second ? ties.size() : countStartingAt(current, first);
+    Cursor previous = new Cursor(first, total - after);
+    return new Page(events, previous, end, hasPrevious, hasNext);
+  }
+
+  /**
+   * Returns all events that overlap the given date range (inclusive) by scanning
+   * every event. Kept as a reference for the indexed query.
+   *
+   * @param from start of the time range
+   * @param to   end of the time range
+   * @return list of events that overlap with the given time range
+   */
+  public List<Event> getEventsBetweenLinear(LocalDateTime from, LocalDateTime to) {
+    return getAllEvents().stream()
             .filter(event ->
                     // Event starts or ends in the window, or fully surrounds it
                     !event.getEnd().isBefore(from) && !event.getStart().isAfter(to)
@@ -52,12 +779,37 @@ public class CalendarManagement {
 
   /**
    * Checks whether any event is scheduled at the given time.
+   * Uses the interval tree index, so it runs in O(log n), and only checks the
+   * rule-based series that repeat on that weekday at that time of day.
    *
    * @param dateTime the specific moment to check
    * @return true if an event overlaps with the given time
    */
   public boolean isTimeSlotOccupied(LocalDateTime dateTime) {
-    return events.stream()
+    Snapshot current = snapshot;
+    if (current.events.containsPoint(dateTime)
+            || current.archive.containsPoint(Event.toSecond(dateTime))) {
+      return true;
+    }
+
+    long second = weekSecond(Event.toSecond(dateTime));
+    for (Event window : current.week.overlapping(second, second)) {
+      if (((RuleWindow) window).rule.isActiveAt(dateTime)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether any event is scheduled at the given time by scanning every
+   * event. Kept as a reference for the indexed lookup.
+   *
+   * @param dateTime the specific moment to check
+   * @return true if an event overlaps with the given time
+   */
+  public boolean isTimeSlotOccupiedLinear(LocalDateTime dateTime) {
+    return getAllEvents().stream()
             .anyMatch(event ->
                     !dateTime.isBefore(event.getStart()) &&
                             dateTime.isBefore(event.getEnd())
@@ -68,8 +820,8 @@ public class CalendarManagement {
   /**
    * Adds a single event to the calendar.
    */
-  public void addSingleEvent(String subject, LocalDateTime start, LocalDateTime end,
-                             String description, String location, String status) {
+  public synchronized void addSingleEvent(String subject, LocalDateTime start, LocalDateTime end,
+                                          String description, String location, String status) {
     Event event = singleEventBuilder.createEvent(subject, start, end,
             description, location, status);
 
@@ -77,7 +829,8 @@ public class CalendarManagement {
       throw new IllegalArgumentException("Duplicate event not allowed");
     }
 
-    events.add(event);
+    index(event);
+    publish();
   }
 
   /**
@@ -87,88 +840,827 @@ public class CalendarManagement {
    * @param property to be changed
    * @param newValue to change the updated property into
    */
-  public Event editSingleEvent(Event event, String property, String newValue) {
+  public synchronized Event editSingleEvent(Event event, String property, String newValue) {
     Event updated = singleEventBuilder.editEvent(event, property, newValue);
-    replaceEvent(event, updated);
+
+    LocalDate date = event.getStart().toLocalDate();
+    RecurrenceRule rule = ruleOn(event.getIdentifier(), date);
+    if (!replaceEvent(event, updated) && rule != null && rule.isOccurrence(event)) {
+      // take the occurrence out of the rule and store the edited copy instead
+      unindexRule(rule);
+      indexRule(rule.withException(date));
+      index(updated);
+      adopt(rule.getIdentifier(), event.getStartSecond(), updated);
+    }
+    publish();
     return updated;
   }
 
   /**
    * Adds event series that occurs a specific number of times on selected weekdays.
    */
-  public List<Event> addEventSeriesByOccurrences(String subject, LocalTime startTime,
-                                                 LocalTime endTime,
-                                                 LocalDate startDate,
-                                                 String weekdayCodes, int occurrences,
-                                                 String description,
-                                                 String location, String status) {
+  public synchronized List<Event> addEventSeriesByOccurrences(String subject, LocalTime startTime,
+                                                              LocalTime endTime,
+                                                              LocalDate startDate,
+                                                              String weekdayCodes, int occurrences,
+                                                              String description,
+                                                              String location, String status) {
     List<Event> series = eventSeriesBuilder.createSeriesByOccurrences(
             subject, startTime, endTime, startDate, weekdayCodes, occurrences,
             description, location, status);
-    events.addAll(series);
+    series.forEach(this::index);
+    publish();
     return series;
   }
 
   /**
    * Adds a repeating event series that ends on or before a specific date.
    */
-  public List<Event> addEventSeriesUntilDate(String subject,
-                                             LocalTime startTime, LocalTime endTime,
-                                             LocalDate startDate, LocalDate endDate,
-                                             String weekdayCodes,
-                                             String description,
-                                             String location, String status) {
+  public synchronized List<Event> addEventSeriesUntilDate(String subject,
+                                                          LocalTime startTime, LocalTime endTime,
+                                                          LocalDate startDate, LocalDate endDate,
+                                                          String weekdayCodes,
+                                                          String description,
+                                                          String location, String status) {
     List<Event> series = eventSeriesBuilder.createSeriesUntilDate(
             subject, startTime, endTime, startDate, endDate, weekdayCodes,
             description, location, status);
-    events.addAll(series);
+    series.forEach(this::index);
+    publish();
     return series;
   }
 
+  /**
+   * Adds a series that occurs a specific number of times on selected weekdays,
+   * stored as a single recurrence rule instead of one event per occurrence.
+   */
+  public synchronized RecurrenceRule addRecurringSeriesByOccurrences(String subject,
+                                                                     LocalTime startTime,
+                                                                     LocalTime endTime,
+                                                                     LocalDate startDate,
+                                                                     String weekdayCodes,
+                                                                     int occurrences,
+                                                                     String description,
+                                                                     String location,
+                                                                     String status) {
+    RecurrenceRule rule = eventSeriesBuilder.createRuleByOccurrences(
+            subject, startTime, endTime, startDate, weekdayCodes, occurrences,
+            description, location, status);
+    indexRule(rule);
+    publish();
+    return rule;
+  }
+
+  /**
+   * Adds a repeating series that ends on or before a specific date, stored as a
+   * single recurrence rule instead of one event per occurrence.
+   */
+  public synchronized RecurrenceRule addRecurringSeriesUntilDate(String subject,
+                                                                 LocalTime startTime,
+                                                                 LocalTime endTime,
+                                                                 LocalDate startDate,
+                                                                 LocalDate endDate,
+                                                                 String weekdayCodes,
+                                                                 String description,
+                                                                 String location,
+                                                                 String status) {
+    RecurrenceRule rule = eventSeriesBuilder.createRuleUntilDate(
+            subject, startTime, endTime, startDate, endDate, weekdayCodes,
+            description, location, status);
+    indexRule(rule);
+    publish();
+    return rule;
+  }
+
+  /**
+   * Adds already built events and rules as they are, keeping their identifiers.
+   * Used when loading a saved calendar; no duplicate checks are made.
+   *
+   * @param stored events to add
+   * @param storedRules recurrence rules to add
+   */
+  public synchronized void restore(List<Event> stored, List<RecurrenceRule> storedRules) {
+    stored.forEach(this::index);
+    storedRules.forEach(this::indexRule);
+    publish();
+  }
+
+  /**
+   * Copies every event that starts on the days from..to (inclusive) into another
+   * calendar, shifting the first day to targetStart. Each event keeps its wall
+   * clock time converted from the source zone to the target zone, and keeps its
+   * description, location and status. A copy is skipped when the target already
+   * has an event with the same subject (ignoring case) and start.
+   *
+   * <p>The source events are read once by walking the start-ordered indexes from
+   * the first day to the last, so an event whose end was edited to before its start
+   * is still copied from the day it starts. Conflicts are checked against a hash
+   * set of the target's events in the target range, and all copies are added to
+   * the target under one lock and published together. When the target is this
+   * calendar, only events that existed before the copy are copied.
+   *
+   * @param from        first day to copy
+   * @param to          last day to copy
+   * @param sourceZone  time zone of this calendar
+   * @param target      calendar to copy into
+   * @param targetStart day the first day is copied to
+   * @param targetZone  time zone of the target calendar
+   * @return one result per event found, ordered by day and start time
+   * @throws IllegalArgumentException if to is before from
+   */
+  public List<CopyResult> copyEventsBetween(LocalDate from, LocalDate to, ZoneId sourceZone,
+                                            CalendarManagement target, LocalDate targetStart,
+                                            ZoneId targetZone) {
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("End date must not be before start date.");
+    }
+
+    ZoneRules sourceRules = sourceZone.getRules();
+    ZoneRules targetRules = targetZone.getRules();
+    long firstDay = from.toEpochDay();
+    long dayShift = targetStart.toEpochDay() - firstDay;
+
+    //events come ordered by start, so each day's shift is worked out once
+    long shiftDay = Long.MIN_VALUE;
+    int shift = NO_SHIFT;
+
+    List<Event> copies = new ArrayList<>();
+    for (Event e : startingBetween(snapshot, firstDay * SECONDS_PER_DAY,
+            (to.toEpochDay() + 1) * SECONDS_PER_DAY)) {
+      long day = Math.floorDiv(e.getStartSecond(), SECONDS_PER_DAY);
+      long targetDay = day + dayShift;
+      if (day != shiftDay) {
+        shiftDay = day;
+        shift = offsetShift(day, targetDay, sourceRules, targetRules);
+      }
+
+      long newStart;
+      if (shift != NO_SHIFT) {
+        newStart = targetDay * SECONDS_PER_DAY
+                + Math.floorMod(e.getStartSecond() + shift, SECONDS_PER_DAY);
+      } else {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        LocalDate targetDate = LocalDate.ofEpochDay(targetDay);
+        newStart = Event.toSecond(convert(date, e.getStart().toLocalTime(), sourceZone,
+                targetZone, targetDate));
+      }
+      //the copy lasts as long as the original, even when that runs past midnight
+      long newEnd = e.getEndSecond() == Event.NO_TIME
+              ? Event.NO_TIME : newStart + e.getEndSecond() - e.getStartSecond();
+      copies.add(target.singleEventBuilder.createEvent(e.getSubject(), Event.toDateTime(newStart),
+              Event.toDateTime(newEnd), e.getDescription(), e.getLocation(), e.getStatus()));
+    }
+
+    //events come back ordered by start time, which also orders them by day
+    return target.addCopies(copies);
+  }
+
   /**
    * Edits an event and all future events in the same series (in-place).
    * If time is changed, all resulting events get a new series UUID.
+   * A rule-based series is split at the event, and only the rule for the
+   * later dates is edited; its occurrences only become stored events when
+   * their time is changed.
    */
-  public void editSeriesFromDate(String subject, LocalDateTime startTime,
-                                 String property, String newValue) {
-    eventSeriesBuilder.editEventAndFutureSeries(events, subject,
-            startTime, property, newValue);
+  public synchronized void editSeriesFromDate(String subject, LocalDateTime startTime,
+                                              String property, String newValue) {
+    Event target = findEvent(subject, startTime);
+    if (target == null) {
+      throw new IllegalArgumentException("Event not found with given subject and start time.");
+    }
+
+    editRulesFrom(target.getIdentifier(), startTime, property, newValue);
+    List<Event> members = seriesMembers(target.getIdentifier());
+    List<Event> updated = eventSeriesBuilder.editFutureMembers(members, startTime,
+            property, newValue);
+
+    for (int i = 0; i < members.size(); i++) {
+      if (updated.get(i) != members.get(i)) {
+        replaceEvent(members.get(i), updated.get(i));
+      }
+    }
+    publish();
   }
 
   /**
    * Edits an event and all events in the same series (in-place).
    * If the event is not part of a series, behaves like single-event edit.
+   * The rules of a rule-based series are edited as rules unless the time is
+   * changed.
    */
-  public void editEntireSeries(String subject, LocalDateTime startDateTime,
-                               String property, String newValue) {
-    this.events = eventSeriesBuilder.editEntireSeries(events, subject,
-            startDateTime, property, newValue);
+  public synchronized void editEntireSeries(String subject, LocalDateTime startDateTime,
+                                            String property, String newValue) {
+    Event target = findEvent(subject, startDateTime);
+    if (target == null) {
+      return;
+    }
+
+    editRulesFrom(target.getIdentifier(), LocalDateTime.MIN, property, newValue);
+    List<Event> members = seriesMembers(target.getIdentifier());
+    for (Event e : members) {
+      replaceEvent(e, eventSeriesBuilder.editEvent(e, property, newValue));
+    }
+    publish();
   }
 
   // --- Helper methods ---
 
-  private void replaceEvent(Event original, Event updated) {
-    int index = events.indexOf(original);
-    if (index != -1) {
-      events.set(index, updated);
+  //add copied events that don't conflict with existing ones, publishing once
+  private synchronized List<CopyResult> addCopies(List<Event> copies) {
+    List<CopyResult> results = new ArrayList<>(copies.size());
+    if (copies.isEmpty()) {
+      return results;
+    }
+
+    long first = Long.MAX_VALUE;
+    long last = Long.MIN_VALUE;
+    for (Event copy : copies) {
+      first = Math.min(first, copy.getStartSecond());
+      last = Math.max(last, copy.getStartSecond());
+    }
+
+    //only events starting where a copy starts can conflict
+    Set<LookupKey> taken = new HashSet<>();
+    for (Event e : startingBetween(snapshot, first, last + 1)) {
+      taken.add(new LookupKey(foldCase(e.getSubject()), e.getStartSecond()));
+    }
+
+    for (Event copy : copies) {
+      boolean free = taken.add(new LookupKey(foldCase(copy.getSubject()),
+              copy.getStartSecond()));
+      if (free) {
+        index(copy);
+      }
+      results.add(new CopyResult(copy, free));
+    }
+    publish();
+    return results;
+  }
+
+  //seconds to add to a source wall-clock time to get the target one, or NO_SHIFT
+  //when either zone changes offset close enough to the days to need the full conversion
+  private static int offsetShift(long day, long targetDay, ZoneRules sourceRules,
+                                 ZoneRules targetRules) {
+    //a day in any zone lies within a day either side of the same UTC day
+    Instant dayStart = Instant.ofEpochSecond((day - 1) * SECONDS_PER_DAY);
+    Instant dayEnd = Instant.ofEpochSecond((day + 2) * SECONDS_PER_DAY);
+    Instant targetStart = Instant.ofEpochSecond((targetDay - 1) * SECONDS_PER_DAY);
+    Instant targetEnd = Instant.ofEpochSecond((targetDay + 2) * SECONDS_PER_DAY);
+    if (changesOffset(sourceRules, dayStart, dayEnd)
+            || changesOffset(targetRules, dayStart, dayEnd)
+            || changesOffset(targetRules, targetStart, targetEnd)) {
+      return NO_SHIFT;
+    }
+    return targetRules.getOffset(dayStart).getTotalSeconds()
+            - sourceRules.getOffset(dayStart).getTotalSeconds();
+  }
+
+  private static boolean changesOffset(ZoneRules rules, Instant from, Instant to) {
+    if (rules.isFixedOffset()) {
+      return false;
+    }
+    ZoneOffsetTransition next = rules.nextTransition(from);
+    return next != null && next.getInstant().isBefore(to);
+  }
+
+  //the time on the source day, moved to the target zone and put on the target day
+  private static LocalDateTime convert(LocalDate day, LocalTime time, ZoneId sourceZone,
+                                       ZoneId targetZone, LocalDate targetDay) {
+    LocalTime converted = ZonedDateTime.of(day, time, sourceZone)
+            .withZoneSameInstant(targetZone).toLocalTime();
+    //set the whole date at once, so only a gap on the target day itself moves the time
+    return ZonedDateTime.of(targetDay, converted, targetZone).toLocalDateTime();
+  }
+
+  private static void checkPageSize(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Page size must be positive.");
+    }
+  }
+
+  //first events starting at or after the second, stored events ahead of occurrences on ties
+  private static List<Event> startingFrom(Snapshot current, long from, int limit) {
+    List<Event> result = mergeByStart(current.archive.startingFrom(from, limit),
+            current.events.startingFrom(from, limit));
+    if (current.rules.size() > 0) {
+      result = merge(result, occurrencesFrom(current, from, limit));
+    }
+    return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+  }
+
+  //every event starting at or after one second and before another, in the same order
+  //as startingFrom; selected by start alone, whatever the events' ends are
+  private static List<Event> startingBetween(Snapshot current, long from, long to) {
+    List<Event> result = mergeByStart(
+            current.archive.startingFrom(from, (int) (current.archive.countStartingBefore(to)
+                    - current.archive.countStartingBefore(from))),
+            current.events.startingFrom(from, (int) (current.events.countStartingBefore(to)
+                    - current.events.countStartingBefore(from))));
+    if (current.rules.size() == 0) {
+      return result;
+    }
+
+    LocalDateTime fromTime = Event.toDateTime(from);
+    LocalDateTime toTime = Event.toDateTime(to);
+    List<Event> occurrences = new ArrayList<>();
+    for (Event window : current.rules.overlapping(from, to - 1)) {
+      RecurrenceRule rule = ((RuleWindow) window).rule;
+      long count = rule.countStartingBefore(toTime) - rule.countStartingBefore(fromTime);
+      occurrences.addAll(rule.startingFrom(fromTime, (int) Math.min(count, Integer.MAX_VALUE)));
+    }
+    return merge(result, occurrences);
+  }
+
+  //last events starting before the second, in the same order as startingFrom
+  private static List<Event> startingBefore(Snapshot current, long to, int limit) {
+    List<Event> result = mergeByStart(current.archive.startingBefore(to, limit),
+            current.events.startingBefore(to, limit));
+    if (current.rules.size() > 0) {
+      result = merge(result, occurrencesBefore(current, to, limit));
+    }
+    return result.size() > limit
+            ? new ArrayList<>(result.subList(result.size() - limit, result.size())) : result;
+  }
+
+  //first occurrences starting at or after the second; searches the rules running in
+  //a growing range after it, until no rule starting later could come before the last
+  //occurrence found
+  private static List<Event> occurrencesFrom(Snapshot current, long from, int limit) {
+    List<Event> found = new ArrayList<>();
+    if (limit == 0) {
+      return found;
+    }
+
+    LocalDateTime fromTime = Event.toDateTime(from);
+    Set<Event> searched = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (long span = FIRST_SPAN; ; span *= 2) {
+      long to = from + span;
+      for (Event window : current.rules.overlapping(from, to)) {
+        if (searched.add(window)) {
+          found.addAll(((RuleWindow) window).rule.startingFrom(fromTime, limit));
+        }
+      }
+      found.sort(OCCURRENCE_ORDER);
+      if (found.size() > limit) {
+        found.subList(limit, found.size()).clear();
+      }
+
+      if ((found.size() == limit && found.get(limit - 1).getStartSecond() <= to)
+              || current.rules.startingFrom(to + 1, 1).isEmpty()) {
+        return found;
+      }
+    }
+  }
+
+  //last occurrences starting before the second, searching like occurrencesFrom
+  private static List<Event> occurrencesBefore(Snapshot current, long to, int limit) {
+    List<Event> found = new ArrayList<>();
+    if (limit == 0) {
+      return found;
+    }
+
+    LocalDateTime toTime = Event.toDateTime(to);
+    Set<Event> searched = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (long span = FIRST_SPAN; ; span *= 2) {
+      long from = to - span;
+      for (Event window : current.rules.overlapping(from, to - 1)) {
+        if (searched.add(window)) {
+          found.addAll(((RuleWindow) window).rule.startingBefore(toTime, limit));
+        }
+      }
+      found.sort(OCCURRENCE_ORDER);
+      if (found.size() > limit) {
+        found.subList(0, found.size() - limit).clear();
+      }
+
+      if ((found.size() == limit && found.get(0).getStartSecond() >= from)
+              || current.rules.startingBefore(from, 1).isEmpty()) {
+        return found;
+      }
+    }
+  }
+
+  //number of events starting before the second, occurrences included: every
+  //occurrence of the rules that start before it, by the weights in the rule index,
+  //less those of the rules still running at the second that start at or after it
+  private static long countBefore(Snapshot current, long second) {
+    long result = current.archive.countStartingBefore(second)
+            + current.events.countStartingBefore(second);
+    if (current.rules.size() == 0) {
+      return result;
+    }
+
+    result += current.rules.countStartingBefore(second);
+    LocalDateTime time = Event.toDateTime(second);
+    for (Event window : current.rules.overlapping(second, second)) {
+      RuleWindow running = (RuleWindow) window;
+      if (running.getStartSecond() < second) {
+        result -= running.occurrences - running.rule.countStartingBefore(time);
+      }
+    }
+    return result;
+  }
+
+  //rules that may have occurrences overlapping the range; a range within one day is
+  //looked up by time of week, since many long series can run across that day
+  private static List<RecurrenceRule> rulesBetween(Snapshot current, long from, long to) {
+    List<Event> windows;
+    if (from <= to && Math.floorDiv(from, SECONDS_PER_DAY) == Math.floorDiv(to, SECONDS_PER_DAY)) {
+      long shift = weekSecond(from) - from;
+      windows = current.week.overlapping(from + shift, to + shift);
+    } else {
+      windows = current.rules.overlapping(from, to);
+    }
+
+    List<RecurrenceRule> result = new ArrayList<>(windows.size());
+    for (Event window : windows) {
+      result.add(((RuleWindow) window).rule);
+    }
+    return result;
+  }
+
+  //stored events and occurrences, both ordered by start, merged into one list with
+  //the stored events first on ties
+  private static List<Event> merge(List<Event> stored, List<Event> occurrences) {
+    occurrences.sort(OCCURRENCE_ORDER);
+    return mergeByStart(stored, occurrences);
+  }
+
+  //two lists ordered by start merged into one, with the first list's events first on ties
+  private static List<Event> mergeByStart(List<Event> first, List<Event> second) {
+    if (first.isEmpty()) {
+      return second;
+    }
+    if (second.isEmpty()) {
+      return first;
+    }
+
+    List<Event> result = new ArrayList<>(first.size() + second.size());
+    mergeByStart(first.iterator(), second.iterator()).forEachRemaining(result::add);
+    return result;
+  }
+
+  //the same merge, one event at a time
+  private static Iterator<Event> mergeByStart(Iterator<Event> first, Iterator<Event> second) {
+    return new Iterator<>() {
+      private Event nextFirst = first.hasNext() ? first.next() : null;
+      private Event nextSecond = second.hasNext() ? second.next() : null;
+
+      @Override
+      public boolean hasNext() {
+        return nextFirst != null || nextSecond != null;
+      }
+
+      @Override
+      public Event next() {
+        Event result;
+        if (nextSecond == null || (nextFirst != null
+                && nextFirst.getStartSecond() <= nextSecond.getStartSecond())) {
+          result = nextFirst;
+          nextFirst = first.hasNext() ? first.next() : null;
+        } else {
+          result = nextSecond;
+          nextSecond = second.hasNext() ? second.next() : null;
+        }
+        if (result == null) {
+          throw new NoSuchElementException();
+        }
+        return result;
+      }
+    };
+  }
+
+  //seconds since the Monday 00:00 before the given wall-clock second
+  private static long weekSecond(long second) {
+    return Math.floorMod(second + EPOCH_WEEKDAY * SECONDS_PER_DAY, 7 * SECONDS_PER_DAY);
+  }
+
+  //number of events at the front of the list starting at the second, up to max
+  private static int countLeading(List<Event> events, long second, int max) {
+    int count = 0;
+    while (count < max && count < events.size()
+            && events.get(count).getStartSecond() == second) {
+      count++;
+    }
+    return count;
+  }
+
+  //number of events at the end of the list starting at the second
+  private static int countTrailing(List<Event> events, long second) {
+    int count = 0;
+    while (count < events.size()
+            && events.get(events.size() - 1 - count).getStartSecond() == second) {
+      count++;
+    }
+    return count;
+  }
+
+  //number of events starting at exactly the second; there are rarely more than a few
+  private static int countStartingAt(Snapshot current, long second) {
+    int limit = 8;
+    while (true) {
+      List<Event> found = startingFrom(current, second, limit);
+      int count = countLeading(found, second, limit);
+      if (count < limit) {
+        return count;
+      }
+      limit *= 2;
+    }
+  }
+
+  //same result for two subjects exactly when equalsIgnoreCase would match them
+  private static String foldCase(String subject) {
+    char[] chars = subject.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+
+  //make the current state visible to readers, together with the handles that follow it
+  private void publish() {
+    Snapshot next = new Snapshot(archive, timeIndex.view(), ruleIndex.view(), weekIndex.view());
+    synchronized (handleLock) {
+      handleChanges.forEach(Runnable::run);
+      handleChanges.clear();
+      snapshot = next;
+    }
+  }
+
+  //stored events of a series, the archived ones first, in the order they were added
+  private List<Event> seriesMembers(UUID series) {
+    List<Event> members = archive.size() > 0 ? archive.withIdentifier(series) : new ArrayList<>();
+    Set<Event> added = seriesIndex.get(series);
+    if (added != null) {
+      members.addAll(added);
+    }
+    return members;
+  }
+
+  //split the rules of a series at the first occurrence starting at or after the
+  //given time and edit the later part; a time edit cannot be kept as a rule, so
+  //those occurrences become stored events for the caller to edit
+  private void editRulesFrom(UUID series, LocalDateTime from, String property,
+                             String newValue) {
+    List<RecurrenceRule> segments = rules.get(series);
+    if (segments == null) {
+      return;
+    }
+
+    boolean changesTime = eventSeriesBuilder.changesTime(property);
+    List<RecurrenceRule> removed = new ArrayList<>();
+    List<RecurrenceRule> added = new ArrayList<>();
+    List<RecurrenceRule> expanded = new ArrayList<>();
+    for (RecurrenceRule rule : segments) {
+      LocalDate split = rule.getStartTime().isBefore(from.toLocalTime())
+              ? from.toLocalDate().plusDays(1) : from.toLocalDate();
+      if (split.isAfter(rule.getLastDate())) {
+        continue;
+      }
+
+      RecurrenceRule later = rule;
+      if (split.isAfter(rule.getFirstDate())) {
+        RecurrenceRule earlier = rule.between(rule.getFirstDate(), split.minusDays(1));
+        if (earlier.size() > 0) {
+          added.add(earlier);
+        }
+        later = rule.between(split, rule.getLastDate());
+      }
+      removed.add(rule);
+      if (changesTime) {
+        expanded.add(later);
+      } else if (later.size() > 0) {
+        added.add(eventSeriesBuilder.editRule(later, property, newValue));
+      }
+    }
+
+    removed.forEach(this::unindexRule);
+    added.forEach(this::indexRule);
+    for (RecurrenceRule rule : expanded) {
+      for (Event e : rule.expandAll()) {
+        index(e);
+        adopt(e.getIdentifier(), e.getStartSecond(), e);
+      }
+    }
+  }
+
+  //the rule of a series that the date falls in, if any
+  private RecurrenceRule ruleOn(UUID series, LocalDate date) {
+    List<RecurrenceRule> segments = rules.get(series);
+    if (segments != null) {
+      for (RecurrenceRule rule : segments) {
+        if (!date.isBefore(rule.getFirstDate()) && !date.isAfter(rule.getLastDate())) {
+          return rule;
+        }
+      }
+    }
+    return null;
+  }
+
+  //first added event starting at the second whose subject equals the given one,
+  //ignoring case or not; stored events come before occurrences
+  private static Event find(Snapshot current, String subject, long second,
+                            boolean ignoreCase) {
+    List<Event> stored = mergeByStart(storedAt(current.archive, second),
+            storedAt(current.events, second));
+    for (Event e : stored) {
+      if (ignoreCase ? e.getSubject().equalsIgnoreCase(subject)
+              : e.getSubject().equals(subject)) {
+        return e;
+      }
+    }
+
+    for (RecurrenceRule rule : rulesAt(current, second)) {
+      if (ignoreCase ? rule.getSubject().equalsIgnoreCase(subject)
+              : rule.getSubject().equals(subject)) {
+        return rule.occurrence(LocalDate.ofEpochDay(Math.floorDiv(second, SECONDS_PER_DAY)));
+      }
+    }
+    return null;
+  }
+
+  //stored events starting at exactly the second, in the order they were added
+  private static List<Event> storedAt(EventIntervalTree.View events, long second) {
+    int count = (int) (events.countStartingBefore(second + 1)
+            - events.countStartingBefore(second));
+    return count == 0 ? Collections.emptyList() : events.startingFrom(second, count);
+  }
+
+  //the same for the archive
+  private static List<Event> storedAt(EventArchive archived, long second) {
+    int count = (int) (archived.countStartingBefore(second + 1)
+            - archived.countStartingBefore(second));
+    return count == 0 ? Collections.emptyList() : archived.startingFrom(second, count);
+  }
+
+  //rules with an occurrence starting at exactly the second, in the order they were
+  //added; their windows in the week index start at its time of week
+  private static List<RecurrenceRule> rulesAt(Snapshot current, long second) {
+    long weekSecond = weekSecond(second);
+    int count = (int) (current.week.countStartingBefore(weekSecond + 1)
+            - current.week.countStartingBefore(weekSecond));
+    if (count == 0) {
+      return Collections.emptyList();
+    }
+
+    List<RecurrenceRule> result = new ArrayList<>(count);
+    for (Event window : current.week.startingFrom(weekSecond, count)) {
+      RecurrenceRule rule = ((RuleWindow) window).rule;
+      if (rule.startsAt(second)) {
+        result.add(rule);
+      }
+    }
+    return result;
+  }
+
+  //add a rule to every rule index
+  private void indexRule(RecurrenceRule rule) {
+    rules.computeIfAbsent(rule.getIdentifier(), id -> new ArrayList<>(1)).add(rule);
+    ruleLookup.computeIfAbsent(ruleKey(rule), key -> new ArrayList<>(1)).add(rule);
+
+    long startOfDay = rule.getStartTime().toSecondOfDay();
+    long endOfDay = Math.max(startOfDay, rule.getEndTime().toSecondOfDay());
+    long first = rule.getFirstDate().toEpochDay() * SECONDS_PER_DAY + startOfDay;
+    long last = rule.getLastDate().toEpochDay() * SECONDS_PER_DAY + endOfDay;
+    long occurrences = rule.size();
+
+    List<RuleWindow> windows = new ArrayList<>();
+    RuleWindow span = new RuleWindow(rule, occurrences, first, Math.max(first, last));
+    ruleIndex.insert(span, occurrences);
+    windows.add(span);
+    for (DayOfWeek day : rule.getWeekdays()) {
+      long dayStart = (day.getValue() - 1) * SECONDS_PER_DAY;
+      RuleWindow window = new RuleWindow(rule, occurrences, dayStart + startOfDay,
+              dayStart + endOfDay);
+      weekIndex.insert(window);
+      windows.add(window);
+    }
+    ruleWindows.put(rule, windows);
+  }
+
+  //remove a rule from every rule index
+  private void unindexRule(RecurrenceRule rule) {
+    List<RecurrenceRule> segments = rules.get(rule.getIdentifier());
+    segments.removeIf(existing -> existing == rule);
+    if (segments.isEmpty()) {
+      rules.remove(rule.getIdentifier());
+    }
+
+    LookupKey key = ruleKey(rule);
+    List<RecurrenceRule> matches = ruleLookup.get(key);
+    matches.removeIf(existing -> existing == rule);
+    if (matches.isEmpty()) {
+      ruleLookup.remove(key);
+    }
+
+    for (RuleWindow window : ruleWindows.remove(rule)) {
+      ruleIndex.remove(window);
+      weekIndex.remove(window);
+    }
+  }
+
+  private static LookupKey ruleKey(RecurrenceRule rule) {
+    return new LookupKey(foldCase(rule.getSubject()), rule.getStartTime().toSecondOfDay());
+  }
+
+  //swap a stored event for its edited version; false if the event is not stored
+  private boolean replaceEvent(Event original, Event updated) {
+    if (timeIndex.contains(original)) {
+      unindex(original);
+      index(updated);
+
+      handleChanges.add(() -> {
+        Handle handle = handles.remove(original);
+        if (handle != null) {
+          handles.put(updated, handle);
+          handled.put(handle, updated);
+        }
+      });
+      return true;
+    }
+
+    //an archived event leaves the store and is kept on the heap from now on
+    int row = archive.rowOf(original);
+    if (row < 0) {
+      return false;
+    }
+    archive = archive.without(row);
+    index(updated);
+
+    handleChanges.add(() -> {
+      Handle handle = archiveHandles.remove(row);
+      if (handle != null) {
+        handles.put(updated, handle);
+        handled.put(handle, updated);
+      }
+    });
+    return true;
+  }
+
+  //an occurrence became a stored event; its handle, if any, will lead there
+  private void adopt(UUID series, long second, Event stored) {
+    handleChanges.add(() -> {
+      Map<Long, Handle> bySecond = occurrenceHandles.get(series);
+      Handle handle = bySecond != null ? bySecond.remove(second) : null;
+      if (handle == null) {
+        return;
+      }
+      if (bySecond.isEmpty()) {
+        occurrenceHandles.remove(series);
+      }
+      handles.put(stored, handle);
+      handled.put(handle, stored);
+    });
+  }
+
+  //add an event to every secondary index
+  private void index(Event e) {
+    timeIndex.insert(e);
+    duplicateIndex.merge(new DuplicateKey(e), 1, Integer::sum);
+    seriesIndex.computeIfAbsent(e.getIdentifier(), id -> new LinkedHashSet<>()).add(e);
+  }
+
+  //remove an event from every secondary index
+  private void unindex(Event e) {
+    timeIndex.remove(e);
+    duplicateIndex.computeIfPresent(new DuplicateKey(e),
+            (key, count) -> count == 1 ? null : count - 1);
+
+    Set<Event> series = seriesIndex.get(e.getIdentifier());
+    series.remove(e);
+    if (series.isEmpty()) {
+      seriesIndex.remove(e.getIdentifier());
     }
   }
 
   //check for duplicate events
   private boolean hasDuplicate(Event e) {
-    return events.stream().anyMatch(existing ->
-            existing.getSubject().equals(e.getSubject()) &&
-                    existing.getStart().equals(e.getStart()) &&
-                    Objects.equals(existing.getEnd(), e.getEnd())
-    );
+    if (duplicateIndex.containsKey(new DuplicateKey(e))
+            || archive.hasEvent(e.getSubject(), e.getStartSecond(), e.getEndSecond())) {
+      return true;
+    }
+
+    List<RecurrenceRule> matches = ruleLookup.get(new LookupKey(foldCase(e.getSubject()),
+            Math.floorMod(e.getStartSecond(), SECONDS_PER_DAY)));
+    if (matches != null) {
+      for (RecurrenceRule rule : matches) {
+        if (rule.hasOccurrence(e.getSubject(), e.getStartSecond(), e.getEndSecond())) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   protected List<Event> getFullyContainedEvents(LocalDateTime start, LocalDateTime end) {
-    return events.stream()
+    long startSecond = Event.toSecond(start);
+    long endSecond = Event.toSecond(end);
+    return getAllEvents().stream()
             .filter(event ->
-                    !event.getStart().isBefore(start) &&
-                            !event.getEnd().isAfter(end) &&
-                            event.getStart().toLocalDate().equals(event.getEnd().toLocalDate())
+                    event.getStartSecond() >= startSecond &&
+                            event.getEndSecond() <= endSecond &&
+                            Math.floorDiv(event.getStartSecond(), SECONDS_PER_DAY)
+                                    == Math.floorDiv(event.getEndSecond(), SECONDS_PER_DAY)
             )
             .collect(Collectors.toList());
   }
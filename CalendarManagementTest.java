@@ -4,11 +4,24 @@ import org.junit.Test;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 /**
  * Test class for CalendarManagement.
@@ -145,4 +158,665 @@ public class CalendarManagementTest {
     assertFalse(calendar.isTimeSlotOccupied(baseDate.atTime(13, 59)));
     assertFalse(calendar.isTimeSlotOccupied(baseDate.atTime(15, 0)));  // end is exclusive
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testGetEventsBetweenMatchesLinearScan() {
+    calendar.addSingleEvent("Long trip", baseDate.atTime(6, 0),
+            baseDate.plusDays(3).atTime(20, 0), "", "", "public");
+    calendar.addEventSeriesByOccurrences("Class", LocalTime.of(10, 0),
+            LocalTime.of(11, 0), baseDate, "MWF", 12, "Lecture", "Room 101", "public");
+    calendar.addSingleEvent("Lunch", baseDate.atTime(12, 0),
+            baseDate.atTime(13, 0), "", "", "public");
+
+    assertSameEvents(baseDate.atTime(0, 0), baseDate.plusDays(30).atTime(0, 0));
+
+    calendar.editSingleEvent(calendar.getAllEvents().get(0), "end",
+            baseDate.atTime(7, 0).toString());
+    assertSameEvents(baseDate.plusDays(1).atTime(0, 0), baseDate.plusDays(2).atTime(0, 0));
+
+    calendar.editSeriesFromDate("Class", baseDate.plusDays(7).atTime(10, 0),
+            "start", baseDate.plusDays(7).atTime(9, 0).toString());
+    assertSameEvents(baseDate.plusDays(7).atTime(9, 0), baseDate.plusDays(7).atTime(9, 30));
+    assertSameEvents(baseDate.atTime(0, 0), baseDate.plusDays(30).atTime(0, 0));
+
+    calendar.editEntireSeries("Class", baseDate.atTime(10, 0),
+            "end", baseDate.atTime(11, 30).toString());
+    assertSameEvents(baseDate.atTime(11, 15), baseDate.atTime(11, 20));
+    assertSameEvents(baseDate.atTime(0, 0), baseDate.plusDays(30).atTime(0, 0));
+  }
+
+  @Test
+  public void testGetEventsBetweenOrderedByStart() {
+    calendar.addSingleEvent("Late", baseDate.atTime(15, 0),
+            baseDate.atTime(16, 0), "", "", "public");
+    calendar.addSingleEvent("Early", baseDate.atTime(8, 0),
+            baseDate.atTime(9, 0), "", "", "public");
+
+    List<Event> results = calendar.getEventsBetween(baseDate.atTime(0, 0),
+            baseDate.atTime(23, 0));
+
+    assertEquals(2, results.size());
+    assertEquals("Early", results.get(0).getSubject());
+    assertEquals("Late", results.get(1).getSubject());
+  }
+
+  //compare the indexed range query against the full scan
+  private void assertSameEvents(LocalDateTime from, LocalDateTime to) {
+    List<Event> indexed = calendar.getEventsBetween(from, to);
+    List<Event> linear = calendar.getEventsBetweenLinear(from, to);
+
+    assertEquals(linear.size(), indexed.size());
+    assertTrue(indexed.containsAll(linear));
+  }
+
+  @Test
+  public void testIsTimeSlotOccupiedAfterEdits() {
+    calendar.addSingleEvent("Dentist", baseDate.atTime(9, 0),
+            baseDate.atTime(10, 0), "", "", "private");
+    calendar.addEventSeriesByOccurrences("Class", LocalTime.of(13, 0),
+            LocalTime.of(14, 0), baseDate, "MW", 4, "Lecture", "Room 101", "public");
+
+    calendar.editSingleEvent(calendar.getAllEvents().get(0), "start",
+            baseDate.atTime(9, 30).toString());
+    assertFalse(calendar.isTimeSlotOccupied(baseDate.atTime(9, 15)));
+    assertTrue(calendar.isTimeSlotOccupied(baseDate.atTime(9, 45)));
+
+    LocalDateTime wednesday = baseDate.plusDays(2).atTime(13, 0);
+    calendar.editSeriesFromDate("Class", wednesday, "end",
+            wednesday.plusMinutes(30).toString());
+    assertTrue(calendar.isTimeSlotOccupied(baseDate.atTime(13, 45)));
+    assertFalse(calendar.isTimeSlotOccupied(wednesday.plusMinutes(45)));
+
+    calendar.editEntireSeries("Class", wednesday, "start",
+            wednesday.minusHours(1).toString());
+    assertTrue(calendar.isTimeSlotOccupied(wednesday.minusMinutes(30)));
+    assertTrue(calendar.isTimeSlotOccupied(baseDate.atTime(13, 45)));
+
+    for (int hour = 0; hour < 24 * 14; hour++) {
+      for (int minute = 0; minute < 60; minute += 15) {
+        LocalDateTime t = baseDate.atStartOfDay().plusHours(hour).plusMinutes(minute);
+        assertEquals(calendar.isTimeSlotOccupiedLinear(t), calendar.isTimeSlotOccupied(t));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddDuplicateEvent() {
+    calendar.addSingleEvent("Dentist", baseDate.atTime(9, 0),
+            baseDate.atTime(10, 0), "", "", "private");
+    calendar.addSingleEvent("Dentist", baseDate.atTime(9, 0),
+            baseDate.atTime(10, 0), "Other", "Elsewhere", "public");
+  }
+
+  @Test
+  public void testDuplicateCheckFollowsEdits() {
+    calendar.addSingleEvent("Dentist", baseDate.atTime(9, 0),
+            baseDate.atTime(10, 0), "", "", "private");
+    calendar.editSingleEvent(calendar.getAllEvents().get(0), "start",
+            baseDate.atTime(8, 0).toString());
+
+    //the old slot is free again, the new one is taken
+    calendar.addSingleEvent("Dentist", baseDate.atTime(9, 0),
+            baseDate.atTime(10, 0), "", "", "private");
+    assertDuplicate("Dentist", baseDate.atTime(8, 0), baseDate.atTime(10, 0));
+  }
+
+  @Test
+  public void testDuplicateCheckFollowsSeriesEdits() {
+    calendar.addEventSeriesByOccurrences("Class", LocalTime.of(10, 0),
+            LocalTime.of(11, 0), baseDate, "MW", 4, "Lecture", "Room 101", "public");
+    assertDuplicate("Class", baseDate.atTime(10, 0), baseDate.atTime(11, 0));
+
+    LocalDateTime wednesday = baseDate.plusDays(2).atTime(10, 0);
+    calendar.editSeriesFromDate("Class", wednesday, "subject", "Lab");
+    calendar.addSingleEvent("Class", wednesday, wednesday.plusHours(1), "", "", "public");
+    assertDuplicate("Lab", wednesday, wednesday.plusHours(1));
+
+    calendar.editEntireSeries("Class", baseDate.atTime(10, 0), "end",
+            baseDate.atTime(11, 30).toString());
+    calendar.addSingleEvent("Class", baseDate.atTime(10, 0),
+            baseDate.atTime(11, 0), "", "", "public");
+    assertDuplicate("Class", baseDate.atTime(10, 0), baseDate.atTime(11, 30));
+  }
+
+  //adding the given event must be rejected as a duplicate
+  private void assertDuplicate(String subject, LocalDateTime start, LocalDateTime end) {
+    try {
+      calendar.addSingleEvent(subject, start, end, "", "", "public");
+      fail("Expected duplicate event to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Duplicate event not allowed", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testFindEvent() {
+    calendar.addEventSeriesByOccurrences("Class", LocalTime.of(10, 0),
+            LocalTime.of(11, 0), baseDate, "MW", 4, "Lecture", "Room 101", "public");
+
+    Event found = calendar.findEvent("Class", baseDate.plusDays(2).atTime(10, 0));
+    assertEquals(baseDate.plusDays(2).atTime(11, 0), found.getEnd());
+    assertNull(calendar.findEvent("Class", baseDate.plusDays(1).atTime(10, 0)));
+    assertNull(calendar.findEvent("class", baseDate.atTime(10, 0)));
+
+    calendar.editSingleEvent(found, "location", "Room 202");
+    assertEquals("Room 202", calendar.findEvent("Class",
+            baseDate.plusDays(2).atTime(10, 0)).getLocation());
+  }
+
+  @Test
+  public void testFindEventIgnoreCase() {
+    calendar.addSingleEvent("class", baseDate.atTime(10, 0), baseDate.atTime(10, 30),
+            "", "Hall", "public");
+    calendar.addEventSeriesByOccurrences("Class", LocalTime.of(10, 0),
+            LocalTime.of(11, 0), baseDate, "MW", 4, "Lecture", "Room 101", "public");
+    calendar.addRecurringSeriesByOccurrences("Standup", LocalTime.of(9, 0),
+            LocalTime.of(9, 15), baseDate, "MTWRF", 5, "", "", "public");
+
+    //the first added event wins, whatever the case of either subject
+    assertEquals("Hall", calendar.findEventIgnoreCase("CLASS",
+            baseDate.atTime(10, 0)).getLocation());
+    assertEquals("Room 101", calendar.findEvent("Class",
+            baseDate.atTime(10, 0)).getLocation());
+    assertEquals("Room 101", calendar.findEventIgnoreCase("cLaSs",
+            baseDate.plusDays(2).atTime(10, 0)).getLocation());
+    assertEquals("Standup", calendar.findEventIgnoreCase("standup",
+            baseDate.plusDays(3).atTime(9, 0)).getSubject());
+    assertNull(calendar.findEventIgnoreCase("class", baseDate.atTime(10, 15)));
+    assertNull(calendar.findEventIgnoreCase("standup", baseDate.plusDays(5).atTime(9, 0)));
+  }
+
+  @Test
+  public void testSeriesEditsOnlyTouchTheirSeries() {
+    calendar.addEventSeriesByOccurrences("Class", LocalTime.of(10, 0),
+            LocalTime.of(11, 0), baseDate, "MW", 4, "Lecture", "Room 101", "public");
+    calendar.addEventSeriesByOccurrences("Class", LocalTime.of(14, 0),
+            LocalTime.of(15, 0), baseDate, "MW", 4, "Lab", "Room 101", "public");
+    calendar.addSingleEvent("Class", baseDate.atTime(18, 0),
+            baseDate.atTime(19, 0), "Review", "Room 101", "public");
+
+    calendar.editEntireSeries("Class", baseDate.plusDays(2).atTime(14, 0),
+            "location", "Lab 1");
+    calendar.editSeriesFromDate("Class", baseDate.plusDays(7).atTime(10, 0),
+            "location", "Room 303");
+
+    for (Event e : calendar.getAllEvents()) {
+      if ("Lab".equals(e.getDescription())) {
+        assertEquals("Lab 1", e.getLocation());
+      } else if ("Review".equals(e.getDescription())) {
+        assertEquals("Room 101", e.getLocation());
+      } else if (e.getStart().isBefore(baseDate.plusDays(7).atTime(10, 0))) {
+        assertEquals("Room 101", e.getLocation());
+      } else {
+        assertEquals("Room 303", e.getLocation());
+      }
+    }
+    assertEquals(9, calendar.getAllEvents().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEditSeriesFromDateNotFound() {
+    calendar.editSeriesFromDate("Missing", baseDate.atTime(8, 0), "location", "Nowhere");
+  }
+
+  @Test
+  public void testRecurringSeriesQueriesMatchMaterialized() {
+    CalendarManagement materialized = new CalendarManagement();
+    materialized.addEventSeriesUntilDate("Standup", LocalTime.of(9, 0),
+            LocalTime.of(9, 15), baseDate, baseDate.plusDays(60), "MTWRF",
+            "Daily sync", "Room 101", "public");
+    materialized.addSingleEvent("Dentist", baseDate.plusDays(3).atTime(9, 10),
+            baseDate.plusDays(3).atTime(10, 0), "", "", "private");
+
+    calendar.addRecurringSeriesUntilDate("Standup", LocalTime.of(9, 0),
+            LocalTime.of(9, 15), baseDate, baseDate.plusDays(60), "MTWRF",
+            "Daily sync", "Room 101", "public");
+    calendar.addSingleEvent("Dentist", baseDate.plusDays(3).atTime(9, 10),
+            baseDate.plusDays(3).atTime(10, 0), "", "", "private");
+
+    assertEquals(materialized.getAllEvents().size(), calendar.getAllEvents().size());
+
+    LocalDateTime from = baseDate.plusDays(2).atTime(9, 12);
+    LocalDateTime to = baseDate.plusDays(9).atTime(9, 0);
+    List<Event> expected = materialized.getEventsBetween(from, to);
+    List<Event> actual = calendar.getEventsBetween(from, to);
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getStart(), actual.get(i).getStart());
+    }
+
+    for (int minute = 0; minute < 60 * 24 * 8; minute += 5) {
+      LocalDateTime t = baseDate.atStartOfDay().plusMinutes(minute);
+      assertEquals(materialized.isTimeSlotOccupied(t), calendar.isTimeSlotOccupied(t));
+    }
+  }
+
+  @Test
+  public void testEditRecurringOccurrence() {
+    calendar.addRecurringSeriesByOccurrences("Class", LocalTime.of(10, 0),
+            LocalTime.of(11, 0), baseDate, "MW", 4, "Lecture", "Room 101", "public");
+
+    Event second = calendar.findEvent("Class", baseDate.plusDays(2).atTime(10, 0));
+    calendar.editSingleEvent(second, "location", "Room 202");
+
+    assertEquals(4, calendar.getAllEvents().size());
+    assertEquals("Room 202", calendar.findEvent("Class",
+            baseDate.plusDays(2).atTime(10, 0)).getLocation());
+    assertEquals("Room 101", calendar.findEvent("Class",
+            baseDate.atTime(10, 0)).getLocation());
+    assertDuplicate("Class", baseDate.plusDays(7).atTime(10, 0),
+            baseDate.plusDays(7).atTime(11, 0));
+  }
+
+  @Test
+  public void testEditRecurringSeries() {
+    calendar.addRecurringSeriesByOccurrences("Class", LocalTime.of(10, 0),
+            LocalTime.of(11, 0), baseDate, "MW", 4, "Lecture", "Room 101", "public");
+
+    calendar.editSeriesFromDate("Class", baseDate.plusDays(7).atTime(10, 0),
+            "location", "Room 303");
+    calendar.editEntireSeries("Class", baseDate.atTime(10, 0),
+            "description", "Seminar");
+
+    List<Event> all = calendar.getAllEvents();
+    assertEquals(4, all.size());
+    //the series is split at the edit instead of being turned into stored events
+    assertTrue(calendar.getStoredEvents().isEmpty());
+    assertEquals(2, calendar.getRecurrenceRules().size());
+    for (Event e : all) {
+      assertEquals("Seminar", e.getDescription());
+      if (e.getStart().isBefore(baseDate.plusDays(7).atTime(10, 0))) {
+        assertEquals("Room 101", e.getLocation());
+      } else {
+        assertEquals("Room 303", e.getLocation());
+      }
+    }
+  }
+
+  @Test
+  public void testSeriesTimeEditOnlyStoresLaterOccurrences() {
+    calendar.addRecurringSeriesByOccurrences("Standup", LocalTime.of(9, 0),
+            LocalTime.of(9, 15), baseDate, "MTWRF", 10, "", "Office", "public");
+    CalendarManagement.Handle early = calendar.getHandle(
+            calendar.findEvent("Standup", baseDate.plusDays(1).atTime(9, 0)));
+    CalendarManagement.Handle late = calendar.getHandle(
+            calendar.findEvent("Standup", baseDate.plusDays(8).atTime(9, 0)));
+
+    //only the occurrences from the second week on move, so only they are stored
+    LocalDateTime moved = baseDate.plusDays(7).atTime(8, 0);
+    calendar.editSeriesFromDate("Standup", baseDate.plusDays(7).atTime(9, 0),
+            "start", moved.toString());
+    assertEquals(5, calendar.getStoredEvents().size());
+    assertEquals(1, calendar.getRecurrenceRules().size());
+    assertEquals(5, calendar.getRecurrenceRules().get(0).size());
+    assertEquals(10, calendar.getAllEvents().size());
+    assertEquals(baseDate.plusDays(1).atTime(9, 0), calendar.getEvent(early).getStart());
+    assertEquals(moved, calendar.getEvent(late).getStart());
+  }
+
+  @Test
+  public void testRuleQueriesMatchScan() {
+    Random random = new Random(11);
+    for (int i = 0; i < 40; i++) {
+      LocalTime start = LocalTime.of(6 + random.nextInt(12), 15 * random.nextInt(4));
+      LocalDate first = baseDate.plusDays(random.nextInt(60));
+      String days = "MTWRFSU".substring(random.nextInt(4), 4 + random.nextInt(4));
+      calendar.addRecurringSeriesUntilDate("Rule " + i, start,
+              start.plusMinutes(30 + 15 * random.nextInt(4)), first,
+              first.plusDays(random.nextInt(90)), days, "", "", "public");
+    }
+    for (int i = 0; i < 100; i++) {
+      LocalDateTime start = baseDate.atTime(6, 0)
+              .plusMinutes(15L * random.nextInt(4 * 24 * 150));
+      calendar.addSingleEvent("Event " + i, start, start.plusMinutes(45), "", "", "public");
+    }
+    //take single occurrences out of series, and split others
+    for (int i = 0; i < 20; i++) {
+      List<Event> all = calendar.getAllEvents();
+      Event e = all.get(random.nextInt(all.size()));
+      if (i % 2 == 0) {
+        calendar.editSingleEvent(e, "location", "Room " + i);
+      } else {
+        calendar.editSeriesFromDate(e.getSubject(), e.getStart(), "location", "Room " + i);
+      }
+    }
+
+    List<Event> all = calendar.getAllEvents();
+    Set<Event> stored = Collections.newSetFromMap(new IdentityHashMap<>());
+    stored.addAll(calendar.getStoredEvents());
+    //stored events first on ties, then occurrences by series
+    UUID none = new UUID(0, 0);
+    List<Event> sorted = new ArrayList<>(all);
+    sorted.sort(Comparator.comparingLong(Event::getStartSecond)
+            .thenComparingInt(e -> stored.contains(e) ? 0 : 1)
+            .thenComparing(e -> stored.contains(e) ? none : e.getIdentifier()));
+
+    for (int i = 0; i < 200; i++) {
+      LocalDateTime from = baseDate.atStartOfDay()
+              .plusMinutes(15L * random.nextInt(4 * 24 * 160));
+      LocalDateTime to = from.plusMinutes(15L * random.nextInt(i % 2 == 0 ? 40 : 4 * 24 * 20));
+      List<String> indexed = describe(calendar.getEventsBetween(from, to));
+      List<String> linear = describe(calendar.getEventsBetweenLinear(from, to));
+      Collections.sort(indexed);
+      Collections.sort(linear);
+      assertEquals(linear, indexed);
+      assertEquals(calendar.isTimeSlotOccupiedLinear(from), calendar.isTimeSlotOccupied(from));
+
+      long count = all.stream()
+              .filter(e -> !e.getStart().isBefore(from) && e.getStart().isBefore(to))
+              .count();
+      assertEquals(count, calendar.countEventsStarting(from, to));
+      assertEquals(describe(sorted.stream()
+                      .filter(e -> !e.getStart().isBefore(from))
+                      .limit(12)
+                      .collect(Collectors.toList())),
+              describe(calendar.getEventsFrom(from, 12)));
+
+      Event e = all.get(random.nextInt(all.size()));
+      assertEquals(e.getStart(), calendar.findEvent(e.getSubject(), e.getStart()).getStart());
+      assertDuplicate(e.getSubject(), e.getStart(), e.getEnd());
+    }
+
+    List<String> forward = new ArrayList<>();
+    CalendarManagement.Page page = calendar.getUpcomingEvents(baseDate.atStartOfDay(), 7);
+    forward.addAll(describe(page.getEvents()));
+    while (page.hasNext()) {
+      page = calendar.getPageAfter(page.getNext(), 7);
+      forward.addAll(describe(page.getEvents()));
+    }
+    assertEquals(describe(sorted), forward);
+  }
+
+  @Test
+  public void testCopyEventsBetween() {
+    ZoneId newYork = ZoneId.of("America/New_York");
+    ZoneId paris = ZoneId.of("Europe/Paris");
+    calendar.addSingleEvent("Lunch", baseDate.atTime(12, 0), baseDate.atTime(13, 0),
+            "Team", "Cafe", "public");
+    calendar.addSingleEvent("Late", baseDate.plusDays(1).atTime(21, 0),
+            baseDate.plusDays(1).atTime(22, 0), null, null, null);
+    calendar.addSingleEvent("Before", baseDate.minusDays(1).atTime(23, 0),
+            baseDate.atTime(1, 0), null, null, null);
+    calendar.addRecurringSeriesByOccurrences("Standup", LocalTime.of(9, 0),
+            LocalTime.of(9, 15), baseDate, "MTWRF", 10, null, null, null);
+
+    CalendarManagement target = new CalendarManagement();
+    LocalDate targetStart = LocalDate.of(2025, 7, 7);
+    target.addSingleEvent("LUNCH", LocalDateTime.of(2025, 7, 7, 18, 0),
+            LocalDateTime.of(2025, 7, 7, 19, 0), null, null, null);
+
+    List<CalendarManagement.CopyResult> results = calendar.copyEventsBetween(
+            baseDate, baseDate.plusDays(1), newYork, target, targetStart, paris);
+
+    //"Before" starts the day before the range; Lunch conflicts with LUNCH
+    assertEquals(4, results.size());
+    assertFalse(results.get(1).isCopied());
+    assertEquals("Lunch", results.get(1).getEvent().getSubject());
+
+    Event standup = target.findEvent("Standup", LocalDateTime.of(2025, 7, 7, 15, 0));
+    assertEquals(LocalDateTime.of(2025, 7, 7, 15, 15), standup.getEnd());
+    Event late = target.findEvent("Late", LocalDateTime.of(2025, 7, 8, 3, 0));
+    assertEquals(LocalDateTime.of(2025, 7, 8, 4, 0), late.getEnd());
+    assertNull(target.findEvent("Lunch", LocalDateTime.of(2025, 7, 7, 18, 0)));
+    assertEquals(4, target.getAllEvents().size());
+
+    //copying into the same calendar only copies what was there before
+    results = target.copyEventsBetween(targetStart, targetStart.plusDays(1), paris,
+            target, targetStart.plusDays(1), paris);
+    assertEquals(4, results.size());
+    assertEquals(3, results.stream().filter(CalendarManagement.CopyResult::isCopied).count());
+    assertEquals(7, target.getAllEvents().size());
+  }
+
+  @Test
+  public void testGetEventsFromMatchesSortedScan() {
+    for (int i = 0; i < 60; i++) {
+      LocalDateTime start = baseDate.atTime(8, 0).plusHours(7L * i);
+      calendar.addSingleEvent("Event " + i, start, start.plusMinutes(45), "", "", "public");
+    }
+    //same start as a stored event, which has to stay ahead of it
+    calendar.addSingleEvent("Early", baseDate.atTime(9, 0), baseDate.atTime(9, 30),
+            "", "", "public");
+    calendar.addRecurringSeriesByOccurrences("Standup", LocalTime.of(9, 0),
+            LocalTime.of(9, 15), baseDate, "MTWRF", 30, "", "", "public");
+    calendar.addEventSeriesByOccurrences("Review", LocalTime.of(15, 0),
+            LocalTime.of(16, 0), baseDate, "F", 4, "", "", "public");
+
+    for (int day = 0; day < 24; day++) {
+      LocalDateTime from = baseDate.plusDays(day).atStartOfDay();
+      List<String> expected = calendar.getAllEvents().stream()
+              .filter(e -> !e.getStart().isBefore(from))
+              .sorted((e1, e2) -> e1.getStart().compareTo(e2.getStart()))
+              .limit(10)
+              .map(e -> e.getSubject() + " @ " + e.getStart())
+              .collect(Collectors.toList());
+      assertEquals(expected, describe(calendar.getEventsFrom(from, 10)));
+    }
+    assertTrue(calendar.getEventsFrom(baseDate.atStartOfDay(), 0).isEmpty());
+  }
+
+  @Test
+  public void testPagesWalkEveryEventBothWays() {
+    for (int i = 0; i < 40; i++) {
+      //groups of five events starting at the same time, to split ties across pages
+      LocalDateTime start = baseDate.atTime(8, 0).plusHours(5L * (i / 5));
+      calendar.addSingleEvent("Event " + i, start, start.plusMinutes(30 + i), "", "",
+              "public");
+    }
+    calendar.addRecurringSeriesByOccurrences("Standup", LocalTime.of(8, 0),
+            LocalTime.of(8, 15), baseDate, "MTWRF", 10, "", "", "public");
+
+    LocalDateTime from = baseDate.atTime(8, 0);
+    List<String> expected = calendar.getAllEvents().stream()
+            .filter(e -> !e.getStart().isBefore(from))
+            .sorted((e1, e2) -> e1.getStart().compareTo(e2.getStart()))
+            .map(e -> e.getSubject() + " @ " + e.getStart())
+            .collect(Collectors.toList());
+
+    List<String> forward = new ArrayList<>();
+    CalendarManagement.Page page = calendar.getUpcomingEvents(from, 3);
+    assertFalse(page.hasPrevious());
+    forward.addAll(describe(page.getEvents()));
+    while (page.hasNext()) {
+      page = calendar.getPageAfter(page.getNext(), 3);
+      assertTrue(page.hasPrevious());
+      forward.addAll(describe(page.getEvents()));
+    }
+    assertEquals(expected, forward);
+    assertTrue(calendar.getPageAfter(page.getNext(), 3).getEvents().isEmpty());
+
+    List<String> backward = new ArrayList<>(describe(page.getEvents()));
+    while (page.hasPrevious()) {
+      page = calendar.getPageBefore(page.getPrevious(), 3);
+      assertTrue(page.hasNext());
+      backward.addAll(0, describe(page.getEvents()));
+    }
+    assertEquals(expected, backward);
+  }
+
+  @Test
+  public void testCountAndCursorMatchScan() {
+    for (int i = 0; i < 200; i++) {
+      LocalDateTime start = baseDate.atTime(7, 0).plusMinutes(97L * i - 30L * (i % 3));
+      calendar.addSingleEvent("Event " + i, start, start.plusMinutes(20), "", "", "public");
+    }
+    calendar.addRecurringSeriesByOccurrences("Standup", LocalTime.of(9, 0),
+            LocalTime.of(9, 15), baseDate, "MWF", 12, "", "", "public");
+    //take one occurrence out of the series
+    Event taken = calendar.findEvent("Standup", baseDate.plusDays(2).atTime(9, 0));
+    calendar.editSingleEvent(taken, "location", "Room 2");
+
+    List<Event> all = calendar.getAllEvents();
+    for (int day = -1; day < 16; day++) {
+      LocalDateTime from = baseDate.plusDays(day).atTime(9, 0);
+      for (int length : new int[]{0, 1, 3, 20}) {
+        LocalDateTime to = from.plusDays(length);
+        long expected = all.stream()
+                .filter(e -> !e.getStart().isBefore(from) && e.getStart().isBefore(to))
+                .count();
+        assertEquals(expected, calendar.countEventsStarting(from, to));
+      }
+
+      List<String> after = describe(calendar.getEventsFrom(from, 40));
+      for (int offset = 0; offset < 40; offset += 7) {
+        CalendarManagement.Cursor cursor = calendar.getCursor(from, offset);
+        assertEquals(after.subList(Math.min(offset, after.size()),
+                Math.min(offset + 5, after.size())),
+                describe(calendar.getPageAfter(cursor, 5).getEvents()));
+      }
+    }
+    CalendarManagement.Cursor end = calendar.getCursor(baseDate.atStartOfDay(), 100000);
+    assertTrue(calendar.getPageAfter(end, 5).getEvents().isEmpty());
+  }
+
+  @Test
+  public void testCountsPastIntRange() {
+    //daily series to the last representable year have about 2.9 million occurrences each
+    int rules = 800;
+    LocalDate first = LocalDate.of(2000, 1, 1);
+    LocalDate last = LocalDate.of(9999, 12, 31);
+    for (int i = 0; i < rules; i++) {
+      calendar.addRecurringSeriesUntilDate("Series " + i, LocalTime.of(9, 0),
+              LocalTime.of(9, 30), first, last, "MTWRFSU", "", "", "");
+    }
+
+    long days = last.toEpochDay() - first.toEpochDay() + 1;
+    long total = rules * days;
+    assertTrue(total > Integer.MAX_VALUE);
+    assertEquals(total, calendar.countEventsStarting(first.atStartOfDay(),
+            last.plusDays(1).atStartOfDay()));
+    LocalDate middle = LocalDate.of(6000, 1, 1);
+    assertEquals(rules * (middle.toEpochDay() - first.toEpochDay()),
+            calendar.countEventsStarting(first.atStartOfDay(), middle.atStartOfDay()));
+
+    //the furthest row a table can show is still found by its offset
+    CalendarManagement.Cursor cursor = calendar.getCursor(first.atStartOfDay(),
+            Integer.MAX_VALUE);
+    List<Event> page = calendar.getPageAfter(cursor, 1).getEvents();
+    assertEquals(first.plusDays(Integer.MAX_VALUE / rules).atTime(9, 0),
+            page.get(0).getStart());
+  }
+
+  @Test
+  public void testHandlesFollowEdits() {
+    calendar.addSingleEvent("Dentist", baseDate.atTime(9, 0), baseDate.atTime(10, 0),
+            "", "", "private");
+    Event dentist = calendar.findEvent("Dentist", baseDate.atTime(9, 0));
+    CalendarManagement.Handle handle = calendar.getHandle(dentist);
+    assertSame(handle, calendar.getHandle(dentist));
+
+    //every edit replaces the event, and the handle keeps up with all of them
+    calendar.editEvent(handle, "subject", "Orthodontist");
+    calendar.editEvent(handle, "start", baseDate.atTime(13, 0).toString());
+    calendar.editEvent(handle, "end", baseDate.atTime(14, 0).toString());
+    Event edited = calendar.getEvent(handle);
+    assertEquals("Orthodontist", edited.getSubject());
+    assertEquals(baseDate.atTime(13, 0), edited.getStart());
+    assertEquals(baseDate.atTime(14, 0), edited.getEnd());
+    assertEquals(1, calendar.getAllEvents().size());
+    assertSame(handle, calendar.getHandle(edited));
+
+    try {
+      calendar.getHandle(dentist);
+      fail("Replaced event should have no handle.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event is not in this calendar.", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testHandlesWorkInsideSeries() {
+    calendar.addRecurringSeriesByOccurrences("Standup", LocalTime.of(9, 0),
+            LocalTime.of(9, 15), baseDate, "MTWRF", 10, "", "Office", "public");
+    Event tuesday = calendar.findEvent("Standup", baseDate.plusDays(1).atTime(9, 0));
+    Event friday = calendar.findEvent("Standup", baseDate.plusDays(4).atTime(9, 0));
+    CalendarManagement.Handle tuesdayHandle = calendar.getHandle(tuesday);
+    CalendarManagement.Handle fridayHandle = calendar.getHandle(friday);
+    assertSame(tuesdayHandle, calendar.getHandle(tuesday));
+    assertEquals(baseDate.plusDays(1).atTime(9, 0), calendar.getEvent(tuesdayHandle).getStart());
+
+    //editing one occurrence takes it out of the rule; its handle follows
+    calendar.editEvent(tuesdayHandle, "location", "Room 2");
+    calendar.editEvent(tuesdayHandle, "subject", "Planning");
+    assertEquals("Planning", calendar.getEvent(tuesdayHandle).getSubject());
+    assertEquals("Room 2", calendar.getEvent(tuesdayHandle).getLocation());
+
+    //editing the whole series edits the rule, which the other handles lead to
+    calendar.editEntireSeries("Standup", baseDate.atTime(9, 0), "location", "Room 3");
+    assertEquals("Room 3", calendar.getEvent(fridayHandle).getLocation());
+    assertSame(fridayHandle, calendar.getHandle(calendar.getEvent(fridayHandle)));
+  }
+
+  private static List<String> describe(List<Event> events) {
+    return events.stream()
+            .map(e -> e.getSubject() + " @ " + e.getStart())
+            .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testCopyKeepsEventsRunningPastMidnight() {
+    ZoneId newYork = ZoneId.of("America/New_York");
+    calendar.addSingleEvent("Night shift", baseDate.atTime(22, 0),
+            baseDate.plusDays(1).atTime(1, 30), null, null, null);
+
+    CalendarManagement target = new CalendarManagement();
+    LocalDate targetStart = LocalDate.of(2025, 7, 7);
+    calendar.copyEventsBetween(baseDate, baseDate, newYork, target, targetStart, newYork);
+
+    Event copy = target.findEvent("Night shift", targetStart.atTime(22, 0));
+    assertEquals(targetStart.plusDays(1).atTime(1, 30), copy.getEnd());
+  }
+
+  @Test
+  public void testCopySelectsEventsByStartDay() {
+    calendar.addEventSeriesByOccurrences("Standup", LocalTime.of(9, 0),
+            LocalTime.of(9, 30), baseDate, "MTW", 3, "", "", "");
+    //every member now ends on the first day, so the later ones end before they start
+    calendar.editEntireSeries("Standup", baseDate.atTime(9, 0), "end",
+            baseDate.atTime(10, 0).toString());
+
+    CalendarManagement target = new CalendarManagement();
+    LocalDate targetStart = LocalDate.of(2025, 7, 7);
+    ZoneId zone = ZoneId.of("UTC");
+    List<CalendarManagement.CopyResult> results = calendar.copyEventsBetween(
+            baseDate.plusDays(2), baseDate.plusDays(2), zone, target, targetStart, zone);
+
+    assertEquals(1, results.size());
+    assertTrue(results.get(0).isCopied());
+    assertNotNull(target.findEvent("Standup", targetStart.atTime(9, 0)));
+
+    //an event ending before it starts still blocks a copy starting with it
+    results = calendar.copyEventsBetween(baseDate.plusDays(1), baseDate.plusDays(1), zone,
+            calendar, baseDate.plusDays(2), zone);
+    assertFalse(results.get(0).isCopied());
+  }
+
+  @Test
+  public void testRepeatedStringsAreShared() {
+    //new String(...) stands in for values parsed from separate command lines
+    for (int i = 0; i < 3; i++) {
+      calendar.addSingleEvent(new String("Standup"), baseDate.plusDays(i).atTime(9, 0),
+              baseDate.plusDays(i).atTime(9, 15), null, new String("Room 101"),
+              new String("public"));
+    }
+    calendar.addEventSeriesByOccurrences(new String("Standup"), LocalTime.of(10, 0),
+            LocalTime.of(10, 30), baseDate, "M", 2, "", new String("Room 101"), "public");
+    List<Event> all = calendar.getAllEvents();
+    Event first = all.get(0);
+    Event edited = calendar.editSingleEvent(all.get(1), "location", new String("Room 101"));
+
+    for (Event e : all) {
+      assertSame(first.getSubject(), e.getSubject());
+      assertSame(first.getLocation(), e.getLocation());
+      assertSame(first.getStatus(), e.getStatus());
+    }
+    assertSame(first.getLocation(), edited.getLocation());
+
+    StringDictionary strings = calendar.getStringDictionary();
+    assertEquals(3, strings.size());
+    assertEquals(13, strings.getLookups());
+    assertEquals(10, strings.getHits());
+    //each of these short strings is a 24-byte String plus a 24-byte array
+    assertEquals(10 * 48, strings.getSavedBytes());
+  }
+}
@@ -0,0 +1,303 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Class to keep calendars on disk between runs of the program.
+ * Every state-changing command is appended to a write-ahead log before it runs,
+ * and every so often the full state of all calendars is written to a compacted
+ * binary snapshot (see BinarySnapshot), after which the log starts over. On
+ * startup the snapshot is loaded and only the commands logged after it are
+ * replayed, so recovery time depends on the size of the calendars rather than
+ * on the full command history.
+ *
+ * <p>Each log record is the length of the command, its sequence number, a CRC32
+ * of both, and the command in the binary form written by Command.write. Every
+ * record is forced to disk before append returns, and a snapshot is forced to
+ * disk together with its directory entry before the log is emptied, so a
+ * command that has started running survives a crash of the machine as well as
+ * of the program.
+ *
+ * <p>The events of a loaded snapshot are kept as chosen by the store's Storage:
+ * as Event objects on the heap, or in an EventStore that the loaded calendar
+ * keeps them in (see CalendarManagement(EventStore)).
+ */
+public class CalendarStore implements Closeable {
+
+  /**
+   * Number of logged commands after which a new snapshot should be written.
+   */
+  public static final int SNAPSHOT_INTERVAL = 1000;
+
+  /**
+   * Where a loaded calendar keeps the events of the snapshot it was loaded from.
+   */
+  public enum Storage {
+    /** One Event object per event, like the events added later. */
+    HEAP,
+    /** The primitive columns of a ColumnarEventStore. */
+    COLUMNAR,
+    /** The direct-memory records of an OffHeapEventStore, outside the Java heap. */
+    OFF_HEAP
+  }
+
+  private static final String LOG_FILE = "calendar.wal";
+  private static final String SNAPSHOT_FILE = "calendar.snapshot";
+  //length, sequence number and checksum in front of every record
+  private static final int RECORD_HEADER = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+  private final Path logPath;
+  private final Path snapshotPath;
+  private final Storage storage;
+  private FileChannel logChannel;
+  private DataOutputStream log;
+
+  //sequence number of the last logged command, and of the last one in the snapshot
+  private long lastSeq;
+  private long snapshotSeq;
+
+  /**
+   * Opens (or creates) a store in the given directory, which loads events onto
+   * the heap.
+   *
+   * @param directory where the log and snapshot files are kept
+   * @throws IOException if the directory or log cannot be opened
+   */
+  public CalendarStore(Path directory) throws IOException {
+    this(directory, Storage.HEAP);
+  }
+
+  /**
+   * Opens (or creates) a store in the given directory.
+   *
+   * @param directory where the log and snapshot files are kept
+   * @param storage   where loaded calendars keep the events of the snapshot
+   * @throws IOException if the directory or log cannot be opened
+   */
+  public CalendarStore(Path directory, Storage storage) throws IOException {
+    Files.createDirectories(directory);
+    this.logPath = directory.resolve(LOG_FILE);
+    this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+    this.storage = storage;
+    openLog(StandardOpenOption.APPEND);
+    this.lastSeq = 0;
+    this.snapshotSeq = 0;
+  }
+
+  /**
+   * Loads the latest snapshot (if any) into MultiCalendarManagement, keeping the
+   * events as the store's Storage asks.
+   *
+   * @return name of the calendar that was in use, or null if none was
+   * @throws IOException if the snapshot cannot be read
+   */
+  public String loadSnapshot() throws IOException {
+    if (!Files.exists(snapshotPath)) {
+      return null;
+    }
+
+    BinarySnapshot snapshot = BinarySnapshot.open(snapshotPath);
+    for (BinarySnapshot.MappedCalendar mapped : snapshot.getCalendars()) {
+      CalendarManagement cal = load(mapped);
+      MultiCalendarManagement.addCalendar(cal, mapped.getTimeZone(), mapped.getName());
+    }
+
+    snapshotSeq = snapshot.getLastSeq();
+    lastSeq = snapshotSeq;
+    return snapshot.getCurrent();
+  }
+
+  /**
+   * Reads the commands logged after the latest snapshot, in order.
+   * Reading stops at the first incomplete or damaged record, which can only be
+   * the last one written before a crash; the log is cut back to the records
+   * before it, so commands appended later are not lost behind it.
+   *
+   * @return list of logged commands
+   * @throws IOException if the log cannot be read
+   */
+  public List<Command> readLog() throws IOException {
+    List<Command> commands = new ArrayList<>();
+    long size = Files.size(logPath);
+    long valid = 0;
+
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(logPath)))) {
+      while (true) {
+        long seq;
+        byte[] body;
+        try {
+          int length = in.readInt();
+          if (length < 0 || length > size - valid - RECORD_HEADER) {
+            break;
+          }
+          seq = in.readLong();
+          int crc = in.readInt();
+          body = new byte[length];
+          in.readFully(body);
+          if (crc != checksum(seq, body)) {
+            break;
+          }
+        } catch (EOFException e) {
+          break;
+        }
+
+        Command command;
+        try {
+          command = Command.read(new DataInputStream(new ByteArrayInputStream(body)));
+        } catch (IOException | IllegalArgumentException | DateTimeException e) {
+          break;
+        }
+
+        //records already contained in the snapshot are skipped
+        if (seq > snapshotSeq) {
+          commands.add(command);
+        }
+        lastSeq = Math.max(lastSeq, seq);
+        valid += RECORD_HEADER + body.length;
+      }
+    }
+
+    if (valid < size) {
+      try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+        channel.truncate(valid);
+      }
+    }
+    return commands;
+  }
+
+  /**
+   * Appends a command to the log. The record is flushed and forced to disk
+   * before this returns, so it is durable ahead of the command being run.
+   *
+   * @param command command to log
+   * @throws IOException if the record cannot be written
+   */
+  public void append(Command command) throws IOException {
+    long seq = ++lastSeq;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Command.write(command, new DataOutputStream(bytes));
+    byte[] body = bytes.toByteArray();
+
+    log.writeInt(body.length);
+    log.writeLong(seq);
+    log.writeInt(checksum(seq, body));
+    log.write(body);
+    log.flush();
+    //only the data has to reach the disk; the file's size is recovered from the records
+    logChannel.force(false);
+  }
+
+  /**
+   * Checks whether enough commands were logged to make a new snapshot worthwhile.
+   *
+   * @return true if a snapshot should be written
+   */
+  public boolean snapshotDue() {
+    return lastSeq - snapshotSeq >= SNAPSHOT_INTERVAL;
+  }
+
+  /**
+   * Writes all calendars in MultiCalendarManagement to a new snapshot and then
+   * empties the log. The snapshot is written to a temporary file first and moved
+   * into place, and both the file and the directory holding it are forced to
+   * disk before the log is emptied, so a crash never leaves a half-written
+   * snapshot behind or loses the rename after the log is gone.
+   *
+   * @param current name of the calendar in use, or null if none is
+   * @throws IOException if the snapshot cannot be written
+   */
+  public void writeSnapshot(String current) throws IOException {
+    Path temp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+
+    BinarySnapshot.write(temp, lastSeq, current);
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    syncDirectory(snapshotPath.getParent());
+    snapshotSeq = lastSeq;
+
+    //the snapshot now holds everything in the log
+    log.close();
+    openLog(StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  /**
+   * Closes the log file.
+   *
+   * @throws IOException if the log cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    log.close();
+  }
+
+  // --- Helper methods ---
+
+  //a calendar holding the events and rules of a mapped one, its events kept as the
+  //storage asks
+  private CalendarManagement load(BinarySnapshot.MappedCalendar mapped) {
+    CalendarManagement cal;
+    switch (storage) {
+      case COLUMNAR:
+        cal = new CalendarManagement(ColumnarEventStore.copyOf(mapped.eventView()));
+        break;
+      case OFF_HEAP:
+        cal = new CalendarManagement(OffHeapEventStore.copyOf(mapped.eventView()));
+        break;
+      default:
+        cal = new CalendarManagement();
+        cal.restore(mapped.events(), List.of());
+        break;
+    }
+    cal.restore(List.of(), mapped.getRecurrenceRules());
+    return cal;
+  }
+
+  //the stream writes through the channel, which is kept to force records to disk
+  private void openLog(StandardOpenOption mode) throws IOException {
+    logChannel = FileChannel.open(logPath, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, mode);
+    log = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(logChannel)));
+  }
+
+  //makes a rename in the directory durable; some platforms cannot open a directory
+  //as a channel, and there the rename is as durable as the file system makes it
+  private static void syncDirectory(Path directory) throws IOException {
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(directory, StandardOpenOption.READ);
+    } catch (IOException | UnsupportedOperationException e) {
+      return;
+    }
+    try (channel) {
+      channel.force(true);
+    }
+  }
+
+  private static int checksum(long seq, byte[] body) {
+    CRC32 crc = new CRC32();
+    crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, seq));
+    crc.update(body);
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,195 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for CalendarStore.
+ */
+public class CalendarStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = folder.newFolder("store").toPath();
+    new MultiCalendarManagement();
+  }
+
+  @Test
+  public void testLogIsReadBackInOrder() throws IOException {
+    Command create = new Command.CreateCalendar("Work", "America/New_York");
+    Command event = new Command.CreateEvent("Tab\there", LocalDateTime.of(2025, 6, 2, 9, 0),
+            LocalDateTime.of(2025, 6, 2, 10, 0));
+    Command edit = new Command.EditEvent("location", "Tab\there",
+            LocalDateTime.of(2025, 6, 2, 9, 0), LocalDateTime.of(2025, 6, 2, 10, 0),
+            "a\\b\nc");
+
+    try (CalendarStore store = new CalendarStore(directory)) {
+      store.append(create);
+      store.append(event);
+      store.append(edit);
+    }
+
+    try (CalendarStore store = new CalendarStore(directory)) {
+      assertNull(store.loadSnapshot());
+      List<Command> logged = store.readLog();
+
+      assertEquals(List.of(create, event, edit), logged);
+    }
+  }
+
+  @Test
+  public void testTornRecordIsIgnored() throws IOException {
+    try (CalendarStore store = new CalendarStore(directory)) {
+      store.append(new Command.CreateCalendar("Work", "America/New_York"));
+      store.append(new Command.UseCalendar("Work"));
+    }
+
+    //simulate a crash halfway through writing a record
+    Files.write(directory.resolve("calendar.wal"), new byte[]{0, 0, 0, 40, 0, 0, 0},
+            StandardOpenOption.APPEND);
+
+    try (CalendarStore store = new CalendarStore(directory)) {
+      store.loadSnapshot();
+      assertEquals(2, store.readLog().size());
+      store.append(new Command.UseCalendar("Home"));
+    }
+
+    //the torn bytes were cut off, so the record appended after them is found
+    try (CalendarStore store = new CalendarStore(directory)) {
+      store.loadSnapshot();
+      List<Command> logged = store.readLog();
+      assertEquals(3, logged.size());
+      assertEquals(new Command.UseCalendar("Home"), logged.get(2));
+    }
+  }
+
+  @Test
+  public void testSnapshotRoundTrip() throws IOException {
+    CalendarManagement cal = new CalendarManagement();
+    cal.addSingleEvent("Lunch", LocalDateTime.of(2025, 6, 2, 12, 0),
+            LocalDateTime.of(2025, 6, 2, 13, 0), "With\tteam", null, "public");
+    RecurrenceRule rule = cal.addRecurringSeriesByOccurrences("Standup",
+            LocalTime.of(9, 0), LocalTime.of(9, 15), LocalDate.of(2025, 6, 2),
+            "MWF", 6, null, "Room 101", null);
+    cal.editSingleEvent(cal.findEvent("Standup", LocalDateTime.of(2025, 6, 4, 9, 0)),
+            "location", "Room 202");
+    MultiCalendarManagement.addCalendar(cal, "America/New_York", "Work");
+
+    try (CalendarStore store = new CalendarStore(directory)) {
+      store.append(new Command.UseCalendar("Work"));
+      store.writeSnapshot("Work");
+    }
+
+    new MultiCalendarManagement();
+    try (CalendarStore store = new CalendarStore(directory)) {
+      assertEquals("Work", store.loadSnapshot());
+      assertTrue(store.readLog().isEmpty());
+      assertFalse(store.snapshotDue());
+    }
+
+    assertEquals(1, MultiCalendarManagement.getCalendarCount());
+    MultiCalendarManagement.CalendarWithTimeZone loaded =
+            MultiCalendarManagement.getCalendar("Work");
+    assertEquals("Work", MultiCalendarManagement.getName(loaded));
+    assertEquals("America/New_York", MultiCalendarManagement.getTime(loaded));
+
+    CalendarManagement restored = MultiCalendarManagement.getCal(loaded);
+    assertEquals(cal.getAllEvents().size(), restored.getAllEvents().size());
+    assertEquals(1, restored.getRecurrenceRules().size());
+    assertEquals(rule.getIdentifier(), restored.getRecurrenceRules().get(0).getIdentifier());
+    assertEquals("With\tteam",
+            restored.findEvent("Lunch", LocalDateTime.of(2025, 6, 2, 12, 0)).getDescription());
+    assertEquals("Room 202",
+            restored.findEvent("Standup", LocalDateTime.of(2025, 6, 4, 9, 0)).getLocation());
+    assertEquals("Room 101",
+            restored.findEvent("Standup", LocalDateTime.of(2025, 6, 6, 9, 0)).getLocation());
+  }
+
+  @Test
+  public void testRecordsInSnapshotAreNotReplayed() throws IOException {
+    try (CalendarStore store = new CalendarStore(directory)) {
+      store.append(new Command.CreateCalendar("Work", "America/New_York"));
+      store.writeSnapshot(null);
+      store.append(new Command.CreateCalendar("Home", "America/New_York"));
+    }
+
+    new MultiCalendarManagement();
+    try (CalendarStore store = new CalendarStore(directory)) {
+      store.loadSnapshot();
+      List<Command> logged = store.readLog();
+
+      assertEquals(List.of(new Command.CreateCalendar("Home", "America/New_York")), logged);
+    }
+  }
+
+  @Test
+  public void testColumnarStorageRoundTrip() throws IOException {
+    assertStorageRoundTrip(CalendarStore.Storage.COLUMNAR);
+  }
+
+  @Test
+  public void testOffHeapStorageRoundTrip() throws IOException {
+    assertStorageRoundTrip(CalendarStore.Storage.OFF_HEAP);
+  }
+
+  //loads a snapshot into the given storage, edits it, and snapshots it again
+  private void assertStorageRoundTrip(CalendarStore.Storage storage) throws IOException {
+    CalendarManagement cal = new CalendarManagement();
+    cal.addEventSeriesByOccurrences("Workout", LocalTime.of(7, 0), LocalTime.of(8, 0),
+            LocalDate.of(2025, 6, 2), "MWF", 6, "Morning gym", "Gym", "public");
+    cal.addSingleEvent("Lunch", LocalDateTime.of(2025, 6, 2, 12, 0),
+            LocalDateTime.of(2025, 6, 2, 13, 0), "With\tteam", null, "public");
+    cal.addRecurringSeriesByOccurrences("Standup", LocalTime.of(9, 0), LocalTime.of(9, 15),
+            LocalDate.of(2025, 6, 2), "MWF", 6, null, "Room 101", null);
+    MultiCalendarManagement.addCalendar(cal, "America/New_York", "Work");
+    try (CalendarStore store = new CalendarStore(directory)) {
+      store.writeSnapshot("Work");
+    }
+
+    new MultiCalendarManagement();
+    try (CalendarStore store = new CalendarStore(directory, storage)) {
+      assertEquals("Work", store.loadSnapshot());
+      CalendarManagement loaded =
+              MultiCalendarManagement.getCal(MultiCalendarManagement.getCalendar("Work"));
+      assertEquals(cal.getAllEvents().size(), loaded.getAllEvents().size());
+
+      loaded.editEntireSeries("Workout", LocalDateTime.of(2025, 6, 4, 7, 0), "location", "Pool");
+      loaded.addSingleEvent("Dentist", LocalDateTime.of(2025, 6, 3, 8, 0),
+              LocalDateTime.of(2025, 6, 3, 9, 0), null, null, null);
+      store.writeSnapshot("Work");
+    }
+
+    new MultiCalendarManagement();
+    try (CalendarStore store = new CalendarStore(directory)) {
+      store.loadSnapshot();
+    }
+    CalendarManagement restored =
+            MultiCalendarManagement.getCal(MultiCalendarManagement.getCalendar("Work"));
+    assertEquals(cal.getAllEvents().size() + 1, restored.getAllEvents().size());
+    assertEquals(1, restored.getRecurrenceRules().size());
+    assertEquals("Pool",
+            restored.findEvent("Workout", LocalDateTime.of(2025, 6, 13, 7, 0)).getLocation());
+    assertEquals("With\tteam",
+            restored.findEvent("Lunch", LocalDateTime.of(2025, 6, 2, 12, 0)).getDescription());
+    assertTrue(restored.isTimeSlotOccupied(LocalDateTime.of(2025, 6, 3, 8, 30)));
+  }
+}
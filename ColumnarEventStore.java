@@ -0,0 +1,260 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact in-memory store for the events of one calendar.
+ * Instead of one Event object per event, every field is kept in its own
+ * primitive array: start and end as wall-clock seconds, the identifier as two
+ * longs, and the subject, description, location and status as ids into a
+ * shared StringDictionary. That is 56 bytes per event, and events that
+ * share a subject or location share one string. Event objects are only built
+ * when an event is read.
+ *
+ * <p>Rows are kept ordered by start time (ties in the order added) together
+ * with a running maximum of the end times, the same layout BinarySnapshot
+ * writes to disk, so range and point queries are the binary searches of
+ * EventStore. An event added out of order is inserted at its row by moving
+ * the later rows up by one, so reads never have to sort. Rule-based series
+ * are kept as rules.
+ *
+ * <p>A store is filled from one thread and then only read, for example as the
+ * storage of a CalendarManagement loaded by CalendarStore; once filled, any
+ * number of threads can read it at once.
+ */
+public class ColumnarEventStore implements EventStore {
+
+  private static final int INITIAL_CAPACITY = 16;
+  //five long columns and four int columns
+  private static final int ROW_BYTES = 5 * Long.BYTES + 4 * Integer.BYTES;
+
+  private final StringDictionary dictionary;
+  //replaced rather than changed, so it can be handed out as it is
+  private List<RecurrenceRule> rules;
+  private int size;
+
+  private long[] starts;
+  private long[] ends;
+  private long[] maxEnds;
+  private long[] idHighs;
+  private long[] idLows;
+  private int[] subjects;
+  private int[] descriptions;
+  private int[] locations;
+  private int[] statuses;
+
+  /**
+   * Constructor for an empty ColumnarEventStore.
+   */
+  public ColumnarEventStore() {
+    this.dictionary = new StringDictionary();
+    this.rules = List.of();
+    this.size = 0;
+
+    this.starts = new long[INITIAL_CAPACITY];
+    this.ends = new long[INITIAL_CAPACITY];
+    this.maxEnds = new long[INITIAL_CAPACITY];
+    this.idHighs = new long[INITIAL_CAPACITY];
+    this.idLows = new long[INITIAL_CAPACITY];
+    this.subjects = new int[INITIAL_CAPACITY];
+    this.descriptions = new int[INITIAL_CAPACITY];
+    this.locations = new int[INITIAL_CAPACITY];
+    this.statuses = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Copies events into a new store, such as the rows of a mapped snapshot that
+   * a calendar is loaded from. Events given in start order are appended
+   * without moving any row.
+   *
+   * @param events events to copy
+   * @return store holding the same events
+   */
+  public static ColumnarEventStore copyOf(Collection<Event> events) {
+    ColumnarEventStore store = new ColumnarEventStore();
+    store.reserve(events.size());
+    events.forEach(store::add);
+    return store;
+  }
+
+  /**
+   * Adds an event as it is, after the events with the same or an earlier start.
+   * No duplicate checks are made.
+   *
+   * @param e event to add
+   */
+  public void add(Event e) {
+    if (size == starts.length) {
+      reserve(size + 1);
+    }
+
+    //the first row starting later; rows from there on move up to make room
+    int row = countStartingBefore(e.getStartSecond() + 1);
+    if (row < size) {
+      moveUp(row);
+    }
+    size++;
+
+    starts[row] = e.getStartSecond();
+    ends[row] = e.getEndSecond();
+    idHighs[row] = e.getIdentifier() == null ? 0 : e.getIdentifier().getMostSignificantBits();
+    idLows[row] = e.getIdentifier() == null ? 0 : e.getIdentifier().getLeastSignificantBits();
+    subjects[row] = dictionary.intern(e.getSubject());
+    descriptions[row] = dictionary.intern(e.getDescription());
+    locations[row] = dictionary.intern(e.getLocation());
+    statuses[row] = dictionary.intern(e.getStatus());
+
+    //the running maximum only grows by this event's end, from its row until a
+    //later row already reaches that far
+    long end = EventRows.endOrStart(starts[row], ends[row]);
+    maxEnds[row] = row == 0 ? end : Math.max(maxEnds[row - 1], end);
+    for (int later = row + 1; later < size && maxEnds[later] < end; later++) {
+      maxEnds[later] = end;
+    }
+  }
+
+  /**
+   * Adds a rule-based series.
+   *
+   * @param rule recurrence rule to add
+   */
+  public void addRule(RecurrenceRule rule) {
+    List<RecurrenceRule> updated = new ArrayList<>(rules);
+    updated.add(rule);
+    rules = List.copyOf(updated);
+  }
+
+  /**
+   * Returns the number of stored events (not counting rule occurrences).
+   *
+   * @return number of stored events
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of distinct strings used by the stored events.
+   *
+   * @return size of the string dictionary
+   */
+  public int stringCount() {
+    return dictionary.size();
+  }
+
+  /**
+   * Returns the number of bytes held by the columns, counting every allocated
+   * row whether it is used yet or not. The strings are shared through the
+   * dictionary and not counted.
+   *
+   * @return bytes of the column arrays
+   */
+  public long columnBytes() {
+    return (long) starts.length * ROW_BYTES;
+  }
+
+  /**
+   * Returns the rule-based series of the store.
+   *
+   * @return unmodifiable list of the recurrence rules
+   */
+  @Override
+  public List<RecurrenceRule> getRecurrenceRules() {
+    return rules;
+  }
+
+  @Override
+  public long getStartSecond(int row) {
+    return starts[checkRow(row)];
+  }
+
+  @Override
+  public long getEndSecond(int row) {
+    return ends[checkRow(row)];
+  }
+
+  @Override
+  public long getMaxEndSecond(int row) {
+    return maxEnds[checkRow(row)];
+  }
+
+  @Override
+  public boolean subjectEquals(int row, String subject) {
+    int id = dictionary.find(subject);
+    return id >= 0 && subjects[checkRow(row)] == id;
+  }
+
+  @Override
+  public boolean identifierEquals(int row, UUID identifier) {
+    checkRow(row);
+    return identifier == null
+            ? idHighs[row] == 0 && idLows[row] == 0
+            : idHighs[row] == identifier.getMostSignificantBits()
+                    && idLows[row] == identifier.getLeastSignificantBits();
+  }
+
+  /**
+   * Builds the stored event at the given row.
+   *
+   * @param row index in start-time order
+   * @return the event
+   */
+  @Override
+  public Event event(int row) {
+    checkRow(row);
+    long high = idHighs[row];
+    long low = idLows[row];
+
+    return new Event(dictionary.get(subjects[row]), Event.toDateTime(starts[row]),
+            dictionary.get(descriptions[row]), Event.toDateTime(ends[row]),
+            dictionary.get(locations[row]), dictionary.get(statuses[row]),
+            high == 0 && low == 0 ? null : new UUID(high, low));
+  }
+
+  // --- Helper methods ---
+
+  private int checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IllegalArgumentException("Row " + row + " is out of range.");
+    }
+    return row;
+  }
+
+  //make room for at least the given number of rows, doubling the capacity
+  private void reserve(int rows) {
+    int capacity = starts.length;
+    while (capacity < rows) {
+      capacity *= 2;
+    }
+    if (capacity == starts.length) {
+      return;
+    }
+
+    starts = Arrays.copyOf(starts, capacity);
+    ends = Arrays.copyOf(ends, capacity);
+    maxEnds = Arrays.copyOf(maxEnds, capacity);
+    idHighs = Arrays.copyOf(idHighs, capacity);
+    idLows = Arrays.copyOf(idLows, capacity);
+    subjects = Arrays.copyOf(subjects, capacity);
+    descriptions = Arrays.copyOf(descriptions, capacity);
+    locations = Arrays.copyOf(locations, capacity);
+    statuses = Arrays.copyOf(statuses, capacity);
+  }
+
+  //move rows [row, size) up by one; there is room for one more row
+  private void moveUp(int row) {
+    int count = size - row;
+    System.arraycopy(starts, row, starts, row + 1, count);
+    System.arraycopy(ends, row, ends, row + 1, count);
+    System.arraycopy(maxEnds, row, maxEnds, row + 1, count);
+    System.arraycopy(idHighs, row, idHighs, row + 1, count);
+    System.arraycopy(idLows, row, idLows, row + 1, count);
+    System.arraycopy(subjects, row, subjects, row + 1, count);
+    System.arraycopy(descriptions, row, descriptions, row + 1, count);
+    System.arraycopy(locations, row, locations, row + 1, count);
+    System.arraycopy(statuses, row, statuses, row + 1, count);
+  }
+}
@@ -0,0 +1,61 @@
+import org.junit.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for ColumnarEventStore.
+ */
+public class ColumnarEventStoreTest extends EventStoreTest {
+
+  //an Event is at least a 12-byte header, two longs and five references (48 bytes
+  //with compressed references), and its UUID a header and two longs (32 bytes)
+  private static final long MIN_EVENT_BYTES = 80;
+
+  @Override
+  protected EventStore copyOf(Collection<Event> events) {
+    return ColumnarEventStore.copyOf(events);
+  }
+
+  @Test
+  public void testRowsKeepEveryField() {
+    calendar.addEventSeriesByOccurrences("Workout", LocalTime.of(7, 0), LocalTime.of(8, 0),
+            base.toLocalDate(), "M", 3, "Morning gym", "Gym", "public");
+    calendar.addSingleEvent("Dentist", base.plusHours(9), base.plusHours(10), null, null, null);
+
+    ColumnarEventStore store = ColumnarEventStore.copyOf(calendar.getStoredEvents());
+
+    assertEquals(describe(calendar.getStoredEvents()), describe(store.events()));
+    assertEquals("Dentist", store.event(1).getSubject());
+    assertTrue(store.subjectEquals(1, "Dentist"));
+    assertTrue(store.identifierEquals(0, calendar.getStoredEvents().get(0).getIdentifier()));
+    assertNull(store.event(1).getDescription());
+    assertEquals(Event.toSecond(base.plusDays(7).plusHours(7)), store.getStartSecond(2));
+    //Workout, Morning gym, Gym, public and Dentist; a missing value is no string
+    assertEquals(5, store.stringCount());
+  }
+
+  @Test
+  public void testColumnsTakeLessThanEventObjects() {
+    //exactly the capacity the columns double to, so no row is left unused
+    final int count = 1 << 17;
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      events.add(event(i));
+    }
+
+    ColumnarEventStore store = ColumnarEventStore.copyOf(events);
+
+    assertEquals(count, store.size());
+    assertEquals(56L * count, store.columnBytes());
+    assertTrue(store.columnBytes() < MIN_EVENT_BYTES * count);
+    //the strings are shared, however many events use them
+    assertEquals(100 + 10 + 20 + 1, store.stringCount());
+  }
+}
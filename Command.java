@@ -0,0 +1,676 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A parsed command, with its arguments already turned into typed values.
+ * Commands are built once from a ScannedCommand, so dates, times and numbers are
+ * never parsed from text again, and each kind of command is its own record type
+ * that RunCalendar looks up in a table of handlers. Commands can also be written
+ * to and read back from a compact binary form (see write and read), which is how
+ * CalendarStore logs them.
+ */
+public interface Command {
+
+  /**
+   * Get the command type, as numbered in InputParsing.COMMAND_BANK.
+   *
+   * @return command type; -1 for an invalid command
+   */
+  int getType();
+
+  /**
+   * Checks whether running the command can change any calendar.
+   * Only these commands need to be logged to a CalendarStore.
+   *
+   * @return true if the command can change calendars
+   */
+  default boolean changesCalendars() {
+    return true;
+  }
+
+  /**
+   * Writes the arguments of the command, not including its type.
+   *
+   * @param out where to write
+   * @throws IOException if writing fails
+   */
+  void writeArguments(DataOutput out) throws IOException;
+
+  /**
+   * Text that is not a valid command.
+   */
+  record Invalid() implements Command {
+    @Override
+    public int getType() {
+      return -1;
+    }
+
+    @Override
+    public boolean changesCalendars() {
+      return false;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) {
+      //no arguments
+    }
+  }
+
+  /**
+   * A command of COMMAND_BANK that has no handler yet ("list" and "exe").
+   *
+   * @param type command type
+   */
+  record Unsupported(int type) implements Command {
+    @Override
+    public int getType() {
+      return type;
+    }
+
+    @Override
+    public boolean changesCalendars() {
+      return false;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) {
+      //no arguments
+    }
+  }
+
+  /**
+   * {@code create event <subject> from <dt> to <dt>}
+   *
+   * @param subject subject of the event
+   * @param start   start of the event
+   * @param end     end of the event
+   */
+  record CreateEvent(String subject, LocalDateTime start, LocalDateTime end)
+          implements Command {
+    @Override
+    public int getType() {
+      return 3;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, subject);
+      writeDateTime(out, start);
+      writeDateTime(out, end);
+    }
+  }
+
+  /**
+   * {@code create event <subject> from <dt> to <dt> repeats <w> for <n> times}
+   *
+   * @param subject     subject of the events
+   * @param start       start of the first event
+   * @param end         end of the first event
+   * @param weekdays    weekday code
+   * @param occurrences number of events
+   */
+  record CreateSeries(String subject, LocalDateTime start, LocalDateTime end,
+                      String weekdays, int occurrences) implements Command {
+    @Override
+    public int getType() {
+      return 4;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, subject);
+      writeDateTime(out, start);
+      writeDateTime(out, end);
+      writeText(out, weekdays);
+      out.writeInt(occurrences);
+    }
+  }
+
+  /**
+   * {@code create event <subject> from <dt> to <dt> repeats <w> until <d>}
+   *
+   * @param subject  subject of the events
+   * @param start    start of the first event
+   * @param end      end of the first event
+   * @param weekdays weekday code
+   * @param until    last date of the series
+   */
+  record CreateSeriesUntil(String subject, LocalDateTime start, LocalDateTime end,
+                           String weekdays, LocalDate until) implements Command {
+    @Override
+    public int getType() {
+      return 5;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, subject);
+      writeDateTime(out, start);
+      writeDateTime(out, end);
+      writeText(out, weekdays);
+      writeDate(out, until);
+    }
+  }
+
+  /**
+   * {@code create event <subject> on <d>}
+   *
+   * @param subject subject of the event
+   * @param date    day of the event
+   */
+  record CreateAllDayEvent(String subject, LocalDate date) implements Command {
+    @Override
+    public int getType() {
+      return 6;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, subject);
+      writeDate(out, date);
+    }
+  }
+
+  /**
+   * {@code create event <subject> on <d> repeats <w> for <n> times}
+   *
+   * @param subject     subject of the events
+   * @param date        day of the first event
+   * @param weekdays    weekday code
+   * @param occurrences number of events
+   */
+  record CreateAllDaySeries(String subject, LocalDate date, String weekdays,
+                            int occurrences) implements Command {
+    @Override
+    public int getType() {
+      return 7;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, subject);
+      writeDate(out, date);
+      writeText(out, weekdays);
+      out.writeInt(occurrences);
+    }
+  }
+
+  /**
+   * {@code create event <subject> on <d> repeats <w> until <d>}
+   *
+   * @param subject  subject of the events
+   * @param date     day of the first event
+   * @param weekdays weekday code
+   * @param until    last date of the series
+   */
+  record CreateAllDaySeriesUntil(String subject, LocalDate date, String weekdays,
+                                 LocalDate until) implements Command {
+    @Override
+    public int getType() {
+      return 8;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, subject);
+      writeDate(out, date);
+      writeText(out, weekdays);
+      writeDate(out, until);
+    }
+  }
+
+  /**
+   * {@code edit event <property> <subject> from <dt> to <dt> with <value>}
+   *
+   * @param property property to change
+   * @param subject  subject of the event
+   * @param start    start of the event
+   * @param end      end of the event
+   * @param newValue new value of the property
+   */
+  record EditEvent(String property, String subject, LocalDateTime start,
+                   LocalDateTime end, String newValue) implements Command {
+    @Override
+    public int getType() {
+      return 9;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, property);
+      writeText(out, subject);
+      writeDateTime(out, start);
+      writeDateTime(out, end);
+      writeText(out, newValue);
+    }
+  }
+
+  /**
+   * {@code edit event <property> <subject> from <dt> with <value>}
+   *
+   * @param property property to change
+   * @param subject  subject of the event
+   * @param start    start of the event
+   * @param newValue new value of the property
+   */
+  record EditEventFrom(String property, String subject, LocalDateTime start,
+                       String newValue) implements Command {
+    @Override
+    public int getType() {
+      return 10;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, property);
+      writeText(out, subject);
+      writeDateTime(out, start);
+      writeText(out, newValue);
+    }
+  }
+
+  /**
+   * {@code edit series <property> <subject> from <dt> with <value>}
+   *
+   * @param property property to change
+   * @param subject  subject of the event
+   * @param start    start of the event
+   * @param newValue new value of the property
+   */
+  record EditSeries(String property, String subject, LocalDateTime start,
+                    String newValue) implements Command {
+    @Override
+    public int getType() {
+      return 11;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, property);
+      writeText(out, subject);
+      writeDateTime(out, start);
+      writeText(out, newValue);
+    }
+  }
+
+  /**
+   * {@code print events on <d>}
+   *
+   * @param date day to print
+   */
+  record PrintEventsOn(LocalDate date) implements Command {
+    @Override
+    public int getType() {
+      return 12;
+    }
+
+    @Override
+    public boolean changesCalendars() {
+      return false;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeDate(out, date);
+    }
+  }
+
+  /**
+   * {@code print events from <dt> to <dt>}
+   *
+   * @param from start of the range
+   * @param to   end of the range
+   */
+  record PrintEventsBetween(LocalDateTime from, LocalDateTime to) implements Command {
+    @Override
+    public int getType() {
+      return 13;
+    }
+
+    @Override
+    public boolean changesCalendars() {
+      return false;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeDateTime(out, from);
+      writeDateTime(out, to);
+    }
+  }
+
+  /**
+   * {@code show status on <dt>}
+   *
+   * @param time time to check
+   */
+  record ShowStatus(LocalDateTime time) implements Command {
+    @Override
+    public int getType() {
+      return 14;
+    }
+
+    @Override
+    public boolean changesCalendars() {
+      return false;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeDateTime(out, time);
+    }
+  }
+
+  /**
+   * {@code create calendar --name <name> --timezone <zone>}
+   *
+   * @param name     name of the calendar
+   * @param timeZone time zone of the calendar
+   */
+  record CreateCalendar(String name, String timeZone) implements Command {
+    @Override
+    public int getType() {
+      return 15;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, name);
+      writeText(out, timeZone);
+    }
+  }
+
+  /**
+   * {@code edit calendar --name <name> --property <property> <value>}
+   *
+   * @param name     name of the calendar
+   * @param property property to change
+   * @param newValue new value of the property
+   */
+  record EditCalendar(String name, String property, String newValue) implements Command {
+    @Override
+    public int getType() {
+      return 16;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, name);
+      writeText(out, property);
+      writeText(out, newValue);
+    }
+  }
+
+  /**
+   * {@code use calendar --name <name>}
+   *
+   * @param name name of the calendar
+   */
+  record UseCalendar(String name) implements Command {
+    @Override
+    public int getType() {
+      return 17;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, name);
+    }
+  }
+
+  /**
+   * {@code copy event <subject> on <dt> --target <name> to <dt>}
+   *
+   * @param subject     subject of the event
+   * @param start       start of the event
+   * @param target      name of the calendar to copy to
+   * @param targetStart start of the copy
+   */
+  record CopyEvent(String subject, LocalDateTime start, String target,
+                   LocalDateTime targetStart) implements Command {
+    @Override
+    public int getType() {
+      return 18;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeText(out, subject);
+      writeDateTime(out, start);
+      writeText(out, target);
+      writeDateTime(out, targetStart);
+    }
+  }
+
+  /**
+   * {@code copy events on <d> --target <name> to <d>}
+   *
+   * @param date       day to copy
+   * @param target     name of the calendar to copy to
+   * @param targetDate day to copy to
+   */
+  record CopyEventsOn(LocalDate date, String target, LocalDate targetDate)
+          implements Command {
+    @Override
+    public int getType() {
+      return 19;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeDate(out, date);
+      writeText(out, target);
+      writeDate(out, targetDate);
+    }
+  }
+
+  /**
+   * {@code copy events between <d> and <d> --target <name> to <d>}
+   *
+   * @param from       first day to copy
+   * @param to         last day to copy
+   * @param target     name of the calendar to copy to
+   * @param targetDate day the first day is copied to
+   */
+  record CopyEventsBetween(LocalDate from, LocalDate to, String target,
+                           LocalDate targetDate) implements Command {
+    @Override
+    public int getType() {
+      return 20;
+    }
+
+    @Override
+    public void writeArguments(DataOutput out) throws IOException {
+      writeDate(out, from);
+      writeDate(out, to);
+      writeText(out, target);
+      writeDate(out, targetDate);
+    }
+  }
+
+  /**
+   * Builds the typed command from a scanned one.
+   * A command whose date, time or number arguments cannot be made into values
+   * (for example a placeholder such as "dt" typed literally, or the hour 24) is
+   * an Invalid command.
+   *
+   * @param scanned result of CommandScanner.scan
+   * @return the command
+   */
+  static Command from(ScannedCommand scanned) {
+    int type = scanned.getType();
+    try {
+      switch (type) {
+        case 3:
+          return new CreateEvent(scanned.getArgument(0), scanned.getDateTime(1),
+                  scanned.getDateTime(2));
+        case 4:
+          return new CreateSeries(scanned.getArgument(0), scanned.getDateTime(1),
+                  scanned.getDateTime(2), scanned.getArgument(3), scanned.getNumber(4));
+        case 5:
+          return new CreateSeriesUntil(scanned.getArgument(0), scanned.getDateTime(1),
+                  scanned.getDateTime(2), scanned.getArgument(3), scanned.getDate(4));
+        case 6:
+          return new CreateAllDayEvent(scanned.getArgument(0), scanned.getDate(1));
+        case 7:
+          return new CreateAllDaySeries(scanned.getArgument(0), scanned.getDate(1),
+                  scanned.getArgument(2), scanned.getNumber(3));
+        case 8:
+          return new CreateAllDaySeriesUntil(scanned.getArgument(0), scanned.getDate(1),
+                  scanned.getArgument(2), scanned.getDate(3));
+        case 9:
+          return new EditEvent(scanned.getArgument(0), scanned.getArgument(1),
+                  scanned.getDateTime(2), scanned.getDateTime(3), scanned.getArgument(4));
+        case 10:
+          return new EditEventFrom(scanned.getArgument(0), scanned.getArgument(1),
+                  scanned.getDateTime(2), scanned.getArgument(3));
+        case 11:
+          return new EditSeries(scanned.getArgument(0), scanned.getArgument(1),
+                  scanned.getDateTime(2), scanned.getArgument(3));
+        case 12:
+          return new PrintEventsOn(scanned.getDate(0));
+        case 13:
+          return new PrintEventsBetween(scanned.getDateTime(0), scanned.getDateTime(1));
+        case 14:
+          return new ShowStatus(scanned.getDateTime(0));
+        case 15:
+          return new CreateCalendar(scanned.getArgument(0), scanned.getArgument(1));
+        case 16:
+          return new EditCalendar(scanned.getArgument(0), scanned.getArgument(1),
+                  scanned.getArgument(2));
+        case 17:
+          return new UseCalendar(scanned.getArgument(0));
+        case 18:
+          return new CopyEvent(scanned.getArgument(0), scanned.getDateTime(1),
+                  scanned.getArgument(2), scanned.getDateTime(3));
+        case 19:
+          return new CopyEventsOn(scanned.getDate(0), scanned.getArgument(1),
+                  scanned.getDate(2));
+        case 20:
+          return new CopyEventsBetween(scanned.getDate(0), scanned.getDate(1),
+                  scanned.getArgument(2), scanned.getDate(3));
+        case -1:
+          return new Invalid();
+        default:
+          return new Unsupported(type);
+      }
+    } catch (IllegalArgumentException | DateTimeException e) {
+      return new Invalid();
+    }
+  }
+
+  /**
+   * Writes a command: its type followed by its arguments.
+   * Text is written as UTF-8, date-times as epoch seconds and dates as epoch days.
+   *
+   * @param command command to write
+   * @param out     where to write
+   * @throws IOException if writing fails
+   */
+  static void write(Command command, DataOutput out) throws IOException {
+    out.writeByte(command.getType());
+    command.writeArguments(out);
+  }
+
+  /**
+   * Reads a command written by write.
+   *
+   * @param in where to read from
+   * @return the command
+   * @throws IOException if reading fails
+   * @throws IllegalArgumentException if the data is not a command
+   */
+  static Command read(DataInput in) throws IOException {
+    int type = in.readByte();
+    switch (type) {
+      case 3:
+        return new CreateEvent(readText(in), readDateTime(in), readDateTime(in));
+      case 4:
+        return new CreateSeries(readText(in), readDateTime(in), readDateTime(in),
+                readText(in), in.readInt());
+      case 5:
+        return new CreateSeriesUntil(readText(in), readDateTime(in), readDateTime(in),
+                readText(in), readDate(in));
+      case 6:
+        return new CreateAllDayEvent(readText(in), readDate(in));
+      case 7:
+        return new CreateAllDaySeries(readText(in), readDate(in), readText(in), in.readInt());
+      case 8:
+        return new CreateAllDaySeriesUntil(readText(in), readDate(in), readText(in),
+                readDate(in));
+      case 9:
+        return new EditEvent(readText(in), readText(in), readDateTime(in), readDateTime(in),
+                readText(in));
+      case 10:
+        return new EditEventFrom(readText(in), readText(in), readDateTime(in), readText(in));
+      case 11:
+        return new EditSeries(readText(in), readText(in), readDateTime(in), readText(in));
+      case 12:
+        return new PrintEventsOn(readDate(in));
+      case 13:
+        return new PrintEventsBetween(readDateTime(in), readDateTime(in));
+      case 14:
+        return new ShowStatus(readDateTime(in));
+      case 15:
+        return new CreateCalendar(readText(in), readText(in));
+      case 16:
+        return new EditCalendar(readText(in), readText(in), readText(in));
+      case 17:
+        return new UseCalendar(readText(in));
+      case 18:
+        return new CopyEvent(readText(in), readDateTime(in), readText(in), readDateTime(in));
+      case 19:
+        return new CopyEventsOn(readDate(in), readText(in), readDate(in));
+      case 20:
+        return new CopyEventsBetween(readDate(in), readDate(in), readText(in), readDate(in));
+      case -1:
+        return new Invalid();
+      default:
+        if (type >= 0 && type < InputParsing.COMMAND_BANK.length) {
+          return new Unsupported(type);
+        }
+        throw new IllegalArgumentException("Unknown command type: " + type);
+    }
+  }
+
+  // --- Helper methods ---
+
+  //length-prefixed UTF-8, since writeUTF cannot hold text longer than 64 KB
+  private static void writeText(DataOutput out, String text) throws IOException {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readText(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      throw new IllegalArgumentException("Negative text length: " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeDateTime(DataOutput out, LocalDateTime time) throws IOException {
+    out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+  }
+
+  private static LocalDateTime readDateTime(DataInput in) throws IOException {
+    return LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+  }
+
+  private static void writeDate(DataOutput out, LocalDate date) throws IOException {
+    out.writeInt((int) date.toEpochDay());
+  }
+
+  private static LocalDate readDate(DataInput in) throws IOException {
+    return LocalDate.ofEpochDay(in.readInt());
+  }
+}
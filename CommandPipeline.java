@@ -0,0 +1,265 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Class to run a file of commands as a pipeline for headless mode.
+ * One thread reads lines and groups them into batches, a pool of threads parses
+ * and validates the batches in parallel, and the calling thread runs the parsed
+ * commands. Parsed batches are handed over through a queue in the order they were
+ * read, so commands always run in file order, one at a time.
+ */
+public class CommandPipeline {
+
+  /**
+   * Number of lines parsed together by one parser task.
+   */
+  public static final int BATCH_SIZE = 256;
+
+  /**
+   * Number of batches that may be read or parsed ahead of the running command.
+   */
+  public static final int DEPTH = 64;
+
+  //markers the reader puts in the queue to say how the input ended
+  private static final Batch EXIT = new Batch(new Command[0], null);
+  private static final Batch END_OF_FILE = new Batch(new Command[0], null);
+  private static final Batch MORE_INPUT = new Batch(new Command[0], null);
+  private static final Batch READ_ERROR = new Batch(new Command[0], null);
+
+  /**
+   * Internal class for a group of parsed commands. If parsing a line failed,
+   * the commands hold only the lines before it.
+   */
+  private static final class Batch {
+    private final Command[] commands;
+    private final RuntimeException failure;
+
+    private Batch(Command[] commands, RuntimeException failure) {
+      this.commands = commands;
+      this.failure = failure;
+    }
+  }
+
+  /**
+   * Summary of one pipeline run.
+   */
+  public static final class Result {
+    private final long commands;
+    private final long elapsedNanos;
+    private final boolean exited;
+    private final boolean endOfFile;
+
+    private Result(long commands, long elapsedNanos, boolean exited, boolean endOfFile) {
+      this.commands = commands;
+      this.elapsedNanos = elapsedNanos;
+      this.exited = exited;
+      this.endOfFile = endOfFile;
+    }
+
+    /**
+     * Get number of commands that were run.
+     *
+     * @return number of commands
+     */
+    public long getCommands() {
+      return commands;
+    }
+
+    /**
+     * Get time taken from the first read to the last command finishing.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Get number of commands run per second.
+     *
+     * @return throughput in commands per second
+     */
+    public double getCommandsPerSecond() {
+      return elapsedNanos == 0 ? 0 : commands * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Checks whether the input contained an exit command.
+     *
+     * @return true if reading stopped at "exit"
+     */
+    public boolean isExited() {
+      return exited;
+    }
+
+    /**
+     * Checks whether the input had no lines left after reading stopped.
+     *
+     * @return true if the end of the input was reached
+     */
+    public boolean isEndOfFile() {
+      return endOfFile;
+    }
+  }
+
+  private final int parserThreads;
+
+  /**
+   * Constructor for a CommandPipeline object.
+   *
+   * @param parserThreads number of threads that parse commands
+   * @throws IllegalArgumentException if parserThreads is less than 1
+   */
+  public CommandPipeline(int parserThreads) {
+    if (parserThreads < 1) {
+      throw new IllegalArgumentException("At least one parser thread is needed.");
+    }
+    this.parserThreads = parserThreads;
+  }
+
+  /**
+   * Reads commands until a line "exit" or the end of the input, parsing them with
+   * InputParsing.parseTypedCommand and passing them to the executor in input order.
+   * Blank lines are skipped.
+   *
+   * @param reader   input with one command per line
+   * @param executor runs a command; always called from the calling thread
+   * @return summary of the run
+   * @throws IOException if the input cannot be read
+   */
+  public Result run(BufferedReader reader, Consumer<Command> executor) throws IOException {
+    long begin = System.nanoTime();
+    ExecutorService parsers = Executors.newFixedThreadPool(parserThreads);
+    BlockingQueue<Future<Batch>> pipeline = new ArrayBlockingQueue<>(DEPTH);
+    AtomicReference<IOException> readError = new AtomicReference<>();
+
+    Thread readerThread = new Thread(() -> read(reader, parsers, pipeline, readError),
+            "headless-reader");
+    readerThread.setDaemon(true);
+    readerThread.start();
+
+    long commands = 0;
+    boolean exited = false;
+    try {
+      while (true) {
+        Batch batch = await(pipeline.take());
+
+        if (batch == EXIT) {
+          exited = true;
+        } else if (batch == END_OF_FILE || batch == MORE_INPUT) {
+          return new Result(commands, System.nanoTime() - begin, exited,
+                  batch == END_OF_FILE);
+        } else if (batch == READ_ERROR) {
+          throw readError.get();
+        } else {
+          for (Command command : batch.commands) {
+            executor.accept(command);
+            commands++;
+          }
+          //fail at the same point as running the file line by line would
+          if (batch.failure != null) {
+            throw batch.failure;
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while running commands.", e);
+    } finally {
+      readerThread.interrupt();
+      parsers.shutdownNow();
+    }
+  }
+
+  // --- Helper methods ---
+
+  private static void read(BufferedReader reader, ExecutorService parsers,
+                           BlockingQueue<Future<Batch>> pipeline,
+                           AtomicReference<IOException> readError) {
+    List<String> lines = new ArrayList<>(BATCH_SIZE);
+    try {
+      String line;
+      boolean exited = false;
+
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty()) {
+          continue;
+        }
+        if (line.equals("exit")) {
+          exited = true;
+          break;
+        }
+
+        lines.add(line);
+        if (lines.size() == BATCH_SIZE) {
+          submit(parsers, pipeline, lines);
+          lines = new ArrayList<>(BATCH_SIZE);
+        }
+      }
+
+      if (!lines.isEmpty()) {
+        submit(parsers, pipeline, lines);
+        lines = new ArrayList<>();
+      }
+      if (exited) {
+        pipeline.put(CompletableFuture.completedFuture(EXIT));
+      }
+      //one more line is read so the caller can tell whether any input was left
+      pipeline.put(CompletableFuture.completedFuture(
+              reader.readLine() == null ? END_OF_FILE : MORE_INPUT));
+    } catch (IOException e) {
+      readError.set(e);
+      try {
+        //the lines read before the error still run
+        if (!lines.isEmpty()) {
+          submit(parsers, pipeline, lines);
+        }
+        pipeline.put(CompletableFuture.completedFuture(READ_ERROR));
+      } catch (InterruptedException stopped) {
+        //the run was stopped; nobody is waiting for more input
+      }
+    } catch (InterruptedException e) {
+      //the run was stopped; nobody is waiting for more input
+    }
+  }
+
+  private static void submit(ExecutorService parsers,
+                             BlockingQueue<Future<Batch>> pipeline,
+                             List<String> lines) throws InterruptedException {
+    pipeline.put(parsers.submit(() -> {
+      Command[] parsed = new Command[lines.size()];
+      for (int i = 0; i < parsed.length; i++) {
+        try {
+          parsed[i] = InputParsing.parseTypedCommand(lines.get(i));
+        } catch (RuntimeException e) {
+          return new Batch(Arrays.copyOf(parsed, i), e);
+        }
+      }
+      return new Batch(parsed, null);
+    }));
+  }
+
+  private static Batch await(Future<Batch> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
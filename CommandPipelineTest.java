@@ -0,0 +1,92 @@
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for CommandPipeline.
+ */
+public class CommandPipelineTest {
+
+  private static BufferedReader input(String text) {
+    return new BufferedReader(new StringReader(text));
+  }
+
+  @Test
+  public void testCommandsRunInFileOrder() throws IOException {
+    StringBuilder text = new StringBuilder();
+    int count = 3 * CommandPipeline.BATCH_SIZE + 17;
+    for (int i = 1; i <= count; i++) {
+      text.append("use calendar --name cal").append(i).append("\n");
+      if (i % 100 == 0) {
+        text.append("   \n");
+      }
+    }
+
+    List<String> names = new ArrayList<>();
+    CommandPipeline.Result result = new CommandPipeline(4)
+            .run(input(text.toString()),
+                    command -> names.add(((Command.UseCalendar) command).name()));
+
+    assertEquals(count, result.getCommands());
+    assertEquals(count, names.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals("cal" + (i + 1), names.get(i));
+    }
+    assertFalse(result.isExited());
+    assertTrue(result.isEndOfFile());
+  }
+
+  @Test
+  public void testParsesLikeInputParsing() throws IOException {
+    String line = "create event Lunch from 2025-06-02T12:10 to 2025-06-02T13:10";
+    List<Command> parsed = new ArrayList<>();
+
+    new CommandPipeline(2).run(input(line + "\nnot a command\n"), parsed::add);
+
+    assertEquals(2, parsed.size());
+    assertEquals(InputParsing.parseTypedCommand(line), parsed.get(0));
+    assertEquals(new Command.Invalid(), parsed.get(1));
+  }
+
+  @Test
+  public void testStopsAtExit() throws IOException {
+    List<Command> parsed = new ArrayList<>();
+
+    CommandPipeline.Result result = new CommandPipeline(2).run(
+            input("use calendar --name a\nexit\nuse calendar --name b\n"), parsed::add);
+
+    assertEquals(1, parsed.size());
+    assertTrue(result.isExited());
+    assertFalse(result.isEndOfFile());
+
+    result = new CommandPipeline(2).run(input("use calendar --name a\nexit\n"), parsed::add);
+    assertTrue(result.isExited());
+    assertTrue(result.isEndOfFile());
+  }
+
+  @Test
+  public void testFailureStopsTheRun() throws IOException {
+    List<Command> parsed = new ArrayList<>();
+
+    try {
+      new CommandPipeline(2).run(input("use calendar --name a\nuse calendar --name b\n"),
+            p -> {
+              parsed.add(p);
+              throw new IllegalStateException("boom");
+            });
+      fail("Expected the failure to reach the caller.");
+    } catch (IllegalStateException e) {
+      assertEquals("boom", e.getMessage());
+    }
+    assertEquals(1, parsed.size());
+  }
+}
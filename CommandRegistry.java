@@ -0,0 +1,61 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Class to look up the handler of a command by its type.
+ * Each Command record class is registered with the code that runs it, so a
+ * command is dispatched with one map lookup instead of a switch over codes.
+ */
+public class CommandRegistry {
+
+  private final Map<Class<? extends Command>, Consumer<Command>> handlers;
+
+  /**
+   * Constructor for an empty CommandRegistry.
+   */
+  public CommandRegistry() {
+    this.handlers = new HashMap<>();
+  }
+
+  /**
+   * Registers the handler for one type of command.
+   *
+   * @param type    command class
+   * @param handler runs a command of that class
+   * @param <C>     command class
+   * @throws IllegalArgumentException if the class already has a handler
+   */
+  public <C extends Command> void register(Class<C> type, Consumer<? super C> handler) {
+    if (handlers.containsKey(type)) {
+      throw new IllegalArgumentException("Handler already registered for "
+              + type.getSimpleName() + ".");
+    }
+    handlers.put(type, command -> handler.accept(type.cast(command)));
+  }
+
+  /**
+   * Checks whether a type of command has a handler.
+   *
+   * @param type command class
+   * @return true if a handler is registered
+   */
+  public boolean hasHandler(Class<? extends Command> type) {
+    return handlers.containsKey(type);
+  }
+
+  /**
+   * Runs a command with the handler registered for its class.
+   *
+   * @param command command to run
+   * @return true if a handler ran it, false if its class has no handler
+   */
+  public boolean dispatch(Command command) {
+    Consumer<Command> handler = handlers.get(command.getClass());
+    if (handler == null) {
+      return false;
+    }
+    handler.accept(command);
+    return true;
+  }
+}
@@ -0,0 +1,334 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class to recognize commands without creating any objects.
+ * The text is read in place: words are found as positions in the CharSequence
+ * (splitting on single spaces, like InputParsing.parseCommand), matched against a
+ * trie built from InputParsing.COMMAND_BANK by comparing characters, and dates,
+ * date-times and numbers are validated and decoded into int fields in the same
+ * pass. The result is written to a reusable ScannedCommand. A scanner keeps its
+ * working state in fields, so each thread should use its own.
+ */
+public class CommandScanner {
+
+  //number of words in the longest command
+  private static final int MAX_WORDS = maxWords();
+
+  //per-word flags, so each word is validated and decoded at most once
+  private static final int DATE_CHECKED = 1;
+  private static final int IS_DATE = 2;
+  private static final int DATE_TIME_CHECKED = 4;
+  private static final int IS_DATE_TIME = 8;
+  private static final int NUMBER_CHECKED = 16;
+  private static final int IS_NUMBER = 32;
+
+  /**
+   * Internal class for one node of the command trie. Children are kept in lists
+   * and searched by comparing characters, so matching needs no String for a word.
+   */
+  private static final class Node {
+    private final List<String> keywords = new ArrayList<>();
+    private final List<Node> keywordNodes = new ArrayList<>();
+    private final List<String> placeholders = new ArrayList<>();
+    private final List<Node> placeholderNodes = new ArrayList<>();
+
+    //command type of a command that ends at this node, or -1
+    private int type = -1;
+
+    private Node child(String word) {
+      boolean placeholder = InputParsing.PLACEHOLDERS.contains(word);
+      List<String> words = placeholder ? placeholders : keywords;
+      List<Node> nodes = placeholder ? placeholderNodes : keywordNodes;
+
+      int i = words.indexOf(word);
+      if (i >= 0) {
+        return nodes.get(i);
+      }
+      Node node = new Node();
+      words.add(word);
+      nodes.add(node);
+      return node;
+    }
+  }
+
+  private static final Node TRIE = buildTrie();
+
+  private CharSequence input;
+  private int wordCount;
+  private final int[] wordStarts = new int[MAX_WORDS];
+  private final int[] wordEnds = new int[MAX_WORDS];
+  private final int[] flags = new int[MAX_WORDS];
+
+  //decoded values of each word, valid once the matching flag is set
+  private final int[] years = new int[MAX_WORDS];
+  private final int[] months = new int[MAX_WORDS];
+  private final int[] days = new int[MAX_WORDS];
+  private final int[] hours = new int[MAX_WORDS];
+  private final int[] minutes = new int[MAX_WORDS];
+  private final int[] numbers = new int[MAX_WORDS];
+
+  /**
+   * Scans one command.
+   *
+   * @param text   the command as typed
+   * @param result where the command type and arguments are written
+   * @return true if the text was a valid command
+   */
+  public boolean scan(CharSequence text, ScannedCommand result) {
+    result.reset(text);
+    this.input = text;
+
+    if (!split()) {
+      return false;
+    }
+    for (int w = 0; w < wordCount; w++) {
+      flags[w] = 0;
+    }
+
+    int type = match(TRIE, 0);
+    if (type == -1) {
+      return false;
+    }
+
+    result.setType(type);
+    String[] pattern = InputParsing.COMMAND_BANK[type];
+    for (int w : InputParsing.ARGUMENTS[type]) {
+      addArgument(result, w, pattern[w]);
+    }
+    return true;
+  }
+
+  // --- Helper methods ---
+
+  //find the words the way String.split(" ") would; false if there are too many
+  private boolean split() {
+    int length = input.length();
+    int total = 0;
+    int kept = 0;
+    int start = 0;
+
+    for (int i = 0; i <= length; i++) {
+      if (i == length || input.charAt(i) == ' ') {
+        //empty words at the end are dropped, as split does
+        if (i > start) {
+          kept = total + 1;
+        }
+        if (total < MAX_WORDS) {
+          wordStarts[total] = start;
+          wordEnds[total] = i;
+        } else if (i > start) {
+          return false;
+        }
+        total++;
+        start = i + 1;
+      }
+    }
+
+    //an empty text is a single empty word
+    wordCount = length == 0 ? 1 : kept;
+    return true;
+  }
+
+  //no input can match two entries of COMMAND_BANK, so the first complete match is the answer
+  private int match(Node node, int w) {
+    if (w == wordCount) {
+      return node.type;
+    }
+
+    for (int i = 0; i < node.keywords.size(); i++) {
+      if (wordEquals(w, node.keywords.get(i))) {
+        int type = match(node.keywordNodes.get(i), w + 1);
+        if (type != -1) {
+          return type;
+        }
+        break;
+      }
+    }
+
+    for (int i = 0; i < node.placeholders.size(); i++) {
+      if (fits(node.placeholders.get(i), w)) {
+        int type = match(node.placeholderNodes.get(i), w + 1);
+        if (type != -1) {
+          return type;
+        }
+      }
+    }
+
+    return -1;
+  }
+
+  //whether a word can stand in the place of a placeholder
+  private boolean fits(String placeholder, int w) {
+    if (wordEquals(w, placeholder)) {
+      return true;
+    }
+
+    switch (placeholder) {
+      case "p":
+        return wordIn(w, InputParsing.P_BANK);
+      case "w":
+        return wordIn(w, InputParsing.W_BANK);
+      case "pn":
+        return wordIn(w, InputParsing.C_PROP_BANK);
+      case "n":
+        return isNumber(w);
+      case "d":
+        return isDate(w);
+      case "dt":
+        return isDateTime(w);
+      default:
+        return true;
+    }
+  }
+
+  private void addArgument(ScannedCommand result, int w, String placeholder) {
+    ScannedCommand.Kind kind = ScannedCommand.Kind.TEXT;
+    if (placeholder.equals("d") && (flags[w] & IS_DATE) != 0) {
+      kind = ScannedCommand.Kind.DATE;
+    } else if (placeholder.equals("dt") && (flags[w] & IS_DATE_TIME) != 0) {
+      kind = ScannedCommand.Kind.DATE_TIME;
+    } else if (placeholder.equals("n") && (flags[w] & IS_NUMBER) != 0) {
+      kind = ScannedCommand.Kind.NUMBER;
+    }
+
+    int i = result.addArgument(wordStarts[w], wordEnds[w], kind);
+    if (kind == ScannedCommand.Kind.DATE || kind == ScannedCommand.Kind.DATE_TIME) {
+      result.setDate(i, years[w], months[w], days[w]);
+    }
+    if (kind == ScannedCommand.Kind.DATE_TIME) {
+      result.setTime(i, hours[w], minutes[w]);
+    }
+    if (kind == ScannedCommand.Kind.NUMBER) {
+      result.setNumber(i, numbers[w]);
+    }
+  }
+
+  private boolean wordEquals(int w, String text) {
+    int start = wordStarts[w];
+    if (wordEnds[w] - start != text.length()) {
+      return false;
+    }
+    for (int k = 0; k < text.length(); k++) {
+      if (input.charAt(start + k) != text.charAt(k)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean wordIn(int w, String[] bank) {
+    for (String text : bank) {
+      if (wordEquals(w, text)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  //a positive int, which may start with '+'
+  private boolean isNumber(int w) {
+    if ((flags[w] & NUMBER_CHECKED) == 0) {
+      numbers[w] = positive(wordStarts[w], wordEnds[w]);
+      flags[w] |= NUMBER_CHECKED | (numbers[w] > 0 ? IS_NUMBER : 0);
+    }
+    return (flags[w] & IS_NUMBER) != 0;
+  }
+
+  //yyyy-MM-dd with positive numbers, a month up to 12 and a day in the month; the 29th of
+  //February only when the year divides by 4 but not by 100
+  private boolean isDate(int w) {
+    if ((flags[w] & DATE_CHECKED) == 0) {
+      boolean valid = wordEnds[w] - wordStarts[w] == 10 && startsWithDate(w);
+      flags[w] |= DATE_CHECKED | (valid ? IS_DATE : 0);
+    }
+    return (flags[w] & IS_DATE) != 0;
+  }
+
+  //a date followed by Thh:mm, with an hour from 1 to 24 and a minute from 1 to 60
+  private boolean isDateTime(int w) {
+    if ((flags[w] & DATE_TIME_CHECKED) == 0) {
+      int start = wordStarts[w];
+      boolean valid = wordEnds[w] - start >= 16
+              && startsWithDate(w)
+              && input.charAt(start + 10) == 'T'
+              && input.charAt(start + 13) == ':';
+      if (valid) {
+        hours[w] = positive(start + 11, start + 13);
+        minutes[w] = positive(start + 14, start + 16);
+        valid = hours[w] > 0 && hours[w] < 25 && minutes[w] > 0 && minutes[w] < 61;
+      }
+      flags[w] |= DATE_TIME_CHECKED | (valid ? IS_DATE_TIME : 0);
+    }
+    return (flags[w] & IS_DATE_TIME) != 0;
+  }
+
+  //decode the date at the start of a word (at least 10 characters long)
+  private boolean startsWithDate(int w) {
+    int start = wordStarts[w];
+    if (input.charAt(start + 4) != '-' || input.charAt(start + 7) != '-') {
+      return false;
+    }
+
+    int year = positive(start, start + 4);
+    int month = positive(start + 5, start + 7);
+    int day = positive(start + 8, start + 10);
+    if (year <= 0 || month <= 0 || month > 12 || day <= 0) {
+      return false;
+    }
+
+    years[w] = year;
+    months[w] = month;
+    days[w] = day;
+    if (month == 2 && year % 4 == 0 && year % 100 != 0) {
+      return day <= 29;
+    }
+    return day <= InputParsing.DAYS_IN_MONTH[month - 1];
+  }
+
+  //value of Integer.parseInt on input[from, to) if it parses to a positive number, otherwise -1
+  private int positive(int from, int to) {
+    if (from < to && input.charAt(from) == '+') {
+      from++;
+    }
+    if (from >= to) {
+      return -1;
+    }
+
+    long value = 0;
+    for (int i = from; i < to; i++) {
+      int digit = Character.digit(input.charAt(i), 10);
+      if (digit < 0) {
+        return -1;
+      }
+      value = value * 10 + digit;
+      if (value > Integer.MAX_VALUE) {
+        return -1;
+      }
+    }
+
+    return value > 0 ? (int) value : -1;
+  }
+
+  private static Node buildTrie() {
+    Node root = new Node();
+
+    for (int i = 0; i < InputParsing.COMMAND_BANK.length; i++) {
+      Node node = root;
+      for (String word : InputParsing.COMMAND_BANK[i]) {
+        node = node.child(word);
+      }
+      node.type = i;
+    }
+
+    return root;
+  }
+
+  private static int maxWords() {
+    int max = 0;
+    for (String[] pattern : InputParsing.COMMAND_BANK) {
+      max = Math.max(max, pattern.length);
+    }
+    return max;
+  }
+}
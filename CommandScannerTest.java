@@ -0,0 +1,147 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for CommandScanner and ScannedCommand.
+ */
+public class CommandScannerTest {
+
+  private CommandScanner scanner;
+  private ScannedCommand command;
+
+  @Before
+  public void setUp() {
+    scanner = new CommandScanner();
+    command = new ScannedCommand();
+  }
+
+  @Test
+  public void testDecodesFields() {
+    assertTrue(scanner.scan("create event Gym from 2024-02-29T07:45 to 2024-02-29T08:30"
+            + " repeats R for 12 times", command));
+
+    assertEquals(4, command.getType());
+    assertEquals(5, command.getArgumentCount());
+    assertEquals("Gym", command.getArgument(0));
+    assertEquals(ScannedCommand.Kind.DATE_TIME, command.getKind(1));
+    assertEquals(2024, command.getYear(1));
+    assertEquals(2, command.getMonth(1));
+    assertEquals(29, command.getDay(1));
+    assertEquals(7, command.getHour(1));
+    assertEquals(45, command.getMinute(1));
+    assertEquals(LocalDateTime.of(2024, 2, 29, 8, 30), command.getDateTime(2));
+    assertEquals(ScannedCommand.Kind.TEXT, command.getKind(3));
+    assertTrue(command.argumentEquals(3, "R"));
+    assertEquals(ScannedCommand.Kind.NUMBER, command.getKind(4));
+    assertEquals(12, command.getNumber(4));
+
+    assertTrue(scanner.scan("copy events on 2025-06-05 --target Home to 2025-07-01", command));
+    assertEquals(19, command.getType());
+    assertEquals(LocalDate.of(2025, 7, 1), command.getDate(2));
+  }
+
+  @Test
+  public void testInvalidCommands() {
+    assertFalse(scanner.scan("create event Gym from 2025-06-05T00:30 to 2025-06-05T08:30",
+            command));
+    assertEquals(-1, command.getType());
+    assertArrayEquals(new String[]{"-1"}, command.toParsedArray());
+
+    assertFalse(scanner.scan("", command));
+    assertFalse(scanner.scan("   ", command));
+    assertFalse(scanner.scan("use calendar --name a b c d e f g h i j k l m", command));
+    assertTrue(scanner.scan("exit   ", command));
+    assertFalse(scanner.scan(" exit", command));
+  }
+
+  @Test
+  public void testMatchesSplitAndCommandType() {
+    String[] words = {
+        "", "create", "event", "events", "edit", "series", "copy", "use", "print", "show",
+        "calendar", "status", "on", "from", "to", "with", "repeats", "for", "times",
+        "until", "between", "and", "--name", "--target", "--property", "--timezone",
+        "d", "dt", "p", "n", "w", "start", "location", "name", "timezone", "M", "U", "x",
+        "0", "+7", "12", "2147483648", "\\u0661\\u0662", "2024-02-29", "2100-02-29",
+        "2025-06-05", "2025-13-01", "+025-06-05", "2025-06-05T14:15", "2025-06-05T00:15",
+        "2025-06-05T24:60", "2025-06-05T14:15:30", "2025-06-05T14", "exit"
+    };
+    String[] valid = {
+        "create event a from 2025-06-05T14:15 to 2025-06-05T15:15 repeats F for 6 times",
+        "create event a on 2025-06-06 repeats S until 2025-06-28",
+        "edit event start a from 2025-06-05T14:15 to 2025-06-05T15:15 with 2025-06-05T16:15",
+        "edit series status a from 2025-06-05T14:15 with private",
+        "print events from 2025-06-05T14:15 to 2025-06-06T15:15",
+        "edit calendar --name a --property name b",
+        "copy events between 2025-06-05 and 2025-06-08 --target b to 2025-06-28"
+    };
+
+    Random random = new Random(7);
+    for (int i = 0; i < 20000; i++) {
+      String[] base = valid[random.nextInt(valid.length)].split(" ");
+      StringBuilder text = new StringBuilder();
+      for (int j = 0; j < base.length; j++) {
+        if (j > 0) {
+          text.append(random.nextInt(20) == 0 ? "  " : " ");
+        }
+        text.append(random.nextInt(6) == 0 ? words[random.nextInt(words.length)] : base[j]);
+      }
+      if (random.nextInt(10) == 0) {
+        text.append(random.nextBoolean() ? " " : " " + words[random.nextInt(words.length)]);
+      }
+
+      String input = text.toString();
+      String[] split = input.split(" ");
+      int expected = InputParsing.commandType(split);
+      assertEquals(input, expected != -1, scanner.scan(input, command));
+      assertEquals(input, expected, command.getType());
+
+      int[] arguments = expected == -1 ? new int[0] : InputParsing.ARGUMENTS[expected];
+      String[] parsed = new String[arguments.length + 1];
+      parsed[0] = String.valueOf(expected);
+      for (int j = 0; j < arguments.length; j++) {
+        parsed[j + 1] = split[arguments[j]];
+      }
+      assertArrayEquals(input, parsed, command.toParsedArray());
+    }
+  }
+
+  @Test
+  public void testScanDoesNotAllocate() {
+    com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    String[] inputs = {
+        "create event Standup from 2025-06-02T09:15 to 2025-06-02T09:30 repeats M for 10 times",
+        "edit series location Standup from 2025-06-02T09:15 with Room 101",
+        "copy events between 2025-06-05 and 2025-06-08 --target Home to 2025-06-28",
+        "not a command"
+    };
+
+    int sum = 0;
+    for (int i = 0; i < 20000; i++) {
+      scanner.scan(inputs[i % inputs.length], command);
+      sum += command.getArgumentCount();
+    }
+
+    long before = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < 10000; i++) {
+      scanner.scan(inputs[i % inputs.length], command);
+      sum += command.getArgumentCount();
+    }
+    long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+    assertTrue(sum > 0);
+    //a single String or array per scan would already be hundreds of kilobytes
+    assertTrue("allocated " + allocated + " bytes", allocated < 16 * 1024);
+  }
+}
@@ -0,0 +1,105 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for Command and CommandRegistry.
+ */
+public class CommandTest {
+
+  private static final String[] COMMANDS = {
+      "create event Standup from 2025-06-02T09:15 to 2025-06-02T09:30 repeats M for 10 times",
+      "create event Lunch from 2025-06-02T12:10 to 2025-06-02T13:10",
+      "create event Trip on 2025-06-06 repeats S until 2025-06-28",
+      "edit event location Lunch from 2025-06-02T12:10 to 2025-06-02T13:10 with Cafe",
+      "edit series status Standup from 2025-06-02T09:15 with private",
+      "print events on 2025-06-02",
+      "show status on 2025-06-02T12:30",
+      "edit calendar --name Work --property timezone Europe/Paris",
+      "copy events between 2025-06-05 and 2025-06-08 --target Home to 2025-06-28",
+      "list",
+      "not a command"
+  };
+
+  @Test
+  public void testTypedArguments() {
+    assertEquals(new Command.CreateSeries("Standup", LocalDateTime.of(2025, 6, 2, 9, 15),
+                    LocalDateTime.of(2025, 6, 2, 9, 30), "M", 10),
+            InputParsing.parseTypedCommand(COMMANDS[0]));
+    assertEquals(new Command.EditEvent("location", "Lunch",
+                    LocalDateTime.of(2025, 6, 2, 12, 10), LocalDateTime.of(2025, 6, 2, 13, 10),
+                    "Cafe"),
+            InputParsing.parseTypedCommand(COMMANDS[3]));
+    assertEquals(new Command.CopyEventsBetween(LocalDate.of(2025, 6, 5),
+                    LocalDate.of(2025, 6, 8), "Home", LocalDate.of(2025, 6, 28)),
+            InputParsing.parseTypedCommand(COMMANDS[8]));
+    assertEquals(new Command.Unsupported(1), InputParsing.parseTypedCommand("list"));
+
+    for (String text : COMMANDS) {
+      assertEquals(text, InputParsing.parseCommand(text)[0],
+              String.valueOf(InputParsing.parseTypedCommand(text).getType()));
+    }
+    assertFalse(new Command.ShowStatus(LocalDateTime.of(2025, 6, 2, 9, 0)).changesCalendars());
+    assertTrue(new Command.UseCalendar("Work").changesCalendars());
+  }
+
+  @Test
+  public void testValuesThatCannotBeMadeAreInvalid() {
+    //placeholders typed literally and the hour 24 pass the text checks
+    assertEquals(new Command.Invalid(),
+            InputParsing.parseTypedCommand("create event a from dt to dt"));
+    assertEquals(new Command.Invalid(),
+            InputParsing.parseTypedCommand("create event a on d repeats M for n times"));
+    assertEquals(new Command.Invalid(),
+            InputParsing.parseTypedCommand("show status on 2025-06-02T24:10"));
+  }
+
+  @Test
+  public void testWriteAndReadBack() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    List<Command> written = new ArrayList<>();
+    for (String text : COMMANDS) {
+      Command command = InputParsing.parseTypedCommand(text);
+      written.add(command);
+      Command.write(command, out);
+    }
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    for (Command command : written) {
+      assertEquals(command, Command.read(in));
+    }
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testRegistryDispatchesByClass() {
+    List<String> ran = new ArrayList<>();
+    CommandRegistry registry = new CommandRegistry();
+    registry.register(Command.UseCalendar.class, command -> ran.add(command.name()));
+
+    assertTrue(registry.dispatch(new Command.UseCalendar("Work")));
+    assertFalse(registry.dispatch(new Command.Invalid()));
+    assertEquals(List.of("Work"), ran);
+    assertTrue(registry.hasHandler(Command.UseCalendar.class));
+
+    try {
+      registry.register(Command.UseCalendar.class, command -> { });
+      throw new AssertionError("Expected a second handler to be refused.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Handler already registered for UseCalendar.", e.getMessage());
+    }
+  }
+}
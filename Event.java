@@ -1,4 +1,5 @@
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
 /**
@@ -9,15 +10,26 @@ import java.util.UUID;
  * An event can also span multiple days.
  * This class uses the builder pattern design so any specific part of an
  * event can be updated one-by-one.
+ *
+ * <p>Start and end are kept as wall-clock seconds: the number of seconds from
+ * 1970-01-01T00:00 to the time as shown on the calendar, with no time zone
+ * applied. Comparing and sorting events is then plain long arithmetic, and a
+ * calendar's time zone is only needed when converting between calendars.
+ * Times are kept to the second.
  */
 public class Event {
 
+  /**
+   * Value of getStartSecond or getEndSecond for a missing time.
+   */
+  public static final long NO_TIME = Long.MIN_VALUE;
+
   //MAKE PRIVATE
   private String subject;
-  private LocalDateTime start;
+  private long start;
 
   private String description;
-  private LocalDateTime end;
+  private long end;
   private String location;
   private String status;
 
@@ -40,9 +52,9 @@ public class Event {
   public Event(String subject, LocalDateTime start, String description,
                LocalDateTime end, String location, String status, UUID identifier) {
     this.subject = subject;
-    this.start = start;
+    this.start = toSecond(start);
     this.description = description;
-    this.end = end;
+    this.end = toSecond(end);
     this.location = location;
     this.status = status;
     this.identifier = identifier;
@@ -168,7 +180,7 @@ public class Event {
    * @return start time
    */
   public LocalDateTime getStart() {
-    return start;
+    return toDateTime(start);
   }
 
   /**
@@ -177,9 +189,47 @@ public class Event {
    * @return end time
    */
   public LocalDateTime getEnd() {
+    return toDateTime(end);
+  }
+
+  /**
+   * Get start time of event as wall-clock seconds.
+   *
+   * @return start time, or NO_TIME if there is none
+   */
+  public long getStartSecond() {
+    return start;
+  }
+
+  /**
+   * Get end time of event as wall-clock seconds.
+   *
+   * @return end time, or NO_TIME if there is none
+   */
+  public long getEndSecond() {
     return end;
   }
 
+  /**
+   * Converts a date and time to wall-clock seconds, dropping any fraction of a second.
+   *
+   * @param dateTime to convert; may be null
+   * @return seconds since 1970-01-01T00:00, or NO_TIME for null
+   */
+  public static long toSecond(LocalDateTime dateTime) {
+    return dateTime == null ? NO_TIME : dateTime.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  /**
+   * Converts wall-clock seconds back to a date and time.
+   *
+   * @param second seconds since 1970-01-01T00:00, or NO_TIME
+   * @return the date and time, or null for NO_TIME
+   */
+  public static LocalDateTime toDateTime(long second) {
+    return second == NO_TIME ? null : LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC);
+  }
+
   /**
    * Get subject of event.
    *
@@ -0,0 +1,295 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Stored events that a calendar keeps in an EventStore instead of on the heap,
+ * such as the events of the snapshot it was loaded from. The store itself is
+ * never changed: an event that is edited is only marked as removed here, and
+ * its new version is kept on the heap like an event added later. Every
+ * instance is immutable, so a calendar publishes it with the rest of its
+ * snapshot and readers can query it without a lock.
+ *
+ * <p>The queries follow EventIntervalTree.View, so the calendar can merge both
+ * results by start time. They run on the binary searches of EventStore and only
+ * build an Event for the rows they return.
+ */
+final class EventArchive {
+
+  /**
+   * Archive of a calendar that keeps all of its events on the heap.
+   */
+  static final EventArchive EMPTY = new EventArchive(new ColumnarEventStore());
+
+  private final EventStore store;
+  //rows that are no longer in the calendar, in ascending order
+  private final int[] removed;
+
+  /**
+   * Constructor for an archive holding every row of the given store. The store
+   * must not be changed afterwards.
+   *
+   * @param store rows of the archive
+   */
+  EventArchive(EventStore store) {
+    this(store, new int[0]);
+  }
+
+  private EventArchive(EventStore store, int[] removed) {
+    this.store = store;
+    this.removed = removed;
+  }
+
+  /**
+   * Returns the number of events still in the calendar.
+   *
+   * @return rows of the store less the removed ones
+   */
+  int size() {
+    return store.size() - removed.length;
+  }
+
+  /**
+   * Returns this archive with one more row removed.
+   *
+   * @param row row of the store
+   * @return archive without that row
+   */
+  EventArchive without(int row) {
+    int at = Arrays.binarySearch(removed, row);
+    if (at >= 0) {
+      return this;
+    }
+
+    int insert = -at - 1;
+    int[] next = new int[removed.length + 1];
+    System.arraycopy(removed, 0, next, 0, insert);
+    next[insert] = row;
+    System.arraycopy(removed, insert, next, insert + 1, removed.length - insert);
+    return new EventArchive(store, next);
+  }
+
+  /**
+   * Builds the event at a row, or returns null if it was removed.
+   *
+   * @param row row of the store
+   * @return the event, or null
+   */
+  Event event(int row) {
+    return isRemoved(row) ? null : store.event(row);
+  }
+
+  /**
+   * Returns the row holding an event equal in every field to the given one.
+   *
+   * @param e event to look for, such as one returned by a query of this archive
+   * @return first matching row that is not removed, or -1 if there is none
+   */
+  int rowOf(Event e) {
+    long start = e.getStartSecond();
+    int stop = store.countStartingBefore(start + 1);
+    for (int row = store.countStartingBefore(start); row < stop; row++) {
+      if (!isRemoved(row) && store.getEndSecond(row) == e.getEndSecond()
+              && store.subjectEquals(row, e.getSubject())
+              && store.identifierEquals(row, e.getIdentifier())
+              && sameDetails(store.event(row), e)) {
+        return row;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Checks whether an event with the given subject, start and end is in the
+   * archive, as the duplicate check of a calendar does.
+   *
+   * @param subject of the event
+   * @param start   start second of the event
+   * @param end     end second of the event
+   * @return true if such an event is there
+   */
+  boolean hasEvent(String subject, long start, long end) {
+    int stop = store.countStartingBefore(start + 1);
+    for (int row = store.countStartingBefore(start); row < stop; row++) {
+      if (!isRemoved(row) && store.getEndSecond(row) == end
+              && store.subjectEquals(row, subject)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the events with the given series identifier, ordered by start time.
+   * Compares the identifier column of every row, without building the others.
+   *
+   * @param identifier of the series
+   * @return list of its events in the archive
+   */
+  List<Event> withIdentifier(UUID identifier) {
+    List<Event> result = new ArrayList<>();
+    for (int row = 0; row < store.size(); row++) {
+      if (store.identifierEquals(row, identifier) && !isRemoved(row)) {
+        result.add(store.event(row));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns all events, ordered by start time.
+   *
+   * @return list of the events
+   */
+  List<Event> toList() {
+    List<Event> result = new ArrayList<>(size());
+    iterator().forEachRemaining(result::add);
+    return result;
+  }
+
+  /**
+   * Returns the events one by one, ordered by start time, building each only
+   * when it is reached.
+   *
+   * @return iterator over the events
+   */
+  Iterator<Event> iterator() {
+    return new Iterator<>() {
+      private int row = skipRemoved(0);
+
+      @Override
+      public boolean hasNext() {
+        return row < store.size();
+      }
+
+      @Override
+      public Event next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Event e = store.event(row);
+        row = skipRemoved(row + 1);
+        return e;
+      }
+    };
+  }
+
+  /**
+   * Returns the events that overlap the given range (inclusive), ordered by start time.
+   *
+   * @param from start of the time range, in wall-clock seconds
+   * @param to   end of the time range, in wall-clock seconds
+   * @return list of events that overlap with the range
+   */
+  List<Event> overlapping(long from, long to) {
+    List<Event> result = new ArrayList<>();
+    int stop = store.countStartingBefore(to == Long.MAX_VALUE ? to : to + 1);
+    for (int row = store.firstReaching(from); row < stop; row++) {
+      if (endOrStart(row) >= from && !isRemoved(row)) {
+        result.add(store.event(row));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the first events that start at or after the given moment, ordered by
+   * start time.
+   *
+   * @param from  earliest start time, in wall-clock seconds
+   * @param limit largest number of events to return
+   * @return at most limit events starting at or after from
+   */
+  List<Event> startingFrom(long from, int limit) {
+    List<Event> result = new ArrayList<>();
+    for (int row = store.countStartingBefore(from);
+         row < store.size() && result.size() < limit; row++) {
+      if (!isRemoved(row)) {
+        result.add(store.event(row));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the last events that start strictly before the given moment, ordered
+   * by start time.
+   *
+   * @param to    moment the events start before, in wall-clock seconds
+   * @param limit largest number of events to return
+   * @return at most limit events starting before to
+   */
+  List<Event> startingBefore(long to, int limit) {
+    List<Event> result = new ArrayList<>();
+    for (int row = store.countStartingBefore(to) - 1; row >= 0 && result.size() < limit; row--) {
+      if (!isRemoved(row)) {
+        result.add(store.event(row));
+      }
+    }
+    Collections.reverse(result);
+    return result;
+  }
+
+  /**
+   * Counts the events that start strictly before the given moment. Runs in O(log n).
+   *
+   * @param to moment the events start before, in wall-clock seconds
+   * @return number of events starting before to
+   */
+  long countStartingBefore(long to) {
+    int rows = store.countStartingBefore(to);
+    int at = Arrays.binarySearch(removed, rows);
+    return rows - (at >= 0 ? at : -at - 1);
+  }
+
+  /**
+   * Checks whether any event is active at the given moment, meaning it starts at
+   * or before that moment and ends strictly after it.
+   *
+   * @param second the specific moment to check, in wall-clock seconds
+   * @return true if an event overlaps with the given time
+   */
+  boolean containsPoint(long second) {
+    if (second == Long.MAX_VALUE) {
+      return false;
+    }
+
+    int stop = store.countStartingBefore(second + 1);
+    for (int row = store.firstReaching(second + 1); row < stop; row++) {
+      if (endOrStart(row) > second && !isRemoved(row)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // --- Helper methods ---
+
+  private boolean isRemoved(int row) {
+    return removed.length > 0 && Arrays.binarySearch(removed, row) >= 0;
+  }
+
+  //first row at or after the given one that is not removed
+  private int skipRemoved(int row) {
+    while (row < store.size() && isRemoved(row)) {
+      row++;
+    }
+    return row;
+  }
+
+  private long endOrStart(int row) {
+    return EventRows.endOrStart(store.getStartSecond(row), store.getEndSecond(row));
+  }
+
+  //the fields rowOf has not compared through the store's columns yet
+  private static boolean sameDetails(Event a, Event b) {
+    return Objects.equals(a.getDescription(), b.getDescription())
+            && Objects.equals(a.getLocation(), b.getLocation())
+            && Objects.equals(a.getStatus(), b.getStatus());
+  }
+}
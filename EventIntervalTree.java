@@ -0,0 +1,526 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Augmented interval tree used to index calendar events by time.
+ * Events are kept in a balanced (AVL) binary search tree ordered by start time,
+ * and every node also remembers the latest end time found in its subtree.
+ * This lets a range query skip whole subtrees that end before the range begins,
+ * so a query runs in O(log n + k) where k is the number of matching events.
+ * Nodes also count the events below them, so the events starting before a
+ * moment can be counted in O(log n) without visiting them. An event can be
+ * given a weight to count as several, such as the span of a recurring series
+ * counting as its number of occurrences; weights and counts are longs, as a few
+ * hundred series running for centuries have more occurrences than an int holds.
+ * Nodes are never changed once built: an update copies only the path from the
+ * root to the changed node, so earlier versions of the tree stay valid and can
+ * be read through a View while the tree keeps changing.
+ * Times are compared as the wall-clock seconds of Event.getStartSecond, so
+ * walking the tree never builds or compares LocalDateTime objects.
+ */
+public class EventIntervalTree {
+
+  /**
+   * Internal class representing a single (immutable) node of the tree.
+   */
+  private static class Node {
+    private final Event event;
+    private final long start;
+    private final long end;
+    private final long seq;
+    private final long weight;
+
+    private final long maxEnd;
+    private final int height;
+    //total weight of the events in this subtree, for counting by start time
+    private final long count;
+    private final Node left;
+    private final Node right;
+
+    private Node(Event event, long start, long end, long seq, long weight,
+                 Node left, Node right) {
+      this.event = event;
+      this.start = start;
+      this.end = end;
+      this.seq = seq;
+      this.weight = weight;
+      this.left = left;
+      this.right = right;
+      this.height = 1 + Math.max(height(left), height(right));
+      this.count = weight + count(left) + count(right);
+
+      long max = end;
+      if (left != null) {
+        max = Math.max(max, left.maxEnd);
+      }
+      if (right != null) {
+        max = Math.max(max, right.maxEnd);
+      }
+      this.maxEnd = max;
+    }
+
+    //copy of this node with other children
+    private Node with(Node left, Node right) {
+      return new Node(event, start, end, seq, weight, left, right);
+    }
+  }
+
+  /**
+   * Read-only version of the tree at one point in time. A view never changes,
+   * so it can be read from any thread without locking.
+   */
+  public static final class View {
+    private final Node root;
+    private final int size;
+
+    private View(Node root, int size) {
+      this.root = root;
+      this.size = size;
+    }
+
+    /**
+     * Returns the number of events in this view.
+     *
+     * @return number of indexed events
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Returns all events in this view, ordered by start time.
+     *
+     * @return list of all events
+     */
+    public List<Event> toList() {
+      List<Event> result = new ArrayList<>(size);
+      collectAll(root, result);
+      return result;
+    }
+
+    /**
+     * Returns all events that overlap the given range (inclusive), ordered by start time.
+     *
+     * @param from start of the time range
+     * @param to   end of the time range
+     * @return list of events that overlap with the given time range
+     */
+    public List<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+      return overlapping(ceilSecond(from), Event.toSecond(to));
+    }
+
+    /**
+     * Returns all events that overlap the given range (inclusive), ordered by start time.
+     *
+     * @param from start of the time range, in wall-clock seconds
+     * @param to   end of the time range, in wall-clock seconds
+     * @return list of events that overlap with the given time range
+     */
+    public List<Event> overlapping(long from, long to) {
+      List<Event> result = new ArrayList<>();
+      collectOverlapping(root, from, to, result);
+      return result;
+    }
+
+    /**
+     * Returns the first events that start at or after the given moment, ordered
+     * by start time. Skips every subtree that starts too early and stops after
+     * the limit, so it runs in O(log n + limit).
+     *
+     * @param from  earliest start time
+     * @param limit largest number of events to return
+     * @return at most limit events starting at or after from
+     */
+    public List<Event> startingFrom(LocalDateTime from, int limit) {
+      return startingFrom(ceilSecond(from), limit);
+    }
+
+    /**
+     * Returns the first events that start at or after the given moment, ordered
+     * by start time.
+     *
+     * @param from  earliest start time, in wall-clock seconds
+     * @param limit largest number of events to return
+     * @return at most limit events starting at or after from
+     */
+    public List<Event> startingFrom(long from, int limit) {
+      List<Event> result = new ArrayList<>(Math.min(limit, size));
+      collectStartingFrom(root, from, limit, result);
+      return result;
+    }
+
+    /**
+     * Returns the last events that start strictly before the given moment, ordered
+     * by start time. Walks the tree from the right, so it runs in O(log n + limit).
+     *
+     * @param to    moment the events start before, in wall-clock seconds
+     * @param limit largest number of events to return
+     * @return at most limit events starting before to
+     */
+    public List<Event> startingBefore(long to, int limit) {
+      List<Event> result = new ArrayList<>(Math.min(limit, size));
+      collectStartingBefore(root, to, limit, result);
+      Collections.reverse(result);
+      return result;
+    }
+
+    /**
+     * Counts the events that start strictly before the given moment, each as
+     * many times as its weight. Follows a single path from the root, so it runs
+     * in O(log n).
+     *
+     * @param to moment the events start before, in wall-clock seconds
+     * @return total weight of the events starting before to
+     */
+    public long countStartingBefore(long to) {
+      long result = 0;
+      Node node = root;
+
+      while (node != null) {
+        if (node.start < to) {
+          result += count(node.left) + node.weight;
+          node = node.right;
+        } else {
+          node = node.left;
+        }
+      }
+
+      return result;
+    }
+
+    /**
+     * Checks whether any event is active at the given moment, meaning it starts at
+     * or before that moment and ends strictly after it. Follows a single path
+     * from the root, so it runs in O(log n).
+     *
+     * @param dateTime the specific moment to check
+     * @return true if an event overlaps with the given time
+     */
+    public boolean containsPoint(LocalDateTime dateTime) {
+      //whole seconds on both sides, so a moment inside a second behaves like its start
+      return containsPoint(Event.toSecond(dateTime));
+    }
+
+    /**
+     * Checks whether any event is active at the given moment, meaning it starts at
+     * or before that moment and ends strictly after it.
+     *
+     * @param second the specific moment to check, in wall-clock seconds
+     * @return true if an event overlaps with the given time
+     */
+    public boolean containsPoint(long second) {
+      Node node = root;
+
+      while (node != null && node.maxEnd > second) {
+        if (node.start <= second && node.end > second) {
+          return true;
+        }
+
+        //if anything on the left ends after the moment, an answer exists on the left
+        //or nowhere, since everything further right starts even later
+        if (node.left != null && node.left.maxEnd > second) {
+          node = node.left;
+        } else if (node.start > second) {
+          return false;
+        } else {
+          node = node.right;
+        }
+      }
+
+      return false;
+    }
+  }
+
+  private Node root;
+  private long nextSeq;
+
+  //sequence number of every indexed event; breaks ties between equal start times
+  private final Map<Event, Long> seqs;
+
+  /**
+   * Constructor for an empty EventIntervalTree.
+   */
+  public EventIntervalTree() {
+    this.root = null;
+    this.nextSeq = 0;
+    this.seqs = new IdentityHashMap<>();
+  }
+
+  /**
+   * Returns a read-only view of the tree as it is now.
+   *
+   * @return view that is not affected by later changes
+   */
+  public View view() {
+    return new View(root, seqs.size());
+  }
+
+  /**
+   * Returns the number of events in the tree.
+   *
+   * @return number of indexed events
+   */
+  public int size() {
+    return seqs.size();
+  }
+
+  /**
+   * Checks whether the given event is in the tree.
+   *
+   * @param event to look for
+   * @return true if this exact event is indexed
+   */
+  public boolean contains(Event event) {
+    return seqs.containsKey(event);
+  }
+
+  /**
+   * Adds an event to the tree.
+   *
+   * @param event to be indexed
+   * @throws IllegalArgumentException if the event is already indexed
+   */
+  public void insert(Event event) {
+    insert(event, 1);
+  }
+
+  /**
+   * Adds an event to the tree that counts as the given number of events in
+   * countStartingBefore.
+   *
+   * @param event  to be indexed
+   * @param weight number of events it counts as
+   * @throws IllegalArgumentException if the event is already indexed or the
+   *                                  weight is negative
+   */
+  public void insert(Event event, long weight) {
+    if (weight < 0) {
+      throw new IllegalArgumentException("Weight cannot be negative.");
+    }
+    if (seqs.containsKey(event)) {
+      throw new IllegalArgumentException("Event is already indexed.");
+    }
+
+    long seq = nextSeq++;
+    seqs.put(event, seq);
+    //an event without an end time is treated as a single point in time
+    long start = event.getStartSecond();
+    long end = event.getEndSecond() != Event.NO_TIME ? event.getEndSecond() : start;
+    root = insert(root, new Node(event, start, end, seq, weight, null, null));
+  }
+
+  /**
+   * Removes an event from the tree.
+   *
+   * @param event to be removed
+   * @return true if the event was in the tree
+   */
+  public boolean remove(Event event) {
+    Long seq = seqs.remove(event);
+    if (seq == null) {
+      return false;
+    }
+
+    root = remove(root, event.getStartSecond(), seq);
+    return true;
+  }
+
+  /**
+   * Returns all events that overlap the given range (inclusive), ordered by start time.
+   *
+   * @param from start of the time range
+   * @param to   end of the time range
+   * @return list of events that overlap with the given time range
+   */
+  public List<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+    return view().overlapping(from, to);
+  }
+
+  /**
+   * Checks whether any event is active at the given moment, meaning it starts at
+   * or before that moment and ends strictly after it.
+   *
+   * @param dateTime the specific moment to check
+   * @return true if an event overlaps with the given time
+   */
+  public boolean containsPoint(LocalDateTime dateTime) {
+    return view().containsPoint(dateTime);
+  }
+
+  /**
+   * Returns the first events that start at or after the given moment, ordered
+   * by start time.
+   *
+   * @param from  earliest start time
+   * @param limit largest number of events to return
+   * @return at most limit events starting at or after from
+   */
+  public List<Event> startingFrom(LocalDateTime from, int limit) {
+    return view().startingFrom(from, limit);
+  }
+
+  // --- Helper methods ---
+
+  //a range starting part-way into a second only reaches events ending at the next one
+  private static long ceilSecond(LocalDateTime dateTime) {
+    long second = Event.toSecond(dateTime);
+    return dateTime.getNano() > 0 ? second + 1 : second;
+  }
+
+  private static void collectAll(Node node, List<Event> result) {
+    if (node == null) {
+      return;
+    }
+    collectAll(node.left, result);
+    result.add(node.event);
+    collectAll(node.right, result);
+  }
+
+  private static void collectOverlapping(Node node, long from, long to, List<Event> result) {
+    //nothing in this subtree ends at or after the start of the range
+    if (node == null || node.maxEnd < from) {
+      return;
+    }
+
+    collectOverlapping(node.left, from, to, result);
+
+    //this node and everything to its right starts after the range
+    if (node.start > to) {
+      return;
+    }
+
+    if (node.end >= from) {
+      result.add(node.event);
+    }
+
+    collectOverlapping(node.right, from, to, result);
+  }
+
+  private static void collectStartingFrom(Node node, long from, int limit,
+                                          List<Event> result) {
+    if (node == null || result.size() >= limit) {
+      return;
+    }
+
+    //the left subtree starts even earlier than a node that is already too early
+    if (node.start >= from) {
+      collectStartingFrom(node.left, from, limit, result);
+      if (result.size() >= limit) {
+        return;
+      }
+      result.add(node.event);
+    }
+
+    collectStartingFrom(node.right, from, limit, result);
+  }
+
+  //collects from the latest start down, so the caller reverses the result
+  private static void collectStartingBefore(Node node, long to, int limit,
+                                            List<Event> result) {
+    if (node == null || result.size() >= limit) {
+      return;
+    }
+
+    //the right subtree starts even later than a node that is already too late
+    if (node.start < to) {
+      collectStartingBefore(node.right, to, limit, result);
+      if (result.size() >= limit) {
+        return;
+      }
+      result.add(node.event);
+    }
+
+    collectStartingBefore(node.left, to, limit, result);
+  }
+
+  //compare a (start, seq) key against a node
+  private static int compare(long start, long seq, Node node) {
+    int c = Long.compare(start, node.start);
+    return c != 0 ? c : Long.compare(seq, node.seq);
+  }
+
+  private static Node insert(Node node, Node added) {
+    if (node == null) {
+      return added;
+    }
+
+    if (compare(added.start, added.seq, node) < 0) {
+      return rebalance(node, insert(node.left, added), node.right);
+    }
+    return rebalance(node, node.left, insert(node.right, added));
+  }
+
+  private static Node remove(Node node, long start, long seq) {
+    if (node == null) {
+      return null;
+    }
+
+    int c = compare(start, seq, node);
+    if (c < 0) {
+      return rebalance(node, remove(node.left, start, seq), node.right);
+    }
+    if (c > 0) {
+      return rebalance(node, node.left, remove(node.right, start, seq));
+    }
+
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+
+    //replace this node with its in-order successor
+    Node successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return rebalance(successor, node.left, removeMin(node.right));
+  }
+
+  private static Node removeMin(Node node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return rebalance(node, removeMin(node.left), node.right);
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static long count(Node node) {
+    return node == null ? 0 : node.count;
+  }
+
+  //build a balanced copy of the given node with new children
+  private static Node rebalance(Node node, Node left, Node right) {
+    int balance = height(left) - height(right);
+
+    if (balance > 1) {
+      if (height(left.left) < height(left.right)) {
+        //left-right case
+        Node pivot = left.right;
+        return pivot.with(left.with(left.left, pivot.left),
+                node.with(pivot.right, right));
+      }
+      return left.with(left.left, node.with(left.right, right));
+    }
+
+    if (balance < -1) {
+      if (height(right.right) < height(right.left)) {
+        //right-left case
+        Node pivot = right.left;
+        return pivot.with(node.with(left, pivot.left),
+                right.with(pivot.right, right.right));
+      }
+      return right.with(node.with(left, right.left), right.right);
+    }
+
+    return node.with(left, right);
+  }
+}
@@ -0,0 +1,226 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for EventIntervalTree.
+ */
+public class EventIntervalTreeTest {
+
+  private EventIntervalTree tree;
+  private LocalDateTime base;
+
+  @Before
+  public void setUp() {
+    tree = new EventIntervalTree();
+    base = LocalDateTime.of(2025, 6, 2, 0, 0);
+  }
+
+  private Event event(String subject, LocalDateTime start, LocalDateTime end) {
+    return new Event.EventBuilder()
+            .subject(subject)
+            .start(start)
+            .end(end)
+            .identifier(UUID.randomUUID())
+            .build();
+  }
+
+  @Test
+  public void testOverlappingIsInclusive() {
+    Event e = event("Meeting", base.plusHours(9), base.plusHours(10));
+    tree.insert(e);
+
+    assertEquals(1, tree.overlapping(base.plusHours(10), base.plusHours(11)).size());
+    assertEquals(1, tree.overlapping(base.plusHours(8), base.plusHours(9)).size());
+    assertEquals(0, tree.overlapping(base.plusHours(10).plusMinutes(1),
+            base.plusHours(11)).size());
+  }
+
+  @Test
+  public void testRemove() {
+    Event a = event("A", base.plusHours(9), base.plusHours(10));
+    Event b = event("B", base.plusHours(9), base.plusHours(10));
+    tree.insert(a);
+    tree.insert(b);
+
+    assertTrue(tree.remove(a));
+    assertFalse(tree.remove(a));
+    assertEquals(1, tree.size());
+    assertEquals(b, tree.overlapping(base, base.plusDays(1)).get(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInsertTwice() {
+    Event a = event("A", base.plusHours(9), base.plusHours(10));
+    tree.insert(a);
+    tree.insert(a);
+  }
+
+  @Test
+  public void testRandomizedAgainstLinearScan() {
+    Random random = new Random(42);
+    List<Event> events = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      LocalDateTime start = base.plusMinutes(random.nextInt(60 * 24 * 60));
+      Event e = event("E" + i, start, start.plusMinutes(random.nextInt(60 * 24 * 3)));
+      events.add(e);
+      tree.insert(e);
+
+      //remove roughly a third of the events again
+      if (random.nextInt(3) == 0) {
+        Event removed = events.remove(random.nextInt(events.size()));
+        assertTrue(tree.remove(removed));
+      }
+    }
+
+    for (int i = 0; i < 200; i++) {
+      LocalDateTime from = base.plusMinutes(random.nextInt(60 * 24 * 60));
+      LocalDateTime to = from.plusMinutes(random.nextInt(60 * 24 * 5));
+
+      List<Event> expected = events.stream()
+              .filter(e -> !e.getEnd().isBefore(from) && !e.getStart().isAfter(to))
+              .collect(Collectors.toList());
+      List<Event> actual = tree.overlapping(from, to);
+
+      assertEquals(expected.size(), actual.size());
+      assertTrue(actual.containsAll(expected));
+    }
+  }
+
+  @Test
+  public void testContainsPointEndIsExclusive() {
+    tree.insert(event("Meeting", base.plusHours(9), base.plusHours(10)));
+
+    assertTrue(tree.containsPoint(base.plusHours(9)));
+    assertTrue(tree.containsPoint(base.plusHours(9).plusMinutes(59)));
+    assertFalse(tree.containsPoint(base.plusHours(10)));
+    assertFalse(tree.containsPoint(base.plusHours(8)));
+  }
+
+  @Test
+  public void testSecondsMatchDateTimes() {
+    Event e = event("Meeting", base.plusHours(9), base.plusHours(10));
+    tree.insert(e);
+    long nine = Event.toSecond(base.plusHours(9));
+
+    assertEquals(base.plusHours(9), Event.toDateTime(e.getStartSecond()));
+    assertEquals(List.of(e), tree.view().overlapping(nine + 3600, nine + 7200));
+    assertTrue(tree.view().containsPoint(nine + 3599));
+    assertFalse(tree.view().containsPoint(nine + 3600));
+
+    //a range starting part-way through the last second of the event misses it
+    assertTrue(tree.overlapping(base.plusHours(10).plusNanos(1), base.plusHours(11)).isEmpty());
+    assertEquals(List.of(e), tree.overlapping(base, base.plusHours(9).plusNanos(1)));
+  }
+
+  @Test
+  public void testStartingFromRandomized() {
+    Random random = new Random(11);
+    List<Event> events = new ArrayList<>();
+
+    for (int i = 0; i < 500; i++) {
+      LocalDateTime start = base.plusMinutes(5L * random.nextInt(20000));
+      Event e = event("E" + i, start, start.plusMinutes(30));
+      events.add(e);
+      tree.insert(e);
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      LocalDateTime from = base.plusMinutes(random.nextInt(100000));
+      int limit = random.nextInt(20);
+      List<LocalDateTime> expected = events.stream()
+              .map(Event::getStart)
+              .filter(start -> !start.isBefore(from))
+              .sorted()
+              .limit(limit)
+              .collect(Collectors.toList());
+      List<LocalDateTime> actual = tree.startingFrom(from, limit).stream()
+              .map(Event::getStart)
+              .collect(Collectors.toList());
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void testCountStartingBeforeRandomized() {
+    Random random = new Random(13);
+    List<Event> events = new ArrayList<>();
+
+    for (int i = 0; i < 500; i++) {
+      LocalDateTime start = base.plusMinutes(5L * random.nextInt(2000));
+      Event e = event("E" + i, start, start.plusMinutes(30));
+      events.add(e);
+      tree.insert(e);
+      if (i % 5 == 0) {
+        Event removed = events.remove(random.nextInt(events.size()));
+        tree.remove(removed);
+      }
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      LocalDateTime to = base.plusMinutes(random.nextInt(11000));
+      long expected = events.stream().filter(e -> e.getStart().isBefore(to)).count();
+      assertEquals(expected, tree.view().countStartingBefore(Event.toSecond(to)));
+    }
+  }
+
+  @Test
+  public void testWeightsAreCounted() {
+    Event heavy = event("Heavy", base, base.plusHours(1));
+    tree.insert(event("Light", base.plusHours(2), base.plusHours(3)));
+    tree.insert(heavy, 40);
+    tree.insert(event("Empty", base.plusHours(4), base.plusHours(5)), 0);
+
+    assertEquals(0, tree.view().countStartingBefore(Event.toSecond(base)));
+    assertEquals(40, tree.view().countStartingBefore(Event.toSecond(base.plusHours(1))));
+    assertEquals(41, tree.view().countStartingBefore(Event.toSecond(base.plusHours(5))));
+    assertEquals(3, tree.size());
+
+    tree.remove(heavy);
+    assertEquals(1, tree.view().countStartingBefore(Event.toSecond(base.plusHours(5))));
+  }
+
+  @Test
+  public void testWeightsAddUpPastIntRange() {
+    for (int i = 0; i < 3; i++) {
+      tree.insert(event("Series " + i, base.plusDays(i), base.plusDays(i + 1)),
+              Integer.MAX_VALUE);
+    }
+
+    assertEquals(3L * Integer.MAX_VALUE,
+            tree.view().countStartingBefore(Event.toSecond(base.plusDays(3))));
+    assertEquals(2L * Integer.MAX_VALUE,
+            tree.view().countStartingBefore(Event.toSecond(base.plusDays(2))));
+  }
+
+  @Test
+  public void testContainsPointRandomized() {
+    Random random = new Random(7);
+    List<Event> events = new ArrayList<>();
+
+    for (int i = 0; i < 500; i++) {
+      LocalDateTime start = base.plusMinutes(random.nextInt(60 * 24 * 60));
+      Event e = event("E" + i, start, start.plusMinutes(random.nextInt(60 * 6)));
+      events.add(e);
+      tree.insert(e);
+    }
+
+    for (int i = 0; i < 5000; i++) {
+      LocalDateTime t = base.plusMinutes(random.nextInt(60 * 24 * 61));
+      boolean expected = events.stream()
+              .anyMatch(e -> !t.isBefore(e.getStart()) && t.isBefore(e.getEnd()));
+      assertEquals(expected, tree.containsPoint(t));
+    }
+  }
+}
@@ -0,0 +1,20 @@
+/**
+ * Helpers shared by the event stores that keep their rows ordered by start.
+ */
+final class EventRows {
+
+  private EventRows() {
+  }
+
+  /**
+   * Returns the end used for overlap checks: an event without an end time is
+   * treated as a single point in time.
+   *
+   * @param start start second of the event
+   * @param end   end second of the event, or Event.NO_TIME
+   * @return end, or start if there is no end
+   */
+  static long endOrStart(long start, long end) {
+    return end != Event.NO_TIME ? end : start;
+  }
+}
@@ -4,7 +4,9 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.Set;
@@ -14,6 +16,23 @@ import java.util.Set;
  */
 public class EventSeriesBuilder extends SingleEventBuilder {
 
+  /**
+   * Constructor for an EventSeriesBuilder with its own string dictionary.
+   */
+  public EventSeriesBuilder() {
+    super();
+  }
+
+  /**
+   * Constructor for an EventSeriesBuilder whose series share strings through
+   * the given dictionary.
+   *
+   * @param strings dictionary of the calendar the series are built for
+   */
+  public EventSeriesBuilder(StringDictionary strings) {
+    super(strings);
+  }
+
   /**
    * Creates a series of events that occur on specific weekdays a specified number of times.
    *
@@ -41,6 +60,11 @@ public class EventSeriesBuilder extends SingleEventBuilder {
     validateSameDay(startTime, endTime);
     Set<DayOfWeek> weekdays = parseWeekdayCodes(weekdayCodes);
 
+    //one lookup per series; every member then holds the same instances
+    String sharedSubject = strings.canonical(subject);
+    String sharedLocation = strings.canonical(location);
+    String sharedStatus = strings.canonical(status);
+
     List<Event> series = new ArrayList<>();
     UUID seriesId = UUID.randomUUID();
     LocalDate currentDate = startDate;
@@ -51,12 +75,12 @@ public class EventSeriesBuilder extends SingleEventBuilder {
         LocalDateTime start = LocalDateTime.of(currentDate, startTime);
         LocalDateTime end = LocalDateTime.of(currentDate, endTime);
         Event event = new Event.EventBuilder()
-                .subject(subject)
+                .subject(sharedSubject)
                 .start(start)
                 .end(end)
                 .description(description)
-                .location(location)
-                .status(status)
+                .location(sharedLocation)
+                .status(sharedStatus)
                 .identifier(seriesId)
                 .build();
 
@@ -93,6 +117,11 @@ public class EventSeriesBuilder extends SingleEventBuilder {
     validateSameDay(startTime, endTime);
     Set<DayOfWeek> weekdays = parseWeekdayCodes(weekdayCodes);
 
+    //one lookup per series; every member then holds the same instances
+    String sharedSubject = strings.canonical(subject);
+    String sharedLocation = strings.canonical(location);
+    String sharedStatus = strings.canonical(status);
+
     List<Event> series = new ArrayList<>();
     UUID seriesId = UUID.randomUUID();
     LocalDate currentDate = startDate;
@@ -102,12 +131,12 @@ public class EventSeriesBuilder extends SingleEventBuilder {
         LocalDateTime start = LocalDateTime.of(currentDate, startTime);
         LocalDateTime end = LocalDateTime.of(currentDate, endTime);
         Event event = new Event.EventBuilder()
-                .subject(subject)
+                .subject(sharedSubject)
                 .start(start)
                 .end(end)
                 .description(description)
-                .location(location)
-                .status(status)
+                .location(sharedLocation)
+                .status(sharedStatus)
                 .identifier(seriesId)
                 .build();
 
@@ -119,6 +148,88 @@ public class EventSeriesBuilder extends SingleEventBuilder {
     return series;
   }
 
+  /**
+   * Creates a recurrence rule for a series that occurs on specific weekdays a
+   * specified number of times, without creating the individual events.
+   *
+   * @param subject      subject of the events
+   * @param startTime    time of day the event starts
+   * @param endTime      time of day the event ends
+   * @param startDate    date to start from
+   * @param weekdayCodes string of characters denoting weekdays (e.g., "MRU")
+   * @param occurrences  number of occurrences
+   * @param description  event description
+   * @param location     location
+   * @param status       public/private
+   * @return rule describing the series
+   */
+  public RecurrenceRule createRuleByOccurrences(String subject,
+                                                LocalTime startTime,
+                                                LocalTime endTime,
+                                                LocalDate startDate,
+                                                String weekdayCodes,
+                                                int occurrences,
+                                                String description,
+                                                String location,
+                                                String status) {
+
+    validateSameDay(startTime, endTime);
+    Set<DayOfWeek> weekdays = parseWeekdayCodes(weekdayCodes);
+    if (weekdays.isEmpty() || occurrences < 1) {
+      throw new IllegalArgumentException("Series must have at least one occurrence.");
+    }
+
+    // every 7 consecutive days hold exactly one occurrence per selected weekday,
+    // so skip whole weeks and only walk the last partial week
+    int fullWeeks = (occurrences - 1) / weekdays.size();
+    int remaining = occurrences - fullWeeks * weekdays.size();
+    LocalDate lastDate = startDate.plusWeeks(fullWeeks);
+
+    while (true) {
+      if (weekdays.contains(lastDate.getDayOfWeek())) {
+        remaining--;
+        if (remaining == 0) {
+          break;
+        }
+      }
+      lastDate = lastDate.plusDays(1);
+    }
+
+    return new RecurrenceRule(UUID.randomUUID(), strings.canonical(subject), startTime, endTime,
+            startDate, lastDate, weekdays, description, strings.canonical(location),
+            strings.canonical(status));
+  }
+
+  /**
+   * Creates a recurrence rule for a series that repeats until a specific end
+   * date (inclusive), without creating the individual events.
+   *
+   * @param subject      subject of the events
+   * @param startTime    time of day the event starts
+   * @param endTime      time of day the event ends
+   * @param startDate    date to start from
+   * @param endDate      last possible date (inclusive)
+   * @param weekdayCodes string of characters denoting weekdays (e.g., "MRU")
+   * @param description  event description
+   * @param location     location
+   * @param status       public/private
+   * @return rule describing the series
+   */
+  public RecurrenceRule createRuleUntilDate(String subject,
+                                            LocalTime startTime, LocalTime endTime,
+                                            LocalDate startDate, LocalDate endDate,
+                                            String weekdayCodes,
+                                            String description, String location,
+                                            String status) {
+
+    validateSameDay(startTime, endTime);
+    Set<DayOfWeek> weekdays = parseWeekdayCodes(weekdayCodes);
+
+    return new RecurrenceRule(UUID.randomUUID(), strings.canonical(subject), startTime, endTime,
+            startDate, endDate, weekdays, description, strings.canonical(location),
+            strings.canonical(status));
+  }
+
   /**
    * Validates that the event starts and ends on the same day.
    *
@@ -192,42 +303,96 @@ public class EventSeriesBuilder extends SingleEventBuilder {
       throw new IllegalArgumentException("Event not found with given subject and start time.");
     }
 
-    Event target = targetOpt.get();
-    UUID targetId = target.getIdentifier();
+    UUID targetId = targetOpt.get().getIdentifier();
+    List<Event> members = new ArrayList<>();
+    for (Event e : events) {
+      if (e.getIdentifier().equals(targetId)) {
+        members.add(e);
+      }
+    }
 
-    boolean changesTime = "start".equalsIgnoreCase(property) ||
-            "end".equalsIgnoreCase(property);
-    UUID newSeriesId = changesTime ? UUID.randomUUID() : targetId;
+    List<Event> updated = editFutureMembers(members, fromDateTime, property, newValue);
 
-    List<Event> toRemove = new ArrayList<>();
-    List<Event> toAdd = new ArrayList<>();
+    Map<Event, Event> replacements = new IdentityHashMap<>();
+    for (int i = 0; i < members.size(); i++) {
+      replacements.put(members.get(i), updated.get(i));
+    }
+    events.replaceAll(e -> replacements.getOrDefault(e, e));
+  }
 
-    for (Event e : events) {
-      boolean sameSeries = e.getIdentifier().equals(targetId);
-      boolean futureOrSame = !e.getStart().isBefore(fromDateTime);
-
-      if (sameSeries && futureOrSame) {
-        Event updated = updateEventProperty(e, property, newValue);
-        // assign new UUID if the event time is being changed
-        if (changesTime) {
-          updated = new Event.EventBuilder()
-                  .subject(updated.getSubject())
-                  .start(updated.getStart())
-                  .end(updated.getEnd())
-                  .description(updated.getDescription())
-                  .location(updated.getLocation())
-                  .status(updated.getStatus())
-                  .identifier(newSeriesId)
-                  .build();
-        }
+  /**
+   * Edit a property of every member of one series that starts at or after the
+   * given date/time; earlier members are left as they are.
+   * If the time is changed, all edited events get a new shared series UUID.
+   *
+   * @param members      all events of the series
+   * @param fromDateTime start date/time of the first event to edit
+   * @param property     property to edit (e.g., "location", "description", etc.)
+   * @param newValue     new value to apply
+   * @return list holding, for each member in order, its updated event or the member itself
+   */
+  public List<Event> editFutureMembers(List<Event> members, LocalDateTime fromDateTime,
+                                       String property, String newValue) {
+    boolean changesTime = changesTime(property);
+    UUID newSeriesId = UUID.randomUUID();
+
+    List<Event> result = new ArrayList<>(members.size());
+
+    for (Event e : members) {
+      if (e.getStart().isBefore(fromDateTime)) {
+        result.add(e);
+        continue;
+      }
 
-        toRemove.add(e);
-        toAdd.add(updated);
+      Event updated = updateEventProperty(e, property, newValue);
+      // assign new UUID if the event time is being changed
+      if (changesTime) {
+        updated = new Event.EventBuilder()
+                .subject(updated.getSubject())
+                .start(updated.getStart())
+                .end(updated.getEnd())
+                .description(updated.getDescription())
+                .location(updated.getLocation())
+                .status(updated.getStatus())
+                .identifier(newSeriesId)
+                .build();
       }
+
+      result.add(updated);
+    }
+
+    return result;
+  }
+
+  /**
+   * Edit a property of every occurrence of a recurrence rule. Only properties
+   * that keep the occurrences at their time can be edited this way.
+   *
+   * @param rule     rule to edit
+   * @param property property to edit (subject, description, location or status)
+   * @param newValue new value to apply
+   * @return rule with the same identifier, dates and exceptions
+   * @throws IllegalArgumentException if the property is unknown or changes the time
+   */
+  public RecurrenceRule editRule(RecurrenceRule rule, String property, String newValue) {
+    if (changesTime(property)) {
+      throw new IllegalArgumentException("Cannot change the time of a recurrence rule.");
     }
 
-    events.removeAll(toRemove);
-    events.addAll(toAdd);
+    Event updated = updateEventProperty(rule.occurrence(rule.getFirstDate()), property,
+            newValue);
+    return rule.withDetails(updated.getSubject(), updated.getDescription(),
+            updated.getLocation(), updated.getStatus());
+  }
+
+  /**
+   * Checks whether editing the given property moves events to another time.
+   *
+   * @param property property to edit
+   * @return true for start and end, in any case
+   */
+  public boolean changesTime(String property) {
+    return "start".equalsIgnoreCase(property) || "end".equalsIgnoreCase(property);
   }
 
   /**
@@ -278,4 +443,4 @@ public class EventSeriesBuilder extends SingleEventBuilder {
 
     return updated;
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
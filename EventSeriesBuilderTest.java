@@ -178,4 +178,40 @@ public class EventSeriesBuilderTest {
     builder.editEventAndFutureSeries(list, "Missing",
             baseDate.atTime(8, 0), "location", "Nowhere");
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCreateRuleByOccurrencesMatchesSeries() {
+    for (int occurrences = 1; occurrences <= 12; occurrences++) {
+      List<Event> series = builder.createSeriesByOccurrences("Study",
+              LocalTime.of(9, 0), LocalTime.of(10, 0), baseDate.plusDays(1),
+              "MWF", occurrences, "", "Library", "private");
+      RecurrenceRule rule = builder.createRuleByOccurrences("Study",
+              LocalTime.of(9, 0), LocalTime.of(10, 0), baseDate.plusDays(1),
+              "MWF", occurrences, "", "Library", "private");
+
+      List<Event> expanded = rule.expandAll();
+      assertEquals(series.size(), expanded.size());
+      for (int i = 0; i < series.size(); i++) {
+        assertEquals(series.get(i).getStart(), expanded.get(i).getStart());
+        assertEquals(series.get(i).getEnd(), expanded.get(i).getEnd());
+      }
+    }
+  }
+
+  @Test
+  public void testCreateRuleUntilDate() {
+    RecurrenceRule rule = builder.createRuleUntilDate("Yoga",
+            LocalTime.of(7, 0), LocalTime.of(8, 0),
+            baseDate, baseDate.plusDays(6), "MTWRF",
+            "Morning yoga", "Park", "public");
+
+    assertEquals(5, rule.expandAll().size());
+    assertEquals(baseDate.plusDays(6), rule.getLastDate());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCreateRuleInvalidTimeSpan() {
+    builder.createRuleUntilDate("Error", LocalTime.of(15, 0), LocalTime.of(14, 0),
+            baseDate, baseDate.plusDays(6), "M", "", "", "public");
+  }
+}
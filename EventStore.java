@@ -0,0 +1,252 @@
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Read access to the events of one calendar kept outside of CalendarManagement,
+ * as rows in start-time order plus the calendar's rule-based series.
+ * Implemented by the in-heap columnar store, the off-heap store and the
+ * calendars of a mapped snapshot. An implementation only has to expose its
+ * rows as columns; the queries are answered here by binary search over the
+ * start and running maximum end columns, and an Event is only built for the
+ * rows a query returns.
+ *
+ * <p>A CalendarManagement can keep its stored events in a store instead of on the
+ * heap (see CalendarManagement(EventStore)); it then answers its queries from the
+ * rows with the row searches below, and never changes the store itself.
+ */
+public interface EventStore {
+
+  /**
+   * Returns the number of stored events (not counting rule occurrences).
+   *
+   * @return number of stored events
+   */
+  int size();
+
+  /**
+   * Returns the rule-based series of the calendar.
+   *
+   * @return unmodifiable list of recurrence rules
+   */
+  List<RecurrenceRule> getRecurrenceRules();
+
+  /**
+   * Get start of the stored event at the given row, as Event.getStartSecond.
+   *
+   * @param row index in start-time order
+   * @return start second of the event
+   */
+  long getStartSecond(int row);
+
+  /**
+   * Get end of the stored event at the given row, as Event.getEndSecond.
+   *
+   * @param row index in start-time order
+   * @return end second of the event, or Event.NO_TIME if there is none
+   */
+  long getEndSecond(int row);
+
+  /**
+   * Get latest end among the stored events at rows 0 to the given row, counting
+   * an event without an end as ending at its start.
+   *
+   * @param row index in start-time order
+   * @return running maximum end second
+   */
+  long getMaxEndSecond(int row);
+
+  /**
+   * Checks whether the stored event at the given row has the given subject.
+   *
+   * @param row     index in start-time order
+   * @param subject to compare with
+   * @return true if the subjects are equal
+   */
+  boolean subjectEquals(int row, String subject);
+
+  /**
+   * Checks whether the stored event at the given row has the given identifier.
+   *
+   * @param row        index in start-time order
+   * @param identifier to compare with
+   * @return true if the identifiers are equal
+   */
+  boolean identifierEquals(int row, UUID identifier);
+
+  /**
+   * Builds the stored event at the given row.
+   *
+   * @param row index in start-time order
+   * @return the event
+   */
+  Event event(int row);
+
+  /**
+   * Builds every stored event, ordered by start time.
+   *
+   * @return list of stored events
+   */
+  default List<Event> events() {
+    int size = size();
+    List<Event> result = new ArrayList<>(size);
+    for (int row = 0; row < size; row++) {
+      result.add(event(row));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the stored events as a read-only list that builds an event each time
+   * one is read, so the rows can be walked or copied without building them all
+   * at once.
+   *
+   * @return list view of the stored events, ordered by start time
+   */
+  default List<Event> eventView() {
+    return new AbstractList<>() {
+      @Override
+      public Event get(int row) {
+        return event(row);
+      }
+
+      @Override
+      public int size() {
+        return EventStore.this.size();
+      }
+    };
+  }
+
+  /**
+   * Counts the stored events that start strictly before the given second, which
+   * is also the row of the first event starting at or after it. Runs in O(log n).
+   *
+   * @param second moment the events start before, as Event.getStartSecond
+   * @return number of rows starting before the second
+   */
+  default int countStartingBefore(long second) {
+    return firstAtLeast(this::getStartSecond, second);
+  }
+
+  /**
+   * Returns the first row whose running maximum end is at or after the given
+   * second; every event in an earlier row ends before it. Runs in O(log n).
+   *
+   * @param second moment to reach, as Event.getEndSecond
+   * @return first row that may end at or after the second, or size() if none does
+   */
+  default int firstReaching(long second) {
+    return firstAtLeast(this::getMaxEndSecond, second);
+  }
+
+  /**
+   * Returns all events that overlap the given range (inclusive), including
+   * occurrences of rule-based series, ordered by start time. Only matching
+   * rows are turned into events.
+   *
+   * @param from start of the time range
+   * @param to   end of the time range
+   * @return list of events that overlap with the given time range
+   */
+  default List<Event> getEventsBetween(LocalDateTime from, LocalDateTime to) {
+    long fromSec = Event.toSecond(from);
+    long toSec = Event.toSecond(to);
+    List<Event> result = new ArrayList<>();
+
+    //rows before the first one whose maxEnd reaches the range all end too early
+    int stop = firstAfter(this::getStartSecond, toSec);
+    for (int row = firstReaching(fromSec); row < stop; row++) {
+      if (endOrStart(row) >= fromSec) {
+        result.add(event(row));
+      }
+    }
+
+    List<RecurrenceRule> rules = getRecurrenceRules();
+    for (RecurrenceRule rule : rules) {
+      result.addAll(rule.expand(from, to));
+    }
+    if (!rules.isEmpty()) {
+      result.sort(Comparator.comparingLong(Event::getStartSecond));
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether any event is active at the given moment, meaning it starts at
+   * or before that moment and ends strictly after it.
+   *
+   * @param dateTime the specific moment to check
+   * @return true if an event overlaps with the given time
+   */
+  default boolean isTimeSlotOccupied(LocalDateTime dateTime) {
+    long t = Event.toSecond(dateTime);
+
+    int stop = firstAfter(this::getStartSecond, t);
+    for (int row = firstAfter(this::getMaxEndSecond, t); row < stop; row++) {
+      if (endOrStart(row) > t) {
+        return true;
+      }
+    }
+
+    for (RecurrenceRule rule : getRecurrenceRules()) {
+      if (rule.isActiveAt(dateTime)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the first stored event with the given subject and start time, or
+   * the matching occurrence of a rule-based series.
+   *
+   * @param subject of the event
+   * @param start   time of the event
+   * @return the matching event, or null if there is none
+   */
+  default Event findEvent(String subject, LocalDateTime start) {
+    long t = Event.toSecond(start);
+
+    int stop = firstAfter(this::getStartSecond, t);
+    for (int row = countStartingBefore(t); row < stop; row++) {
+      if (subjectEquals(row, subject)) {
+        return event(row);
+      }
+    }
+
+    for (RecurrenceRule rule : getRecurrenceRules()) {
+      if (rule.getSubject().equals(subject) && rule.startsAt(t)) {
+        return rule.occurrence(start.toLocalDate());
+      }
+    }
+    return null;
+  }
+
+  private long endOrStart(int row) {
+    return EventRows.endOrStart(getStartSecond(row), getEndSecond(row));
+  }
+
+  //first row whose value in the (ascending) column is >= key
+  private int firstAtLeast(IntToLongFunction column, long key) {
+    int lo = 0;
+    int hi = size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (column.applyAsLong(mid) < key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  //first row whose value in the (ascending) column is > key
+  private int firstAfter(IntToLongFunction column, long key) {
+    return key == Long.MAX_VALUE ? size() : firstAtLeast(column, key + 1);
+  }
+}
@@ -0,0 +1,162 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests shared by the EventStore implementations; each subclass runs them on
+ * its own store.
+ */
+public abstract class EventStoreTest {
+
+  protected CalendarManagement calendar;
+  protected LocalDateTime base;
+
+  @Before
+  public void setUp() {
+    calendar = new CalendarManagement();
+    base = LocalDateTime.of(2025, 6, 2, 0, 0);
+  }
+
+  /**
+   * Builds a store holding the given events, added in the order given.
+   *
+   * @param events events to add
+   * @return the filled store
+   */
+  protected abstract EventStore copyOf(Collection<Event> events);
+
+  //every event gets its own strings, as it would when read from commands or a file
+  protected Event event(int i) {
+    LocalDateTime start = base.plusMinutes(30L * i);
+    return new Event("Meeting " + i % 100, start, "Notes " + i % 10, start.plusMinutes(30),
+            "Room " + i % 20, "public", UUID.randomUUID());
+  }
+
+  protected static List<String> describe(List<Event> events) {
+    return events.stream()
+            .map(e -> e.getSubject() + " " + e.getStart() + " " + e.getEnd() + " "
+                    + e.getDescription() + " " + e.getLocation() + " " + e.getStatus() + " "
+                    + e.getIdentifier())
+            .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testOutOfOrderAddsKeepStartOrder() {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      events.add(event(i));
+    }
+    //a long event early on, so the running maximum end has to be carried forward
+    events.add(new Event("Retreat", base.plusMinutes(45), null, base.plusDays(3),
+            null, null, null));
+    Collections.shuffle(events, new Random(7));
+    //two events at one start keep the order they were added in
+    events.add(new Event("Second", base.plusMinutes(30), null, null, null, null, null));
+
+    EventStore store = copyOf(events);
+    assertEquals(events.size(), store.size());
+
+    long maxEnd = Long.MIN_VALUE;
+    for (int row = 0; row < store.size(); row++) {
+      long start = store.getStartSecond(row);
+      long end = store.getEndSecond(row);
+      maxEnd = Math.max(maxEnd, end == Event.NO_TIME ? start : end);
+      assertEquals(maxEnd, store.getMaxEndSecond(row));
+      assertTrue(row == 0 || store.getStartSecond(row - 1) <= start);
+    }
+    assertEquals("Meeting 1", store.event(1).getSubject());
+    assertEquals("Second", store.event(2).getSubject());
+    assertTrue(store.isTimeSlotOccupied(base.plusDays(2)));
+  }
+
+  @Test
+  public void testQueriesMatchCalendar() {
+    Random random = new Random(3);
+    for (int i = 0; i < 500; i++) {
+      //distinct starts, so the order of events is the same however they are added
+      LocalDateTime start = base.plusMinutes(15L * (i * 7919 % 4000));
+      LocalDateTime end = start.plusMinutes(15 + random.nextInt(600));
+      calendar.addSingleEvent("Event " + i % 40, start, end, "Note " + i, "Room " + i % 7,
+              i % 3 == 0 ? null : "public");
+    }
+    calendar.addRecurringSeriesByOccurrences("Standup", LocalTime.of(9, 0), LocalTime.of(9, 15),
+            base.toLocalDate(), "MTWRF", 20, "", "Office", "public");
+
+    List<Event> shuffled = new ArrayList<>(calendar.getStoredEvents());
+    Collections.shuffle(shuffled, random);
+    EventStore store = copyOf(shuffled);
+    CalendarManagement loaded = new CalendarManagement(store);
+    loaded.restore(List.of(), calendar.getRecurrenceRules());
+
+    assertEquals(500, store.size());
+    assertEquals(describe(calendar.getStoredEvents()), describe(store.events()));
+    assertEquals(describe(calendar.getAllEvents()), describe(loaded.getAllEvents()));
+
+    for (int i = 0; i < 200; i++) {
+      LocalDateTime from = base.plusMinutes(15L * random.nextInt(4000));
+      LocalDateTime to = from.plusMinutes(random.nextInt(2000));
+      assertEquals(describe(calendar.getEventsBetween(from, to)),
+              describe(loaded.getEventsBetween(from, to)));
+      assertEquals(calendar.isTimeSlotOccupied(from), loaded.isTimeSlotOccupied(from));
+      assertEquals(calendar.countEventsStarting(from, to), loaded.countEventsStarting(from, to));
+      assertEquals(describe(calendar.getUpcomingEvents(from, 7).getEvents()),
+              describe(loaded.getUpcomingEvents(from, 7).getEvents()));
+    }
+
+    for (Event e : calendar.getAllEvents()) {
+      assertEquals(describe(List.of(calendar.findEvent(e.getSubject(), e.getStart()))),
+              describe(List.of(loaded.findEvent(e.getSubject(), e.getStart()))));
+    }
+    assertNull(loaded.findEvent("Missing", base));
+  }
+
+  @Test
+  public void testLoadedCalendarFollowsEdits() {
+    calendar.addEventSeriesByOccurrences("Workout", LocalTime.of(7, 0), LocalTime.of(8, 0),
+            base.toLocalDate(), "MWF", 6, "Morning gym", "Gym", "public");
+    calendar.addSingleEvent("Dentist", base.plusHours(9), base.plusHours(10), null, null, null);
+    calendar.addSingleEvent("Lunch", base.plusHours(12), base.plusHours(13), null, null, null);
+    calendar.addSingleEvent("Review", base.plusHours(15), base.plusHours(16), null, null, null);
+
+    CalendarManagement loaded = new CalendarManagement(copyOf(calendar.getStoredEvents()));
+    LocalDateTime workout = base.plusDays(2).plusHours(7);
+    CalendarManagement.Handle handle = loaded.getHandle(loaded.findEvent("Workout", workout));
+    assertSame(handle, loaded.getHandle(loaded.findEvent("Workout", workout)));
+
+    for (CalendarManagement cal : List.of(calendar, loaded)) {
+      cal.editSingleEvent(cal.findEvent("Dentist", base.plusHours(9)), "location", "Clinic");
+      cal.editSeriesFromDate("Workout", workout, "location", "Pool");
+      cal.editEntireSeries("Workout", base.plusHours(7), "description", "Laps");
+      cal.editSingleEvent(cal.findEvent("Lunch", base.plusHours(12)), "subject", "Brunch");
+    }
+
+    assertEquals(describe(calendar.getAllEvents()), describe(loaded.getAllEvents()));
+    assertEquals("Pool", loaded.getEvent(handle).getLocation());
+    assertEquals("Laps", loaded.getEvent(handle).getDescription());
+    assertNull(loaded.findEvent("Lunch", base.plusHours(12)));
+    assertEquals(1, loaded.getEventsBetween(base.plusHours(12), base.plusHours(12)).size());
+    assertEquals(describe(calendar.getStoredEvents()), describe(loaded.getStoredEvents()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateOfStoredEventIsRejected() {
+    calendar.addSingleEvent("Review", base.plusHours(15), base.plusHours(16), null, null, null);
+    CalendarManagement loaded = new CalendarManagement(copyOf(calendar.getStoredEvents()));
+
+    loaded.addSingleEvent("Review", base.plusHours(15), base.plusHours(16), "Again", null, null);
+  }
+}
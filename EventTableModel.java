@@ -0,0 +1,240 @@
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Table model that shows the events starting in a range of time, one row per
+ * event, ordered by start time. The rows are never all loaded: the model only
+ * counts the events in the range, and a JTable asking for a row makes it fetch
+ * the block of events around that row with a cursor query. Only the most
+ * recently used blocks are kept, so a month or a year of events costs what is
+ * on screen.
+ *
+ * <p>Counting, fetching and formatting run on a background thread, never on the
+ * event dispatch thread. The count is published first and every block as soon as
+ * it is ready; until then its rows show as loading. Setting a new range makes
+ * every query for the old one stale: queued queries are skipped and late results
+ * are dropped, so quickly changing the range only ever loads the last one.
+ * All public methods are meant to be called on the event dispatch thread.
+ */
+public class EventTableModel extends AbstractTableModel {
+
+  private static final long serialVersionUID = 1L;
+  private static final String[] COLUMNS = {"Subject", "Start", "End", "Description"};
+  private static final String LOADING = "Loading...";
+  private static final int BLOCK_SIZE = 100;
+  private static final int CACHED_BLOCKS = 20;
+  private static final DateTimeFormatter formatter =
+          DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+  /**
+   * Events of one block of rows, with the rows already formatted.
+   */
+  private static final class Block {
+    private final List<Event> events;
+    private final Object[][] rows;
+
+    private Block(List<Event> events) {
+      this.events = events;
+      this.rows = new Object[events.size()][];
+      for (int i = 0; i < rows.length; i++) {
+        Event e = events.get(i);
+        rows[i] = new Object[]{
+                e.getSubject(),
+                formatter.format(e.getStart()),
+                formatter.format(e.getEnd()),
+                e.getDescription() != null ? e.getDescription() : ""
+        };
+      }
+    }
+  }
+
+  private final CalendarManagement calendar;
+  private final Executor background;
+  private final Executor ui;
+  //blocks by index, least recently used first
+  private final Map<Integer, Block> blocks;
+  //blocks asked for in this generation that have not arrived yet
+  private final Set<Integer> loading;
+  //bumped by every refresh; a query from an older generation is stale
+  private volatile int generation;
+  private LocalDateTime from;
+  private LocalDateTime to;
+  private int rowCount;
+
+  /**
+   * Constructor for an EventTableModel with no rows until a range is set.
+   * Queries run on a single background thread and are published on the
+   * event dispatch thread.
+   *
+   * @param calendar to show the events of
+   */
+  public EventTableModel(CalendarManagement calendar) {
+    this(calendar, Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "event-table-loader");
+      thread.setDaemon(true);
+      return thread;
+    }), SwingUtilities::invokeLater);
+  }
+
+  //executors are replaceable so tests can run queries in place
+  EventTableModel(CalendarManagement calendar, Executor background, Executor ui) {
+    this.calendar = calendar;
+    this.background = background;
+    this.ui = ui;
+    this.blocks = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+        return size() > CACHED_BLOCKS;
+      }
+    };
+    this.loading = new HashSet<>();
+    this.generation = 0;
+    this.rowCount = 0;
+  }
+
+  /**
+   * Shows the events that start at or after one moment and before another.
+   *
+   * @param from earliest start time
+   * @param to   moment the events start before
+   */
+  public void setRange(LocalDateTime from, LocalDateTime to) {
+    this.from = from;
+    this.to = to;
+    refresh();
+  }
+
+  /**
+   * Drops the loaded rows and counts the events in the range again, for
+   * after the calendar has changed. The table is empty until the count arrives.
+   */
+  public void refresh() {
+    int current = ++generation;
+    blocks.clear();
+    loading.clear();
+    rowCount = 0;
+    fireTableDataChanged();
+    if (from == null) {
+      return;
+    }
+
+    LocalDateTime rangeFrom = from;
+    LocalDateTime rangeTo = to;
+    background.execute(() -> {
+      if (current != generation) {
+        return;
+      }
+      //a table has at most Integer.MAX_VALUE rows; the rest of a longer range is cut off
+      int count = (int) Math.min(calendar.countEventsStarting(rangeFrom, rangeTo),
+              Integer.MAX_VALUE);
+      ui.execute(() -> {
+        if (current == generation) {
+          rowCount = count;
+          fireTableDataChanged();
+        }
+      });
+    });
+  }
+
+  /**
+   * Returns the event shown in the given row.
+   *
+   * @param row index of the row
+   * @return the event, or null if the row is still loading or the calendar
+   *         changed and the row is gone
+   */
+  public Event getEventAt(int row) {
+    Block block = block(row);
+    int index = row % BLOCK_SIZE;
+    return block != null && index < block.events.size() ? block.events.get(index) : null;
+  }
+
+  /**
+   * Returns the stable handle of the event shown in the given row, for editing
+   * it without looking it up again.
+   *
+   * @param row index of the row
+   * @return the handle, or null if the row is still loading or its event has
+   *         changed since it was loaded
+   */
+  public CalendarManagement.Handle getHandleAt(int row) {
+    Event event = getEventAt(row);
+    if (event == null) {
+      return null;
+    }
+    try {
+      return calendar.getHandle(event);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public int getColumnCount() {
+    return COLUMNS.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMNS[column];
+  }
+
+  @Override
+  public Object getValueAt(int row, int column) {
+    Block block = block(row);
+    if (block == null) {
+      return column == 0 ? LOADING : "";
+    }
+
+    int index = row % BLOCK_SIZE;
+    return index < block.rows.length ? block.rows[index][column] : null;
+  }
+
+  //the block holding the row, or null after asking for it if it has not arrived
+  private Block block(int row) {
+    int index = row / BLOCK_SIZE;
+    Block block = blocks.get(index);
+    if (block == null && loading.add(index)) {
+      load(index);
+      block = blocks.get(index);
+    }
+    return block;
+  }
+
+  private void load(int index) {
+    int current = generation;
+    int first = index * BLOCK_SIZE;
+    int size = Math.min(BLOCK_SIZE, rowCount - first);
+    LocalDateTime rangeFrom = from;
+
+    background.execute(() -> {
+      if (current != generation) {
+        return;
+      }
+      CalendarManagement.Cursor cursor = calendar.getCursor(rangeFrom, first);
+      Block block = new Block(calendar.getPageAfter(cursor, size).getEvents());
+      ui.execute(() -> {
+        if (current == generation) {
+          loading.remove(index);
+          blocks.put(index, block);
+          fireTableRowsUpdated(first, first + size - 1);
+        }
+      });
+    });
+  }
+}
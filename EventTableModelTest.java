@@ -0,0 +1,127 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test class for EventTableModel.
+ */
+public class EventTableModelTest {
+
+  private CalendarManagement calendar;
+  private EventTableModel model;
+  private LocalDateTime base;
+
+  @Before
+  public void setUp() {
+    calendar = new CalendarManagement();
+    //queries run in place, so every row is there as soon as it is asked for
+    model = new EventTableModel(calendar, Runnable::run, Runnable::run);
+    base = LocalDateTime.of(2025, 6, 2, 0, 0);
+  }
+
+  @Test
+  public void testRowsFollowStartOrderAcrossBlocks() {
+    for (int i = 0; i < 1000; i++) {
+      LocalDateTime start = base.plusMinutes(45L * i);
+      calendar.addSingleEvent("Event " + i, start, start.plusMinutes(30),
+              i % 2 == 0 ? "Note " + i : null, "", "public");
+    }
+    calendar.addRecurringSeriesByOccurrences("Standup", LocalTime.of(9, 5),
+            LocalTime.of(9, 20), base.toLocalDate(), "MTWRF", 20, "", "", "public");
+
+    LocalDateTime from = base.plusDays(3);
+    LocalDateTime to = base.plusDays(24);
+    List<Event> expected = calendar.getAllEvents().stream()
+            .filter(e -> !e.getStart().isBefore(from) && e.getStart().isBefore(to))
+            .sorted((e1, e2) -> e1.getStart().compareTo(e2.getStart()))
+            .collect(Collectors.toList());
+    model.setRange(from, to);
+
+    assertEquals(expected.size(), model.getRowCount());
+    //read from the bottom up, as a table scrolled to the end would
+    for (int row = model.getRowCount() - 1; row >= 0; row--) {
+      Event e = expected.get(row);
+      assertEquals(e.getSubject(), model.getValueAt(row, 0));
+      assertEquals(e.getStart().toString().replace('T', ' '), model.getValueAt(row, 1));
+      assertEquals(e.getDescription() != null ? e.getDescription() : "",
+              model.getValueAt(row, 3));
+    }
+    assertSame(expected.get(250), model.getEventAt(250));
+    assertSame(expected.get(250), calendar.getEvent(model.getHandleAt(250)));
+  }
+
+  @Test
+  public void testRowCountStopsAtIntRange() {
+    //800 daily series to the year 9999 start more events than a table can have rows
+    LocalDate first = LocalDate.of(2000, 1, 1);
+    for (int i = 0; i < 800; i++) {
+      calendar.addRecurringSeriesUntilDate("Series " + i, LocalTime.of(9, 0),
+              LocalTime.of(9, 30), first, LocalDate.of(9999, 12, 31), "MTWRFSU", "", "", "");
+    }
+
+    model.setRange(first.atStartOfDay(), LocalDateTime.of(9999, 12, 31, 23, 59));
+    assertEquals(Integer.MAX_VALUE, model.getRowCount());
+    //the last row is still loaded from its offset
+    int row = Integer.MAX_VALUE - 1;
+    assertEquals(first.plusDays(row / 800) + " 09:00", model.getValueAt(row, 1));
+  }
+
+  @Test
+  public void testStaleLoadsAreDropped() {
+    List<Runnable> queued = new ArrayList<>();
+    model = new EventTableModel(calendar, queued::add, Runnable::run);
+    calendar.addSingleEvent("Dentist", base.plusHours(9), base.plusHours(10), "", "", "");
+    calendar.addSingleEvent("Gym", base.plusDays(1).plusHours(9),
+            base.plusDays(1).plusHours(10), "", "", "");
+
+    model.setRange(base, base.plusDays(2));
+    model.setRange(base.plusDays(1), base.plusDays(2));
+    assertEquals(0, model.getRowCount());
+    runAll(queued);
+    assertEquals(1, model.getRowCount());
+
+    //the row shows as loading until its block arrives
+    assertEquals("Loading...", model.getValueAt(0, 0));
+    assertNull(model.getEventAt(0));
+    runAll(queued);
+    assertEquals("Gym", model.getValueAt(0, 0));
+
+    //a block asked for before a refresh never lands in the new range
+    model.setRange(base, base.plusDays(1));
+    runAll(queued);
+    model.getValueAt(0, 0);
+    model.refresh();
+    runAll(queued);
+    assertEquals("Loading...", model.getValueAt(0, 0));
+    runAll(queued);
+    assertEquals("Dentist", model.getValueAt(0, 0));
+  }
+
+  @Test
+  public void testRefreshSeesChanges() {
+    model.setRange(base, base.plusDays(1));
+    assertEquals(0, model.getRowCount());
+
+    calendar.addSingleEvent("Dentist", base.plusHours(9), base.plusHours(10), "", "", "");
+    model.refresh();
+    assertEquals(1, model.getRowCount());
+    assertEquals("Dentist", model.getValueAt(0, 0));
+    assertEquals("End", model.getColumnName(2));
+  }
+
+  private static void runAll(List<Runnable> queued) {
+    List<Runnable> tasks = new ArrayList<>(queued);
+    queued.clear();
+    tasks.forEach(Runnable::run);
+  }
+}
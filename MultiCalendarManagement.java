@@ -1,23 +1,67 @@
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class to support multiple calendars.
+ * Calendars are kept in a concurrent map from name to calendar, so finding,
+ * renaming and changing the time zone of a calendar take the same time however
+ * many calendars there are. Lookups never lock; changes to the registry are
+ * synchronized so a rename is never seen half done by another change.
  */
 public class MultiCalendarManagement {
 
-  public static ArrayList<CalendarWithTimeZone> CALENDAR_LIST;
+  private static final ConcurrentMap<String, CalendarWithTimeZone> CALENDARS =
+          new ConcurrentHashMap<>();
 
-  //list of all time zones
-  private static final String[] timeZones = TimeZone.getAvailableIDs();
+  //gives every added calendar its place in the order of getCalendars
+  private static final AtomicLong ADDED = new AtomicLong();
+
+  //all time zone IDs, hashed once so checking a zone doesn't scan the list
+  private static final Set<String> TIME_ZONE_IDS =
+          Collections.unmodifiableSet(new HashSet<>(Arrays.asList(TimeZone.getAvailableIDs())));
+
+  //resolved zones, shared by all calendars in the same zone
+  private static final ConcurrentMap<String, TimeZoneInfo> ZONES = new ConcurrentHashMap<>();
+
+  /**
+   * Internal class holding a time zone ID together with its resolved ZoneId and
+   * rules, so converting times never looks the zone up again. Replaced as a whole
+   * when a calendar's time zone changes, so the three always agree.
+   */
+  private static final class TimeZoneInfo {
+    private final String id;
+    private final ZoneId zone;
+    private final ZoneRules rules;
+
+    private TimeZoneInfo(String id) {
+      this.id = id;
+      //old three-letter IDs such as "PST" are valid TimeZone IDs but need the short-ID map
+      this.zone = ZoneId.of(id, ZoneId.SHORT_IDS);
+      this.rules = zone.getRules();
+    }
+  }
 
   /**
    * Internal class representing a single calendar with a specified name and time zone.
+   * The registry keeps one object per calendar and changes it in place, so a
+   * reference to it stays valid after a rename or a time zone change.
    */
   static class CalendarWithTimeZone {
-    protected CalendarManagement cal;
-    protected String time;
-    protected String name;
+    protected volatile CalendarManagement cal;
+    protected volatile String name;
+    private volatile TimeZoneInfo zone;
+    private final long order;
 
     /**
      * Constructor for the CalendarWithTimeZone object.
@@ -36,19 +80,19 @@ public class MultiCalendarManagement {
       }
 
       this.cal = cal;
-      this.time = time;
+      this.zone = timeZoneInfo(time);
       this.name = name;
-
+      this.order = ADDED.getAndIncrement();
     }
 
 
   }
 
   /**
-   * Constructor for MultiCalendarManagement.
+   * Constructor for MultiCalendarManagement; starts over with no calendars.
    */
   public MultiCalendarManagement() {
-    CALENDAR_LIST = new ArrayList<>();
+    CALENDARS.clear();
   }
 
   /**
@@ -57,25 +101,21 @@ public class MultiCalendarManagement {
    * @param a calendar to add
    * @throws IllegalArgumentException if name is already taken
    */
-  public static void addCalendar(CalendarManagement a,
-                                 String tz,
-                                 String n) {
+  public static synchronized void addCalendar(CalendarManagement a,
+                                              String tz,
+                                              String n) {
     if (checkName(n)) {
       throw new IllegalArgumentException("This name has already been taken.");
     }
 
     CalendarWithTimeZone e = new CalendarWithTimeZone(a, tz, n);
-    CALENDAR_LIST.add(e);
+    CALENDARS.put(n, e);
   }
 
-  private void removeCalendar(CalendarWithTimeZone a) {
-    if (!checkName(getName(a))) {
+  private static synchronized void removeCalendar(CalendarWithTimeZone a) {
+    if (!CALENDARS.remove(getName(a), a)) {
       throw new IllegalArgumentException("This calendar does not exist.");
     }
-
-    int index = findCalIndex(a, getName(a));
-
-    CALENDAR_LIST.remove(index);
   }
 
   /**
@@ -85,19 +125,8 @@ public class MultiCalendarManagement {
    * @param b calendar to replace in object
    * @throws IllegalArgumentException if target calendar does not exist
    */
-  protected static void editCalendar(CalendarWithTimeZone a, CalendarManagement b) {
-    if (!checkName(getName(a))) {
-      throw new IllegalArgumentException("This calendar does not exist.");
-    }
-
-    String name = getName(a);
-    String tz = getTime(a);
-
-    CalendarWithTimeZone replace = new CalendarWithTimeZone(b, tz, name);
-
-    int index = findCalIndex(a, getName(a));
-
-    CALENDAR_LIST.set(index, replace);
+  protected static synchronized void editCalendar(CalendarWithTimeZone a, CalendarManagement b) {
+    requireCalendar(getName(a)).cal = b;
   }
 
   /**
@@ -109,21 +138,22 @@ public class MultiCalendarManagement {
    */
   public static void editTimeZone(CalendarManagement a,
                                   String ctz, String n, String tz) {
-    if (!checkTimeZone(ctz)) {
-      throw new IllegalArgumentException("Time zone does not exist.");
-    }
+    changeTimeZone(n, tz);
+  }
 
-    if (!checkName(n)) {
-      throw new IllegalArgumentException("This calendar does not exist.");
+  /**
+   * Changes the time zone of a calendar.
+   *
+   * @param name of the calendar
+   * @param tz   time zone to replace current one with
+   * @throws IllegalArgumentException if calendar or new time zone doesn't exist
+   */
+  public static synchronized void changeTimeZone(String name, String tz) {
+    if (!checkTimeZone(tz)) {
+      throw new IllegalArgumentException("Time zone does not exist.");
     }
 
-
-    CalendarWithTimeZone replace = new CalendarWithTimeZone(a, tz, n);
-
-    int index = findCalIndex(new CalendarWithTimeZone(a, ctz, n), n);
-
-    CALENDAR_LIST.set(index, replace);
-
+    requireCalendar(name).zone = timeZoneInfo(tz);
   }
 
   /**
@@ -146,47 +176,64 @@ public class MultiCalendarManagement {
    * @throws IllegalArgumentException if name is already taken or calendar doesn't exist
    */
   public void editName(CalendarWithTimeZone a, String name) {
-    if (checkName(name)) {
-      throw new IllegalArgumentException("This name has already been taken.");
-    }
+    renameCalendar(getName(a), name);
+  }
 
-    if (!checkName(getName(a))) {
-      throw new IllegalArgumentException("This calendar does not exist.");
+  /**
+   * Renames a calendar.
+   *
+   * @param oldName current name of the calendar
+   * @param newName to replace current name with
+   * @throws IllegalArgumentException if name is already taken or calendar doesn't exist
+   */
+  public static synchronized void renameCalendar(String oldName, String newName) {
+    if (checkName(newName)) {
+      throw new IllegalArgumentException("This name has already been taken.");
     }
 
-    CalendarManagement cal = getCal(a);
-    String tz = getTime(a);
-
-    CalendarWithTimeZone replace = new CalendarWithTimeZone(cal, tz, name);
+    CalendarWithTimeZone cal = requireCalendar(oldName);
+    CALENDARS.put(newName, cal);
+    cal.name = newName;
+    CALENDARS.remove(oldName);
+  }
 
-    int index = findCalIndex(a, getName(a));
+  /**
+   * Finds a calendar by name.
+   *
+   * @param name of the calendar
+   * @return the calendar, or null if no calendar has that name
+   */
+  public static CalendarWithTimeZone getCalendar(String name) {
+    return CALENDARS.get(name);
+  }
 
-    CALENDAR_LIST.set(index, replace);
+  /**
+   * Lists all calendars, in the order they were added.
+   *
+   * @return new list of the calendars
+   */
+  public static List<CalendarWithTimeZone> getCalendars() {
+    List<CalendarWithTimeZone> cals = new ArrayList<>(CALENDARS.values());
+    cals.sort(Comparator.comparingLong(cal -> cal.order));
+    return cals;
+  }
 
+  /**
+   * Get number of calendars.
+   *
+   * @return number of calendars
+   */
+  public static int getCalendarCount() {
+    return CALENDARS.size();
   }
 
 
   protected static boolean checkTimeZone(String tz) {
-    boolean timeZoneExists = false;
-    for (int i = 0; i < timeZones.length; i++) {
-      if (tz.equals(timeZones[i])) {
-        timeZoneExists = true;
-        break;
-      }
-    }
-
-    return timeZoneExists;
+    return TIME_ZONE_IDS.contains(tz);
   }
 
   protected static boolean checkName(String name) {
-    boolean found = false;
-    for (int j = 0; j < CALENDAR_LIST.size(); j++) {
-      if (name.equals(getName(CALENDAR_LIST.get(j)))) {
-        found = true;
-        break;
-      }
-    }
-    return found;
+    return CALENDARS.containsKey(name);
   }
 
   /**
@@ -204,7 +251,25 @@ public class MultiCalendarManagement {
    * @return tz of calendar
    */
   public static String getTime(CalendarWithTimeZone a) {
-    return a.time;
+    return a.zone.id;
+  }
+
+  /**
+   * Get the resolved time zone of a calendar.
+   * @param a calendar to target
+   * @return ZoneId of the calendar's time zone
+   */
+  public static ZoneId getZoneId(CalendarWithTimeZone a) {
+    return a.zone.zone;
+  }
+
+  /**
+   * Get the rules of a calendar's time zone.
+   * @param a calendar to target
+   * @return rules of the calendar's time zone
+   */
+  public static ZoneRules getZoneRules(CalendarWithTimeZone a) {
+    return a.zone.rules;
   }
 
   /**
@@ -216,18 +281,17 @@ public class MultiCalendarManagement {
     return a.cal;
   }
 
-  //use if and only if we know cal actually exists
-  protected static int findCalIndex(CalendarWithTimeZone a, String target) {
-    int index = -1;
+  //only called with IDs that passed checkTimeZone
+  private static TimeZoneInfo timeZoneInfo(String tz) {
+    return ZONES.computeIfAbsent(tz, TimeZoneInfo::new);
+  }
 
-    for (int i = 0; i < CALENDAR_LIST.size(); i++) {
-      if (getName(a).equals(target)) {
-        index = i;
-        break;
-      }
+  private static CalendarWithTimeZone requireCalendar(String name) {
+    CalendarWithTimeZone cal = CALENDARS.get(name);
+    if (cal == null) {
+      throw new IllegalArgumentException("This calendar does not exist.");
     }
-
-    return index;
+    return cal;
   }
 
 }
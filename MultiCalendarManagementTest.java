@@ -0,0 +1,110 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for MultiCalendarManagement.
+ */
+public class MultiCalendarManagementTest {
+
+  @Before
+  public void setUp() {
+    new MultiCalendarManagement();
+  }
+
+  @Test
+  public void testRenameAndTimeZoneChangeKeepTheSameCalendar() {
+    CalendarManagement work = new CalendarManagement();
+    MultiCalendarManagement.addCalendar(work, "America/New_York", "Work");
+    MultiCalendarManagement.addCalendar(new CalendarManagement(), "Europe/London", "Home");
+    MultiCalendarManagement.CalendarWithTimeZone cal = MultiCalendarManagement.getCalendar("Work");
+
+    MultiCalendarManagement.renameCalendar("Work", "Office");
+    MultiCalendarManagement.changeTimeZone("Office", "Asia/Tokyo");
+
+    assertNull(MultiCalendarManagement.getCalendar("Work"));
+    assertSame(cal, MultiCalendarManagement.getCalendar("Office"));
+    assertEquals("Office", MultiCalendarManagement.getName(cal));
+    assertEquals("Asia/Tokyo", MultiCalendarManagement.getTime(cal));
+    assertSame(work, MultiCalendarManagement.getCal(cal));
+    assertEquals(2, MultiCalendarManagement.getCalendarCount());
+    assertEquals("Europe/London",
+            MultiCalendarManagement.getTime(MultiCalendarManagement.getCalendar("Home")));
+  }
+
+  @Test
+  public void testZonesAreResolvedOnce() {
+    MultiCalendarManagement.addCalendar(new CalendarManagement(), "America/New_York", "Work");
+    MultiCalendarManagement.addCalendar(new CalendarManagement(), "America/New_York", "Home");
+    MultiCalendarManagement.addCalendar(new CalendarManagement(), "PST", "Old");
+    MultiCalendarManagement.CalendarWithTimeZone work = MultiCalendarManagement.getCalendar("Work");
+    MultiCalendarManagement.CalendarWithTimeZone home = MultiCalendarManagement.getCalendar("Home");
+
+    assertEquals(ZoneId.of("America/New_York"), MultiCalendarManagement.getZoneId(work));
+    assertSame(MultiCalendarManagement.getZoneId(work), MultiCalendarManagement.getZoneId(home));
+    assertSame(MultiCalendarManagement.getZoneRules(work),
+            MultiCalendarManagement.getZoneRules(home));
+    assertEquals(ZoneId.of("America/Los_Angeles"),
+            MultiCalendarManagement.getZoneId(MultiCalendarManagement.getCalendar("Old")));
+
+    MultiCalendarManagement.changeTimeZone("Home", "Europe/Paris");
+    assertEquals("Europe/Paris", MultiCalendarManagement.getTime(home));
+    assertEquals(ZoneId.of("Europe/Paris"), MultiCalendarManagement.getZoneId(home));
+    assertEquals(ZoneId.of("Europe/Paris").getRules(), MultiCalendarManagement.getZoneRules(home));
+  }
+
+  @Test
+  public void testInvalidChangesAreRefused() {
+    MultiCalendarManagement.addCalendar(new CalendarManagement(), "America/New_York", "Work");
+    MultiCalendarManagement.addCalendar(new CalendarManagement(), "Europe/London", "Home");
+
+    try {
+      MultiCalendarManagement.renameCalendar("Work", "Home");
+      fail("Expected a taken name to be refused.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("This name has already been taken.", e.getMessage());
+    }
+    try {
+      MultiCalendarManagement.changeTimeZone("Missing", "Asia/Tokyo");
+      fail("Expected a missing calendar to be refused.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("This calendar does not exist.", e.getMessage());
+    }
+    try {
+      MultiCalendarManagement.changeTimeZone("Work", "Mars/Olympus");
+      fail("Expected an unknown time zone to be refused.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Time zone does not exist.", e.getMessage());
+    }
+
+    assertTrue(MultiCalendarManagement.checkName("Work"));
+    assertEquals("America/New_York",
+            MultiCalendarManagement.getTime(MultiCalendarManagement.getCalendar("Work")));
+  }
+
+  @Test
+  public void testCalendarsAreListedInTheOrderAdded() {
+    List<String> names = IntStream.range(0, 2000).mapToObj(i -> "user" + (1999 - i))
+            .collect(Collectors.toList());
+    names.forEach(name ->
+            MultiCalendarManagement.addCalendar(new CalendarManagement(), "UTC", name));
+    MultiCalendarManagement.renameCalendar("user5", "renamed");
+
+    List<String> listed = MultiCalendarManagement.getCalendars().stream()
+            .map(MultiCalendarManagement::getName).collect(Collectors.toList());
+    names.set(names.indexOf("user5"), "renamed");
+    assertEquals(names, listed);
+    assertFalse(MultiCalendarManagement.checkName("user5"));
+  }
+}
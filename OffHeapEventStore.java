@@ -0,0 +1,300 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Event store for very large calendars that keeps its events outside the Java heap.
+ * Every event is a fixed-size record in direct ByteBuffers: start, end and the
+ * running maximum end as wall-clock seconds, the identifier as two longs, and
+ * a reference into an off-heap string arena for each text field. The heap
+ * only holds one small buffer object per chunk of records or strings, so heap
+ * size and garbage collection work stay the same however many events are stored.
+ *
+ * <p>Records are kept in start order like the rows of ColumnarEventStore and
+ * BinarySnapshot, and queried with the binary searches of EventStore; an event
+ * added out of order is inserted at its row by moving the later records up by
+ * one, within the chunks already allocated. Strings are written to the arena
+ * once each while they stay among the recently used ones, so repeated
+ * subjects, locations and statuses share bytes without a heap map that grows
+ * with the number of events. Off-heap memory is given back when the store is
+ * no longer reachable.
+ *
+ * <p>A store is filled from one thread and then only read, for example as the
+ * storage of a CalendarManagement loaded by CalendarStore; once filled, any
+ * number of threads can read it at once.
+ */
+public class OffHeapEventStore implements EventStore {
+
+  //record layout, in bytes from the start of a record
+  private static final int START = 0;
+  private static final int END = 8;
+  private static final int MAX_END = 16;
+  private static final int ID_HIGH = 24;
+  private static final int ID_LOW = 32;
+  private static final int SUBJECT = 40;
+  private static final int DESCRIPTION = 48;
+  private static final int LOCATION = 56;
+  private static final int STATUS = 64;
+  private static final int RECORD_BYTES = 72;
+
+  //16384 records (about 1.2 MB) per chunk
+  private static final int CHUNK_SHIFT = 14;
+  private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+  private static final int ARENA_CHUNK_BYTES = 1 << 20;
+  private static final int RECENT_STRINGS = 1024;
+  //string reference of a null field
+  private static final long NO_STRING = -1;
+
+  //replaced rather than changed, so it can be handed out as it is
+  private List<RecurrenceRule> rules;
+  private final List<ByteBuffer> records;
+  private final List<ByteBuffer> arena;
+  //arena reference of recently written strings, oldest use first
+  private final Map<String, Long> recent;
+  private int size;
+
+  /**
+   * Constructor for an empty OffHeapEventStore.
+   */
+  public OffHeapEventStore() {
+    this.rules = List.of();
+    this.records = new ArrayList<>();
+    this.arena = new ArrayList<>();
+    this.recent = new LinkedHashMap<>(RECENT_STRINGS * 2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+        return size() > RECENT_STRINGS;
+      }
+    };
+    this.size = 0;
+  }
+
+  /**
+   * Copies events into a new store, such as the rows of a mapped snapshot that
+   * a calendar is loaded from. Events given in start order are appended
+   * without moving any record.
+   *
+   * @param events events to copy
+   * @return store holding the same events
+   */
+  public static OffHeapEventStore copyOf(Collection<Event> events) {
+    OffHeapEventStore store = new OffHeapEventStore();
+    events.forEach(store::add);
+    return store;
+  }
+
+  /**
+   * Adds an event as it is, after the events with the same or an earlier start.
+   * No duplicate checks are made.
+   *
+   * @param e event to add
+   */
+  public void add(Event e) {
+    if (size >>> CHUNK_SHIFT == records.size()) {
+      records.add(ByteBuffer.allocateDirect(RECORD_BYTES << CHUNK_SHIFT));
+    }
+
+    //the first record starting later; records from there on move up to make room
+    int row = countStartingBefore(e.getStartSecond() + 1);
+    for (int later = size - 1; later >= row; later--) {
+      copyRecord(later, later + 1);
+    }
+    size++;
+
+    UUID id = e.getIdentifier();
+    putLong(row, START, e.getStartSecond());
+    putLong(row, END, e.getEndSecond());
+    putLong(row, ID_HIGH, id == null ? 0 : id.getMostSignificantBits());
+    putLong(row, ID_LOW, id == null ? 0 : id.getLeastSignificantBits());
+    putLong(row, SUBJECT, writeString(e.getSubject()));
+    putLong(row, DESCRIPTION, writeString(e.getDescription()));
+    putLong(row, LOCATION, writeString(e.getLocation()));
+    putLong(row, STATUS, writeString(e.getStatus()));
+
+    //the running maximum only grows by this event's end, from its record until a
+    //later record already reaches that far
+    long end = endOrStart(row);
+    putLong(row, MAX_END, row == 0 ? end : Math.max(getLong(row - 1, MAX_END), end));
+    for (int later = row + 1; later < size && getLong(later, MAX_END) < end; later++) {
+      putLong(later, MAX_END, end);
+    }
+  }
+
+  /**
+   * Adds a rule-based series.
+   *
+   * @param rule recurrence rule to add
+   */
+  public void addRule(RecurrenceRule rule) {
+    List<RecurrenceRule> updated = new ArrayList<>(rules);
+    updated.add(rule);
+    rules = List.copyOf(updated);
+  }
+
+  /**
+   * Returns the number of bytes of direct memory held for records and strings.
+   *
+   * @return allocated off-heap bytes
+   */
+  public long offHeapBytes() {
+    long bytes = (long) records.size() * (RECORD_BYTES << CHUNK_SHIFT);
+    for (ByteBuffer chunk : arena) {
+      bytes += chunk.capacity();
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns the number of stored events (not counting rule occurrences).
+   *
+   * @return number of stored events
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the rule-based series of the store.
+   *
+   * @return unmodifiable list of the recurrence rules
+   */
+  @Override
+  public List<RecurrenceRule> getRecurrenceRules() {
+    return rules;
+  }
+
+  @Override
+  public long getStartSecond(int row) {
+    return getLong(checkRow(row), START);
+  }
+
+  @Override
+  public long getEndSecond(int row) {
+    return getLong(checkRow(row), END);
+  }
+
+  @Override
+  public long getMaxEndSecond(int row) {
+    return getLong(checkRow(row), MAX_END);
+  }
+
+  @Override
+  public boolean subjectEquals(int row, String subject) {
+    byte[] utf8 = subject.getBytes(StandardCharsets.UTF_8);
+    return stringEquals(getLong(checkRow(row), SUBJECT), utf8);
+  }
+
+  @Override
+  public boolean identifierEquals(int row, UUID identifier) {
+    checkRow(row);
+    return identifier == null
+            ? getLong(row, ID_HIGH) == 0 && getLong(row, ID_LOW) == 0
+            : getLong(row, ID_HIGH) == identifier.getMostSignificantBits()
+                    && getLong(row, ID_LOW) == identifier.getLeastSignificantBits();
+  }
+
+  /**
+   * Builds the stored event at the given row.
+   *
+   * @param row index in start-time order
+   * @return the event
+   */
+  @Override
+  public Event event(int row) {
+    checkRow(row);
+    long high = getLong(row, ID_HIGH);
+    long low = getLong(row, ID_LOW);
+
+    return new Event(readString(getLong(row, SUBJECT)), Event.toDateTime(getLong(row, START)),
+            readString(getLong(row, DESCRIPTION)), Event.toDateTime(getLong(row, END)),
+            readString(getLong(row, LOCATION)), readString(getLong(row, STATUS)),
+            high == 0 && low == 0 ? null : new UUID(high, low));
+  }
+
+  // --- Helper methods ---
+
+  private int checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IllegalArgumentException("Row " + row + " is out of range.");
+    }
+    return row;
+  }
+
+  private long getLong(int row, int field) {
+    return records.get(row >>> CHUNK_SHIFT).getLong((row & CHUNK_MASK) * RECORD_BYTES + field);
+  }
+
+  private void putLong(int row, int field, long value) {
+    records.get(row >>> CHUNK_SHIFT).putLong((row & CHUNK_MASK) * RECORD_BYTES + field, value);
+  }
+
+  //records never overlap, so copying within one chunk is safe
+  private void copyRecord(int from, int to) {
+    records.get(to >>> CHUNK_SHIFT).put((to & CHUNK_MASK) * RECORD_BYTES,
+            records.get(from >>> CHUNK_SHIFT), (from & CHUNK_MASK) * RECORD_BYTES, RECORD_BYTES);
+  }
+
+  private long endOrStart(int row) {
+    return EventRows.endOrStart(getLong(row, START), getLong(row, END));
+  }
+
+  //arena reference: chunk index in the high 32 bits, position in the low 32 bits
+  private long writeString(String s) {
+    if (s == null) {
+      return NO_STRING;
+    }
+    Long cached = recent.get(s);
+    if (cached != null) {
+      return cached;
+    }
+
+    byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+    int needed = 4 + utf8.length;
+    ByteBuffer chunk = arena.isEmpty() ? null : arena.get(arena.size() - 1);
+    if (chunk == null || chunk.remaining() < needed) {
+      chunk = ByteBuffer.allocateDirect(Math.max(ARENA_CHUNK_BYTES, needed));
+      arena.add(chunk);
+    }
+
+    long ref = (long) (arena.size() - 1) << 32 | chunk.position();
+    chunk.putInt(utf8.length);
+    chunk.put(utf8);
+    recent.put(s, ref);
+    return ref;
+  }
+
+  private String readString(long ref) {
+    if (ref == NO_STRING) {
+      return null;
+    }
+    ByteBuffer chunk = arena.get((int) (ref >>> 32));
+    int position = (int) ref;
+    byte[] utf8 = new byte[chunk.getInt(position)];
+    chunk.get(position + 4, utf8);
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+
+  //compares a stored string with encoded bytes without building the string
+  private boolean stringEquals(long ref, byte[] utf8) {
+    if (ref == NO_STRING) {
+      return false;
+    }
+    ByteBuffer chunk = arena.get((int) (ref >>> 32));
+    int position = (int) ref;
+    if (chunk.getInt(position) != utf8.length) {
+      return false;
+    }
+    for (int i = 0; i < utf8.length; i++) {
+      if (chunk.get(position + 4 + i) != utf8[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,59 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for OffHeapEventStore.
+ */
+public class OffHeapEventStoreTest extends EventStoreTest {
+
+  //records per chunk and bytes per record and per arena chunk, as laid out by the store
+  private static final int CHUNK_RECORDS = 1 << 14;
+  private static final long RECORD_BYTES = 72;
+  private static final long ARENA_CHUNK_BYTES = 1 << 20;
+
+  @Override
+  protected EventStore copyOf(Collection<Event> events) {
+    return OffHeapEventStore.copyOf(events);
+  }
+
+  @Test
+  public void testStringsOfAnySizeRoundTrip() {
+    String cafe = "Caf\u00e9 \u2615";
+    //longer than one arena chunk
+    String longText = "\u00dcn\u00efc\u00f6d\u00e9 \u2713 ".repeat(200_000);
+    calendar.addSingleEvent(cafe, base.plusHours(9), base.plusHours(10), longText,
+            "Room 101", "private");
+    calendar.addSingleEvent("Dentist", base.plusHours(8), base.plusHours(9), null, null, null);
+
+    OffHeapEventStore store = OffHeapEventStore.copyOf(calendar.getStoredEvents());
+    CalendarManagement loaded = new CalendarManagement(store);
+
+    assertEquals(describe(calendar.getAllEvents()), describe(loaded.getAllEvents()));
+    assertEquals(cafe, store.event(1).getSubject());
+    assertTrue(store.subjectEquals(1, cafe));
+    assertEquals(longText, store.event(1).getDescription());
+    assertEquals(cafe, loaded.findEvent(cafe, base.plusHours(9)).getSubject());
+  }
+
+  @Test
+  public void testRecordsAndRepeatedStringsStayOffHeap() {
+    final int count = 3 * CHUNK_RECORDS;
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      events.add(event(i));
+    }
+
+    OffHeapEventStore store = OffHeapEventStore.copyOf(events);
+
+    assertEquals(count, store.size());
+    assertEquals(Event.toSecond(base), store.getStartSecond(0));
+    //three full record chunks, and one arena chunk for the 131 strings used over and over
+    assertEquals(count * RECORD_BYTES + ARENA_CHUNK_BYTES, store.offHeapBytes());
+  }
+}
@@ -1,4 +1,6 @@
 import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -180,6 +182,55 @@ public class ParsingTest {
     assertEquals(20, InputParsing.commandType(test));
   }
 
-
-
-}
\ No newline at end of file
+  @Test
+  public void testParseCommandArguments() {
+    assertArrayEquals(new String[]{"9", "location", "Lunch", "2025-06-05T12:15",
+        "2025-06-05T13:15", "Cafe"},
+            InputParsing.parseCommand("edit event location Lunch from 2025-06-05T12:15"
+                    + " to 2025-06-05T13:15 with Cafe"));
+    assertArrayEquals(new String[]{"16", "Work", "timezone", "Europe/Paris"},
+            InputParsing.parseCommand(
+                    "edit calendar --name Work --property timezone Europe/Paris"));
+    assertArrayEquals(new String[]{"0"}, InputParsing.parseCommand("exit"));
+    assertArrayEquals(new String[]{"-1"}, InputParsing.parseCommand("create event"));
+  }
+
+  @Test
+  public void testPlaceholderRules() {
+    String[][] cases = {
+        //number of times
+        {"7", "create event a on 2025-06-06 repeats S for 7 times"},
+        {"7", "create event a on 2025-06-06 repeats S for +7 times"},
+        {"-1", "create event a on 2025-06-06 repeats S for 0 times"},
+        {"-1", "create event a on 2025-06-06 repeats S for 00 times"},
+        {"-1", "create event a on 2025-06-06 repeats S for -3 times"},
+        {"-1", "create event a on 2025-06-06 repeats S for 2147483648 times"},
+        {"7", "create event a on 2025-06-06 repeats S for \u0661\u0662 times"},
+        //dates
+        {"12", "print events on 2024-02-29"},
+        {"-1", "print events on 2100-02-29"},
+        {"-1", "print events on 2025-02-29"},
+        {"-1", "print events on 2025-13-01"},
+        {"-1", "print events on 2025-04-31"},
+        {"12", "print events on +025-06-05"},
+        //date-times
+        {"14", "show status on 2025-06-05T24:60"},
+        {"14", "show status on 2025-06-05T14:15:30"},
+        {"-1", "show status on 2025-06-05T00:15"},
+        {"-1", "show status on 2025-06-05T25:10"},
+        {"-1", "show status on 2025-06-05T14:61"},
+        {"-1", "show status on 2025-06-05T14"},
+        //banks
+        {"10", "edit event location a from 2025-06-05T14:15 with b"},
+        {"-1", "edit event room a from 2025-06-05T14:15 with b"},
+        {"-1", "create event a on 2025-06-06 repeats X for 7 times"},
+        {"16", "edit calendar --name a --property name b"},
+        {"-1", "edit calendar --name a --property color b"}
+    };
+
+    for (String[] c : cases) {
+      assertEquals(c[1], Integer.parseInt(c[0]), InputParsing.commandType(c[1].split(" ")));
+      assertEquals(c[1], c[0], InputParsing.parseCommand(c[1])[0]);
+    }
+  }
+}
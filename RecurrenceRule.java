@@ -0,0 +1,490 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Class to represent a repeating event series without creating an Event for
+ * every occurrence. A rule stores the shared event fields once, together with the
+ * weekdays it repeats on, its time of day, the first and last possible dates and
+ * any dates that have been taken out of the series. Occurrences are only turned
+ * into Event objects for the time window a query asks for.
+ */
+public final class RecurrenceRule {
+
+  private static final long SECONDS_PER_DAY = 86400;
+
+  private final UUID identifier;
+  private final String subject;
+  private final String description;
+  private final String location;
+  private final String status;
+
+  private final LocalTime startTime;
+  private final LocalTime endTime;
+  private final LocalDate firstDate;
+  private final LocalDate lastDate;
+
+  //bit (DayOfWeek.getValue() - 1) is set for every weekday the series repeats on
+  private final int weekdayMask;
+
+  //dates of occurrences that are no longer part of the rule
+  private final Set<LocalDate> exceptions;
+
+  /**
+   * Constructor for a RecurrenceRule object.
+   *
+   * @param identifier  series identifier shared by all occurrences
+   * @param subject     of the events
+   * @param startTime   time of day the events start
+   * @param endTime     time of day the events end
+   * @param firstDate   first possible date of the series
+   * @param lastDate    last possible date of the series (inclusive)
+   * @param weekdays    days of the week the series repeats on
+   * @param description of the events
+   * @param location    of the events
+   * @param status      of the events; public or private
+   */
+  public RecurrenceRule(UUID identifier, String subject,
+                        LocalTime startTime, LocalTime endTime,
+                        LocalDate firstDate, LocalDate lastDate,
+                        Set<DayOfWeek> weekdays,
+                        String description, String location, String status) {
+    this.identifier = identifier;
+    this.subject = subject;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.firstDate = firstDate;
+    this.lastDate = lastDate;
+    this.description = description;
+    this.location = location;
+    this.status = status;
+    this.exceptions = new HashSet<>();
+
+    int mask = 0;
+    for (DayOfWeek day : weekdays) {
+      mask |= 1 << (day.getValue() - 1);
+    }
+    this.weekdayMask = mask;
+  }
+
+  //copy of a rule with a different set of exceptions
+  private RecurrenceRule(RecurrenceRule other, Set<LocalDate> exceptions) {
+    this(other, other.subject, other.description, other.location, other.status,
+            other.firstDate, other.lastDate, exceptions);
+  }
+
+  //copy of a rule with other event fields, dates and exceptions
+  private RecurrenceRule(RecurrenceRule other, String subject, String description,
+                         String location, String status,
+                         LocalDate firstDate, LocalDate lastDate, Set<LocalDate> exceptions) {
+    this.identifier = other.identifier;
+    this.subject = subject;
+    this.startTime = other.startTime;
+    this.endTime = other.endTime;
+    this.firstDate = firstDate;
+    this.lastDate = lastDate;
+    this.description = description;
+    this.location = location;
+    this.status = status;
+    this.weekdayMask = other.weekdayMask;
+    this.exceptions = exceptions;
+  }
+
+  /**
+   * Get the series identifier shared by all occurrences.
+   *
+   * @return series identifier
+   */
+  public UUID getIdentifier() {
+    return identifier;
+  }
+
+  /**
+   * Get subject of the events.
+   *
+   * @return event subject
+   */
+  public String getSubject() {
+    return subject;
+  }
+
+  /**
+   * Get description of the events.
+   *
+   * @return event description
+   */
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Get location of the events.
+   *
+   * @return event location
+   */
+  public String getLocation() {
+    return location;
+  }
+
+  /**
+   * Get status of the events.
+   *
+   * @return event status
+   */
+  public String getStatus() {
+    return status;
+  }
+
+  /**
+   * Get time of day the events start.
+   *
+   * @return start time
+   */
+  public LocalTime getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Get time of day the events end.
+   *
+   * @return end time
+   */
+  public LocalTime getEndTime() {
+    return endTime;
+  }
+
+  /**
+   * Get the days of the week the series repeats on.
+   *
+   * @return set of weekdays
+   */
+  public Set<DayOfWeek> getWeekdays() {
+    Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+    for (DayOfWeek day : DayOfWeek.values()) {
+      if ((weekdayMask & (1 << (day.getValue() - 1))) != 0) {
+        days.add(day);
+      }
+    }
+    return days;
+  }
+
+  /**
+   * Get first possible date of the series.
+   *
+   * @return first date
+   */
+  public LocalDate getFirstDate() {
+    return firstDate;
+  }
+
+  /**
+   * Get last possible date of the series (inclusive).
+   *
+   * @return last date
+   */
+  public LocalDate getLastDate() {
+    return lastDate;
+  }
+
+  /**
+   * Get the dates that have been taken out of the series.
+   *
+   * @return unmodifiable set of excluded dates
+   */
+  public Set<LocalDate> getExceptions() {
+    return Collections.unmodifiableSet(exceptions);
+  }
+
+  /**
+   * Returns a copy of this rule with the occurrence on the given date taken out
+   * of the series. Rules never change once created, so they can be shared safely.
+   *
+   * @param date of the occurrence to exclude
+   * @return rule without that occurrence
+   */
+  public RecurrenceRule withException(LocalDate date) {
+    Set<LocalDate> updated = new HashSet<>(exceptions);
+    updated.add(date);
+    return new RecurrenceRule(this, updated);
+  }
+
+  /**
+   * Returns a copy of this rule with other event fields. The dates, times and
+   * exceptions stay the same.
+   *
+   * @param subject     of the events
+   * @param description of the events
+   * @param location    of the events
+   * @param status      of the events
+   * @return rule with the given fields
+   */
+  public RecurrenceRule withDetails(String subject, String description,
+                                    String location, String status) {
+    return new RecurrenceRule(this, subject, description, location, status,
+            firstDate, lastDate, exceptions);
+  }
+
+  /**
+   * Returns the part of this series on the given dates (inclusive), under the
+   * same identifier. Used to split a series where part of it is edited.
+   *
+   * @param first first date to keep
+   * @param last  last date to keep
+   * @return rule with only the occurrences on those dates
+   */
+  public RecurrenceRule between(LocalDate first, LocalDate last) {
+    LocalDate from = first.isAfter(firstDate) ? first : firstDate;
+    LocalDate until = last.isBefore(lastDate) ? last : lastDate;
+    Set<LocalDate> kept = new HashSet<>();
+    for (LocalDate exception : exceptions) {
+      if (!exception.isBefore(from) && !exception.isAfter(until)) {
+        kept.add(exception);
+      }
+    }
+    return new RecurrenceRule(this, subject, description, location, status, from, until, kept);
+  }
+
+  /**
+   * Checks whether the series has an occurrence on the given date.
+   *
+   * @param date to check
+   * @return true if an occurrence falls on that date
+   */
+  public boolean occursOn(LocalDate date) {
+    return fitsPattern(date) && !exceptions.contains(date);
+  }
+
+  /**
+   * Checks whether the given event is one of this rule's occurrences.
+   *
+   * @param event to check
+   * @return true if the event has this series' identifier, subject and start time
+   */
+  public boolean isOccurrence(Event event) {
+    return identifier.equals(event.getIdentifier())
+            && subject.equals(event.getSubject())
+            && startsAt(event.getStartSecond());
+  }
+
+  /**
+   * Checks whether an occurrence starts exactly at the given date and time.
+   *
+   * @param start date and time to check
+   * @return true if an occurrence starts then
+   */
+  public boolean startsAt(LocalDateTime start) {
+    return startTime.equals(start.toLocalTime()) && occursOn(start.toLocalDate());
+  }
+
+  /**
+   * Checks whether an occurrence starts exactly at the given second, as returned
+   * by Event.getStartSecond, without creating a date and time for it.
+   *
+   * @param second start to check
+   * @return true if an occurrence starts then
+   */
+  public boolean startsAt(long second) {
+    return startTime.toSecondOfDay() == Math.floorMod(second, SECONDS_PER_DAY)
+            && occursOn(LocalDate.ofEpochDay(Math.floorDiv(second, SECONDS_PER_DAY)));
+  }
+
+  /**
+   * Checks whether an occurrence has the given subject, start and end.
+   *
+   * @param subject of the event
+   * @param start   time of the event
+   * @param end     time of the event
+   * @return true if that exact occurrence is part of the series
+   */
+  public boolean hasOccurrence(String subject, LocalDateTime start, LocalDateTime end) {
+    return this.subject.equals(subject)
+            && startsAt(start)
+            && LocalDateTime.of(start.toLocalDate(), endTime).equals(end);
+  }
+
+  /**
+   * Checks whether an occurrence has the given subject, start and end, with the
+   * times given as seconds like Event.getStartSecond and Event.getEndSecond.
+   *
+   * @param subject of the event
+   * @param start   second the event starts
+   * @param end     second the event ends
+   * @return true if that exact occurrence is part of the series
+   */
+  public boolean hasOccurrence(String subject, long start, long end) {
+    return this.subject.equals(subject)
+            && end - start == endTime.toSecondOfDay() - startTime.toSecondOfDay()
+            && startsAt(start);
+  }
+
+  /**
+   * Checks whether an occurrence is active at the given moment.
+   *
+   * @param dateTime the specific moment to check
+   * @return true if an occurrence starts at or before and ends after the moment
+   */
+  public boolean isActiveAt(LocalDateTime dateTime) {
+    LocalTime time = dateTime.toLocalTime();
+    return !time.isBefore(startTime)
+            && time.isBefore(endTime)
+            && occursOn(dateTime.toLocalDate());
+  }
+
+  /**
+   * Creates the event for the occurrence on the given date.
+   *
+   * @param date of the occurrence
+   * @return the occurrence as an Event
+   */
+  public Event occurrence(LocalDate date) {
+    return new Event.EventBuilder()
+            .subject(subject)
+            .start(LocalDateTime.of(date, startTime))
+            .end(LocalDateTime.of(date, endTime))
+            .description(description)
+            .location(location)
+            .status(status)
+            .identifier(identifier)
+            .build();
+  }
+
+  /**
+   * Returns the occurrences that overlap the given range (inclusive), in order.
+   *
+   * @param from start of the time range
+   * @param to   end of the time range
+   * @return list of occurrences that overlap with the given time range
+   */
+  public List<Event> expand(LocalDateTime from, LocalDateTime to) {
+    List<Event> result = new ArrayList<>();
+
+    LocalDate date = from.toLocalDate().isAfter(firstDate) ? from.toLocalDate() : firstDate;
+    LocalDate until = to.toLocalDate().isBefore(lastDate) ? to.toLocalDate() : lastDate;
+
+    while (!date.isAfter(until)) {
+      if (occursOn(date)) {
+        LocalDateTime start = LocalDateTime.of(date, startTime);
+        LocalDateTime end = LocalDateTime.of(date, endTime);
+        if (!end.isBefore(from) && !start.isAfter(to)) {
+          result.add(occurrence(date));
+        }
+      }
+      date = date.plusDays(1);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the first occurrences that start at or after the given moment, in order.
+   *
+   * @param from  earliest start time
+   * @param limit largest number of occurrences to return
+   * @return at most limit occurrences starting at or after from
+   */
+  public List<Event> startingFrom(LocalDateTime from, int limit) {
+    List<Event> result = new ArrayList<>();
+
+    LocalDate date = from.toLocalDate().isAfter(firstDate) ? from.toLocalDate() : firstDate;
+    while (result.size() < limit && !date.isAfter(lastDate)) {
+      if (occursOn(date) && !LocalDateTime.of(date, startTime).isBefore(from)) {
+        result.add(occurrence(date));
+      }
+      date = date.plusDays(1);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the last occurrences that start strictly before the given moment, in order.
+   *
+   * @param to    moment the occurrences start before
+   * @param limit largest number of occurrences to return
+   * @return at most limit occurrences starting before to
+   */
+  public List<Event> startingBefore(LocalDateTime to, int limit) {
+    List<Event> result = new ArrayList<>();
+
+    LocalDate date = to.toLocalDate().isBefore(lastDate) ? to.toLocalDate() : lastDate;
+    while (result.size() < limit && !date.isBefore(firstDate)) {
+      if (occursOn(date) && LocalDateTime.of(date, startTime).isBefore(to)) {
+        result.add(occurrence(date));
+      }
+      date = date.minusDays(1);
+    }
+
+    Collections.reverse(result);
+    return result;
+  }
+
+  /**
+   * Counts the occurrences that start strictly before the given moment. Whole
+   * weeks are counted at once, so this does not depend on the length of the series.
+   *
+   * @param to moment the occurrences start before
+   * @return number of occurrences starting before to
+   */
+  public long countStartingBefore(LocalDateTime to) {
+    LocalDate end = startTime.isBefore(to.toLocalTime())
+            ? to.toLocalDate() : to.toLocalDate().minusDays(1);
+    if (end.isAfter(lastDate)) {
+      end = lastDate;
+    }
+    if (end.isBefore(firstDate)) {
+      return 0;
+    }
+
+    long days = ChronoUnit.DAYS.between(firstDate, end) + 1;
+    long result = days / 7 * Integer.bitCount(weekdayMask);
+    LocalDate date = firstDate.plusDays(days - days % 7);
+    while (!date.isAfter(end)) {
+      if (fitsPattern(date)) {
+        result++;
+      }
+      date = date.plusDays(1);
+    }
+
+    for (LocalDate exception : exceptions) {
+      if (!exception.isAfter(end) && fitsPattern(exception)) {
+        result--;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Counts every occurrence of the series, by whole weeks like countStartingBefore.
+   *
+   * @return number of occurrences
+   */
+  public long size() {
+    return countStartingBefore(LocalDateTime.of(lastDate, LocalTime.MAX));
+  }
+
+  /**
+   * Returns every occurrence of the series, in order.
+   *
+   * @return list of all occurrences
+   */
+  public List<Event> expandAll() {
+    return expand(LocalDateTime.of(firstDate, LocalTime.MIN),
+            LocalDateTime.of(lastDate, LocalTime.MAX));
+  }
+
+  //whether the date is in range and on a repeating weekday, ignoring exceptions
+  private boolean fitsPattern(LocalDate date) {
+    return !date.isBefore(firstDate)
+            && !date.isAfter(lastDate)
+            && (weekdayMask & (1 << (date.getDayOfWeek().getValue() - 1))) != 0;
+  }
+}
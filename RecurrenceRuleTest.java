@@ -0,0 +1,123 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for RecurrenceRule.
+ */
+public class RecurrenceRuleTest {
+
+  private RecurrenceRule rule;
+  private LocalDate baseDate;
+
+  @Before
+  public void setUp() {
+    baseDate = LocalDate.of(2025, 6, 2); // Monday
+    rule = new RecurrenceRule(UUID.randomUUID(), "Standup",
+            LocalTime.of(9, 0), LocalTime.of(9, 15),
+            baseDate, baseDate.plusDays(13),
+            EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY),
+            "Daily sync", "Room 101", "public");
+  }
+
+  @Test
+  public void testExpandAll() {
+    List<Event> all = rule.expandAll();
+
+    assertEquals(6, all.size());
+    assertEquals(baseDate.atTime(9, 0), all.get(0).getStart());
+    assertEquals(baseDate.plusDays(11).atTime(9, 15), all.get(5).getEnd());
+    for (Event e : all) {
+      assertEquals(rule.getIdentifier(), e.getIdentifier());
+      assertEquals("Room 101", e.getLocation());
+    }
+  }
+
+  @Test
+  public void testExpandOnlyCoversWindow() {
+    List<Event> window = rule.expand(baseDate.plusDays(2).atTime(9, 15),
+            baseDate.plusDays(4).atTime(9, 0));
+
+    assertEquals(2, window.size());
+    assertEquals(baseDate.plusDays(2).atTime(9, 0), window.get(0).getStart());
+    assertEquals(baseDate.plusDays(4).atTime(9, 0), window.get(1).getStart());
+  }
+
+  @Test
+  public void testIsActiveAt() {
+    assertTrue(rule.isActiveAt(baseDate.atTime(9, 0)));
+    assertTrue(rule.isActiveAt(baseDate.plusDays(4).atTime(9, 14)));
+    assertFalse(rule.isActiveAt(baseDate.atTime(9, 15)));
+    assertFalse(rule.isActiveAt(baseDate.plusDays(1).atTime(9, 5)));
+    assertFalse(rule.isActiveAt(baseDate.plusDays(14).atTime(9, 5)));
+  }
+
+  @Test
+  public void testExceptions() {
+    RecurrenceRule updated = rule.withException(baseDate.plusDays(2));
+
+    assertFalse(updated.occursOn(baseDate.plusDays(2)));
+    assertFalse(updated.isActiveAt(baseDate.plusDays(2).atTime(9, 5)));
+    assertEquals(5, updated.expandAll().size());
+    assertEquals(6, rule.expandAll().size());
+  }
+
+  @Test
+  public void testIsOccurrence() {
+    Event occurrence = rule.occurrence(baseDate.plusDays(7));
+    assertTrue(rule.isOccurrence(occurrence));
+
+    Event other = new Event.EventBuilder()
+            .subject("Standup")
+            .start(LocalDateTime.of(baseDate.plusDays(7), LocalTime.of(9, 0)))
+            .end(LocalDateTime.of(baseDate.plusDays(7), LocalTime.of(9, 15)))
+            .identifier(UUID.randomUUID())
+            .build();
+    assertFalse(rule.isOccurrence(other));
+  }
+
+  @Test
+  public void testSecondsMatchDateTimes() {
+    for (int day = -1; day < 15; day++) {
+      LocalDateTime start = baseDate.plusDays(day).atTime(9, 0);
+      long second = Event.toSecond(start);
+      long end = Event.toSecond(start.plusMinutes(15));
+      assertEquals(rule.startsAt(start), rule.startsAt(second));
+      assertEquals(rule.hasOccurrence("Standup", start, start.plusMinutes(15)),
+              rule.hasOccurrence("Standup", second, end));
+      assertFalse(rule.startsAt(second + 60));
+      assertFalse(rule.hasOccurrence("Standup", second, end + 60));
+    }
+    assertTrue(rule.startsAt(Event.toSecond(baseDate.plusDays(4).atTime(9, 0))));
+  }
+
+  @Test
+  public void testSplitKeepsOccurrences() {
+    RecurrenceRule updated = rule.withException(baseDate.plusDays(2))
+            .withException(baseDate.plusDays(9));
+    RecurrenceRule earlier = updated.between(baseDate, baseDate.plusDays(6));
+    RecurrenceRule later = updated.between(baseDate.plusDays(7), baseDate.plusDays(30))
+            .withDetails("Planning", "Weekly plan", "Room 2", "private");
+
+    assertEquals(4, updated.size());
+    assertEquals(2, earlier.size());
+    assertEquals(2, later.size());
+    assertEquals(baseDate.plusDays(13), later.getLastDate());
+    assertEquals(1, later.getExceptions().size());
+    assertEquals(rule.getIdentifier(), later.getIdentifier());
+    assertEquals("Room 2", later.expandAll().get(0).getLocation());
+    assertEquals("Planning", later.expandAll().get(1).getSubject());
+    assertEquals(0, updated.between(baseDate.plusDays(14), baseDate.plusDays(20)).size());
+  }
+}
@@ -1,15 +1,16 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Class for initializing/running the calendar program.
@@ -19,6 +20,9 @@ public class RunCalendar {
   private static MultiCalendarManagement cList;
   private static MultiCalendarManagement.CalendarWithTimeZone currentCal;
   private static boolean inCal = false;
+  private static CalendarStore store;
+
+  private static final CommandRegistry HANDLERS = createHandlers();
 
   /**
    * Begins program; asks user to select interactive or headless mode.
@@ -27,8 +31,10 @@ public class RunCalendar {
     Scanner scanner = new Scanner(System.in);
 
     System.out.println("Select mode:");
-    System.out.println("  --mode interactive");
-    System.out.println("  --mode headless <filename>");
+    System.out.println("  --mode interactive [--store <directory>]"
+            + " [--storage heap|columnar|off-heap]");
+    System.out.println("  --mode headless <filename> [--store <directory>]"
+            + " [--storage heap|columnar|off-heap]");
     System.out.println("  --GUI Mode (just press enter)");
     System.out.print("> ");
 
@@ -41,10 +47,27 @@ public class RunCalendar {
     }
 
     else if (tokens.length >= 2 && tokens[0].equals("--mode")) {
-      if (tokens[1].equals("interactive")) {
-        runInteractive(scanner);
-      } else if (tokens[1].equals("headless") && tokens.length == 3) {
-        runHeadless(tokens[2]);
+      String directory = null;
+      CalendarStore.Storage storage = CalendarStore.Storage.HEAP;
+      int length = tokens.length;
+      //options come in pairs after the mode, in any order
+      while (length >= 4) {
+        String option = tokens[length - 2];
+        String value = tokens[length - 1];
+        if (option.equals("--store")) {
+          directory = value;
+        } else if (option.equals("--storage") && parseStorage(value) != null) {
+          storage = parseStorage(value);
+        } else {
+          break;
+        }
+        length -= 2;
+      }
+
+      if (tokens[1].equals("interactive") && length == 2) {
+        runInteractive(scanner, directory, storage);
+      } else if (tokens[1].equals("headless") && length == 3) {
+        runHeadless(tokens[2], directory, storage);
       } else {
         System.out.println("Invalid mode or missing filename for headless mode.");
       }
@@ -54,11 +77,25 @@ public class RunCalendar {
   }
 
 
-  private static void runInteractive(Scanner scanner) {
+  //storage named by the --storage option, such as off-heap; null if there is none
+  private static CalendarStore.Storage parseStorage(String name) {
+    for (CalendarStore.Storage storage : CalendarStore.Storage.values()) {
+      if (storage.name().replace('_', '-').equalsIgnoreCase(name)) {
+        return storage;
+      }
+    }
+    return null;
+  }
+
+  private static void runInteractive(Scanner scanner, String directory,
+                                     CalendarStore.Storage storage) {
     cList = new MultiCalendarManagement();
     MultiCalendarManagement.CalendarWithTimeZone placeholder =
             MultiCalendarManagement.createCalTimeZone();
     currentCal = placeholder;
+    if (!openStore(directory, storage)) {
+      return;
+    }
     boolean running = true;
     System.out.println("Interactive mode started. Type 'exit' to quit.");
     while (running) {
@@ -69,668 +106,488 @@ public class RunCalendar {
         System.out.println("Exiting program.");
         break;
       }
-      String[] parsed = InputParsing.parseCommand(line);
-      handleParsedCommand(parsed, cList);
+      executeCommand(InputParsing.parseTypedCommand(line));
     }
+    closeStore();
   }
 
-  private static void runHeadless(String filename) {
+  private static void runHeadless(String filename, String directory,
+                                  CalendarStore.Storage storage) {
     cList = new MultiCalendarManagement();
     MultiCalendarManagement.CalendarWithTimeZone placeholder =
             MultiCalendarManagement.createCalTimeZone();
     currentCal = placeholder;
+    if (!openStore(directory, storage)) {
+      return;
+    }
     System.out.println("Headless mode started. Reading from: " + filename);
     try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        line = line.trim();
-
-        if (line.isEmpty()) {
-          continue;
-        }
+      //parsing runs on the other cores; commands still run one at a time, in order
+      CommandPipeline pipeline = new CommandPipeline(
+              Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+      CommandPipeline.Result result = pipeline.run(reader, RunCalendar::executeCommand);
 
-        if (line.equals("exit")) {
-          System.out.println("Exiting program.");
-          break;
-        }
-        String[] parsed = InputParsing.parseCommand(line);
-        handleParsedCommand(parsed, cList);
+      if (result.isExited()) {
+        System.out.println("Exiting program.");
       }
-      if ((line = reader.readLine()) == null) {
+      if (result.isEndOfFile()) {
         System.out.println("No exit found and at end of file; ending program.");
       }
 
       System.out.println("Headless execution complete.");
+      System.out.println(String.format("Ran %d commands in %.1f ms (%.0f commands/sec).",
+              result.getCommands(), result.getElapsedNanos() / 1e6,
+              result.getCommandsPerSecond()));
+      printStringStats();
     } catch (IOException e) {
       System.out.println("Error reading file: " + e.getMessage());
     }
+    closeStore();
   }
 
-  private static void handleParsedCommand(String[] parsed, MultiCalendarManagement cList) {
-    switch (parsed[0]) {
-      case "-1":
-        System.out.println("Invalid command.");
-        break;
-
-      case "3": { // Add single event
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        String subject = parsed[1];
-        LocalDateTime start = InputParsing.createLocalDateTime(parsed[2]);
-        LocalDateTime end = InputParsing.createLocalDateTime(parsed[3]);
-
-        currentCal.cal.addSingleEvent(subject, start, end,
-                null, null, null);
-        System.out.println("Created event.");
-
-        break;
-      }
-
-      case "4": { // Add weekly event series by occurrences
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        String subject = parsed[1];
-        LocalDateTime start = InputParsing.createLocalDateTime(parsed[2]);
-        LocalDateTime end = InputParsing.createLocalDateTime(parsed[3]);
-        String days = parsed[4];
-        int times = Integer.parseInt(parsed[5]);
-
-        currentCal.cal.addEventSeriesByOccurrences(subject, start.toLocalTime(),
-                end.toLocalTime(), start.toLocalDate(),
-                days, times, null, null, null);
-        System.out.println("Created events.");
-
-        break;
-      }
-
-      case "5": { // Add weekly event series until a specific date
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        String subject = parsed[1];
-        LocalDateTime start = InputParsing.createLocalDateTime(parsed[2]);
-        LocalDateTime end = InputParsing.createLocalDateTime(parsed[3]);
-        String days = parsed[4];
-        LocalDate endDate = InputParsing.createLocalDate(parsed[5]);
-
-
-        try {
-          currentCal.cal.addEventSeriesUntilDate(subject, start.toLocalTime(),
-                  end.toLocalTime(), start.toLocalDate(), endDate, days,
-                  null, null, null);
-          System.out.println("Created events.");
-        } catch (IllegalArgumentException e) {
-          System.out.println("Error: " + e.getMessage());
-        }
-
-        break;
-      }
-
-
-      case "6": { // Create a single all-day event
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        String subject = parsed[1];
-        LocalDate day = InputParsing.createLocalDate(parsed[2]);
-
-        LocalDateTime start = day.atTime(8, 0, 0);
-        LocalDateTime end = day.atTime(17, 0, 0);
+  //how well the calendars' string dictionaries shared repeated subjects, locations and statuses
+  private static void printStringStats() {
+    long lookups = 0;
+    long hits = 0;
+    long saved = 0;
+    for (MultiCalendarManagement.CalendarWithTimeZone cal
+            : MultiCalendarManagement.getCalendars()) {
+      StringDictionary strings = MultiCalendarManagement.getCal(cal).getStringDictionary();
+      lookups += strings.getLookups();
+      hits += strings.getHits();
+      saved += strings.getSavedBytes();
+    }
 
-        currentCal.cal.addSingleEvent(subject, start, end, null, null, null);
-        System.out.println("Created all-day event.");
+    if (lookups > 0) {
+      System.out.println(String.format(
+              "Shared strings: %d of %d lookups hit (%.1f%%), about %d bytes saved.",
+              hits, lookups, 100.0 * hits / lookups, saved));
+    }
+  }
 
-        break;
+  //opens the store (if one was asked for) and recovers the calendars saved in it
+  private static boolean openStore(String directory, CalendarStore.Storage storage) {
+    if (directory == null) {
+      return true;
+    }
 
+    try {
+      store = new CalendarStore(Paths.get(directory), storage);
+      String current = store.loadSnapshot();
+      if (current != null) {
+        useCalendar(current);
       }
 
-      case "7": { //series of all day events by n times
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
+      //replay commands logged since the snapshot without repeating their output
+      List<Command> logged = store.readLog();
+      PrintStream console = System.out;
+      System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+      try {
+        for (Command command : logged) {
+          try {
+            runCommand(command);
+          } catch (RuntimeException e) {
+            //the command failed the same way when it was first run
+          }
         }
-
-        String subject = parsed[1];
-        LocalDate startDay = InputParsing.createLocalDate(parsed[2]);
-        String days = parsed[3];
-        int times = Integer.parseInt(parsed[4]);
-
-        currentCal.cal.addEventSeriesByOccurrences(subject, LocalTime.of(
-                8, 0, 0),
-                LocalTime.of(17, 0, 0), startDay, days,
-                times, null, null, null);
-
-        System.out.println("Create series of all-day events.");
-        break;
+      } finally {
+        System.setOut(console);
       }
 
-      case "8": { // series of all day events until date
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        String subject = parsed[1];
-        LocalDate startDay = InputParsing.createLocalDate(parsed[2]);
-        String days = parsed[3];
-        LocalDate until = InputParsing.createLocalDate(parsed[4]);
+      System.out.println("Loaded " + MultiCalendarManagement.getCalendarCount()
+              + " calendar(s) from: " + directory);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      System.out.println("Error opening store: " + e.getMessage());
+      store = null;
+      return false;
+    }
+  }
 
-        currentCal.cal.addEventSeriesUntilDate(subject, LocalTime.of(8, 0, 0),
-                LocalTime.of(17, 0, 0), startDay, until, days,
-                null, null, null);
-        System.out.println("Create series of all-day events.");
-        break;
+  //logs a state-changing command before running it, and snapshots when due
+  private static void executeCommand(Command command) {
+    if (store != null && command.changesCalendars()) {
+      try {
+        store.append(command);
+      } catch (IOException e) {
+        System.out.println("Error writing to store: " + e.getMessage());
+        return;
       }
+    }
 
+    runCommand(command);
 
-      case "9": { // Edit single event
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        String subject = parsed[2];
-        LocalDateTime time = InputParsing.createLocalDateTime(parsed[3]);
-        String property = parsed[1];
-        String newValue = parsed[4];
-
-        Optional<Event> match = currentCal.cal.getAllEvents().stream()
-                .filter(e -> e.getSubject().equalsIgnoreCase(subject)
-                        && e.getStart().equals(time)).findFirst();
-
-        if (match.isPresent()) {
-          Event updated = currentCal.cal.editSingleEvent(match.get(), property, newValue);
-          System.out.println("Updated event.");
-        } else {
-          System.out.println("No matching event found.");
-        }
-        break;
+    if (store != null && store.snapshotDue()) {
+      try {
+        store.writeSnapshot(currentCalendarName());
+      } catch (IOException e) {
+        System.out.println("Error writing snapshot: " + e.getMessage());
       }
+    }
+  }
 
-      case "10": { // Edit entire series
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        String subject = parsed[2];
-        LocalDateTime time = InputParsing.createLocalDateTime(parsed[3]);
-        String property = parsed[1];
-        String newValue = parsed[4];
-
-
-        Optional<Event> match = currentCal.cal.getAllEvents().stream()
-                .filter(e -> e.getSubject().equalsIgnoreCase(subject)
-                        && e.getStart().equals(time)).findFirst();
-
-
-        if (match.isPresent()) {
-          currentCal.cal.editEntireSeries(subject, time, property, newValue);
-          System.out.println("Edited entire series.");
-        } else {
-          System.out.println("No matching event found.");
-        }
-        break;
-      }
+  private static void closeStore() {
+    if (store == null) {
+      return;
+    }
 
-      case "11": { // Edit series from a date forward
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
+    try {
+      store.writeSnapshot(currentCalendarName());
+      store.close();
+    } catch (IOException e) {
+      System.out.println("Error writing snapshot: " + e.getMessage());
+    }
+    store = null;
+  }
 
-        String subject = parsed[2];
-        LocalDateTime time = InputParsing.createLocalDateTime(parsed[3]);
-        String property = parsed[1];
-        String newValue = parsed[4];
+  private static String currentCalendarName() {
+    return inCal ? MultiCalendarManagement.getName(currentCal) : null;
+  }
 
-        Optional<Event> match = currentCal.cal.getAllEvents().stream()
-                .filter(e -> e.getSubject().equalsIgnoreCase(subject)
-                        && e.getStart().equals(time)).findFirst();
+  private static void useCalendar(String name) {
+    MultiCalendarManagement.CalendarWithTimeZone cal = MultiCalendarManagement.getCalendar(name);
+    if (cal != null) {
+      currentCal = cal;
+      inCal = true;
+    }
+  }
 
+  //every command class and the method that runs it
+  private static CommandRegistry createHandlers() {
+    CommandRegistry handlers = new CommandRegistry();
+    handlers.register(Command.Invalid.class,
+            command -> System.out.println("Invalid command."));
+    handlers.register(Command.Unsupported.class,
+            command -> System.out.println("Unknown command code: " + command.getType()));
+    handlers.register(Command.CreateEvent.class, inCalendar(RunCalendar::createEvent));
+    handlers.register(Command.CreateSeries.class, inCalendar(RunCalendar::createSeries));
+    handlers.register(Command.CreateSeriesUntil.class,
+            inCalendar(RunCalendar::createSeriesUntil));
+    handlers.register(Command.CreateAllDayEvent.class,
+            inCalendar(RunCalendar::createAllDayEvent));
+    handlers.register(Command.CreateAllDaySeries.class,
+            inCalendar(RunCalendar::createAllDaySeries));
+    handlers.register(Command.CreateAllDaySeriesUntil.class,
+            inCalendar(RunCalendar::createAllDaySeriesUntil));
+    handlers.register(Command.EditEvent.class, inCalendar(RunCalendar::editEvent));
+    handlers.register(Command.EditEventFrom.class, inCalendar(RunCalendar::editEventFrom));
+    handlers.register(Command.EditSeries.class, inCalendar(RunCalendar::editSeries));
+    handlers.register(Command.PrintEventsOn.class, inCalendar(RunCalendar::printEventsOn));
+    handlers.register(Command.PrintEventsBetween.class,
+            inCalendar(RunCalendar::printEventsBetween));
+    handlers.register(Command.ShowStatus.class, inCalendar(RunCalendar::showStatus));
+    handlers.register(Command.CreateCalendar.class, RunCalendar::createCalendar);
+    handlers.register(Command.EditCalendar.class, RunCalendar::editCalendar);
+    handlers.register(Command.UseCalendar.class, RunCalendar::useCalendar);
+    handlers.register(Command.CopyEvent.class, inCalendar(RunCalendar::copyEvent));
+    handlers.register(Command.CopyEventsOn.class, inCalendar(RunCalendar::copyEventsOn));
+    handlers.register(Command.CopyEventsBetween.class,
+            inCalendar(RunCalendar::copyEventsBetween));
+    return handlers;
+  }
 
-        if (match.isPresent()) {
-          currentCal.cal.editSeriesFromDate(subject, time, property, newValue);
-          System.out.println("Edited future events in series.");
-        } else {
-          System.out.println("No matching event found.");
-        }
-        break;
+  //wraps a handler of a command that needs a calendar in use
+  private static <C extends Command> Consumer<C> inCalendar(Consumer<C> handler) {
+    return command -> {
+      if (!inCal) {
+        System.out.println("Calendar currently not in use; cannot run command.");
+        return;
       }
+      handler.accept(command);
+    };
+  }
 
-      case "12": { // Get events on a single date
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        LocalDate date = InputParsing.createLocalDate(parsed[1]);
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.plusDays(1).atStartOfDay().minusNanos(1);
+  private static void runCommand(Command command) {
+    if (!HANDLERS.dispatch(command)) {
+      System.out.println("Unknown command code: " + command.getType());
+    }
+  }
 
-        List<Event> events = currentCal.cal.getEventsBetween(start, end);
-        if (events.isEmpty()) {
-          System.out.println("No events on " + date);
-        } else {
-          events.forEach(e -> System.out.println("Event: " + e.getSubject() +
-                  " @ " + e.getStart()));
-        }
-        break;
-      }
+  private static void createEvent(Command.CreateEvent command) {
+    currentCal.cal.addSingleEvent(command.subject(), command.start(), command.end(),
+            null, null, null);
+    System.out.println("Created event.");
+  }
 
-      case "13": { // Get events between two dates
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
+  private static void createSeries(Command.CreateSeries command) {
+    LocalDateTime start = command.start();
+    currentCal.cal.addRecurringSeriesByOccurrences(command.subject(), start.toLocalTime(),
+            command.end().toLocalTime(), start.toLocalDate(),
+            command.weekdays(), command.occurrences(), null, null, null);
+    System.out.println("Created events.");
+  }
 
-        LocalDateTime from = InputParsing.createLocalDateTime(parsed[1]);
-        LocalDateTime to = InputParsing.createLocalDateTime(parsed[2]);
+  private static void createSeriesUntil(Command.CreateSeriesUntil command) {
+    LocalDateTime start = command.start();
+    try {
+      currentCal.cal.addRecurringSeriesUntilDate(command.subject(), start.toLocalTime(),
+              command.end().toLocalTime(), start.toLocalDate(), command.until(),
+              command.weekdays(), null, null, null);
+      System.out.println("Created events.");
+    } catch (IllegalArgumentException e) {
+      System.out.println("Error: " + e.getMessage());
+    }
+  }
 
-        List<Event> events = currentCal.cal.getEventsBetween(from, to);
-        if (events.isEmpty()) {
-          System.out.println("No events between " + from + " and " + to);
-        } else {
-          events.forEach(e -> System.out.println(
-                  "Event: " + e.getSubject() + " @ " + e.getStart()));
-        }
-        break;
-      }
+  private static void createAllDayEvent(Command.CreateAllDayEvent command) {
+    LocalDate day = command.date();
+    currentCal.cal.addSingleEvent(command.subject(), day.atTime(8, 0, 0), day.atTime(17, 0, 0),
+            null, null, null);
+    System.out.println("Created all-day event.");
+  }
 
-      case "14": { // Check status at a specific time
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
+  private static void createAllDaySeries(Command.CreateAllDaySeries command) {
+    currentCal.cal.addRecurringSeriesByOccurrences(command.subject(), LocalTime.of(8, 0, 0),
+            LocalTime.of(17, 0, 0), command.date(), command.weekdays(),
+            command.occurrences(), null, null, null);
+    System.out.println("Create series of all-day events.");
+  }
 
-        LocalDateTime dt = InputParsing.createLocalDateTime(parsed[1]);
-        boolean occupied = currentCal.cal.isTimeSlotOccupied(dt);
-        System.out.println("Status at " + dt + ": " + (occupied ? "Busy" : "Free"));
-        break;
-      }
+  private static void createAllDaySeriesUntil(Command.CreateAllDaySeriesUntil command) {
+    currentCal.cal.addRecurringSeriesUntilDate(command.subject(), LocalTime.of(8, 0, 0),
+            LocalTime.of(17, 0, 0), command.date(), command.until(), command.weekdays(),
+            null, null, null);
+    System.out.println("Create series of all-day events.");
+  }
 
-      case "15": { //create calendar
-        String name = parsed[1];
-        String tz = parsed[2];
-        CalendarManagement cal = new CalendarManagement();
+  private static void editEvent(Command.EditEvent command) {
+    Optional<Event> match = findEvent(command.subject(), command.start());
 
-        try {
-          MultiCalendarManagement.addCalendar(cal, tz, name);
-          System.out.println("Created calendar with name:" + name);
-          break;
-        } catch (IllegalArgumentException e) {
-          System.out.println("Error: either name is already taken or timezone is invalid.");
-        }
-        break;
-      }
+    if (match.isPresent()) {
+      currentCal.cal.editSingleEvent(match.get(), command.property(), command.newValue());
+      System.out.println("Updated event.");
+    } else {
+      System.out.println("No matching event found.");
+    }
+  }
 
-      case "16": { //edit calendar
-        String name = parsed[1];
-        String prop = parsed[2];
-        String newProp = parsed[3];
+  private static void editEventFrom(Command.EditEventFrom command) {
+    if (findEvent(command.subject(), command.start()).isPresent()) {
+      currentCal.cal.editEntireSeries(command.subject(), command.start(),
+              command.property(), command.newValue());
+      System.out.println("Edited entire series.");
+    } else {
+      System.out.println("No matching event found.");
+    }
+  }
 
-        boolean doesExist = MultiCalendarManagement.checkName(name);
+  private static void editSeries(Command.EditSeries command) {
+    if (findEvent(command.subject(), command.start()).isPresent()) {
+      currentCal.cal.editSeriesFromDate(command.subject(), command.start(),
+              command.property(), command.newValue());
+      System.out.println("Edited future events in series.");
+    } else {
+      System.out.println("No matching event found.");
+    }
+  }
 
-        if (!doesExist) {
-          System.out.println("Error: calendar doesn't exist.");
-          break;
-        }
+  //event in the current calendar with the subject (ignoring case) starting at the time
+  private static Optional<Event> findEvent(String subject, LocalDateTime start) {
+    return Optional.ofNullable(currentCal.cal.findEventIgnoreCase(subject, start));
+  }
 
-        for (MultiCalendarManagement.CalendarWithTimeZone cal :
-                MultiCalendarManagement.CALENDAR_LIST) {
-          if (MultiCalendarManagement.getName(cal).equals(name)) {
-            if (prop.equalsIgnoreCase("timezone")) {
-              try {
-                MultiCalendarManagement.editTimeZone(
-                        MultiCalendarManagement.getCal(cal),
-                        MultiCalendarManagement.getTime(cal),
-                        MultiCalendarManagement.getName(cal),
-                        newProp
-                );
-                System.out.println("Time zone updated.");
-                break;
-              } catch (IllegalArgumentException e) {
-                System.out.println("Error: " + e.getMessage());
-              }
-
-            } else if (prop.equalsIgnoreCase("name")) {
-              try {
-                MultiCalendarManagement mgmt = new MultiCalendarManagement();
-                mgmt.editName(cal, newProp);
-                System.out.println("Calendar name updated.");
-                break;
-              } catch (IllegalArgumentException e) {
-                System.out.println("Error: " + e.getMessage());
-              }
-            } else {
-              System.out.println("Error.");
-            }
-            break;
-          }
-        }
-        break;
-      }
+  private static void printEventsOn(Command.PrintEventsOn command) {
+    LocalDate date = command.date();
+    LocalDateTime start = date.atStartOfDay();
+    LocalDateTime end = date.plusDays(1).atStartOfDay().minusNanos(1);
 
+    List<Event> events = currentCal.cal.getEventsBetween(start, end);
+    if (events.isEmpty()) {
+      System.out.println("No events on " + date);
+    } else {
+      events.forEach(e -> System.out.println("Event: " + e.getSubject() +
+              " @ " + e.getStart()));
+    }
+  }
 
-      case "17": { //use calendar
-        String name = parsed[1];
+  private static void printEventsBetween(Command.PrintEventsBetween command) {
+    LocalDateTime from = command.from();
+    LocalDateTime to = command.to();
 
-        boolean doesExist = MultiCalendarManagement.checkName(name);
+    List<Event> events = currentCal.cal.getEventsBetween(from, to);
+    if (events.isEmpty()) {
+      System.out.println("No events between " + from + " and " + to);
+    } else {
+      events.forEach(e -> System.out.println(
+              "Event: " + e.getSubject() + " @ " + e.getStart()));
+    }
+  }
 
-        if (!doesExist) {
-          System.out.println("Error: calendar doesn't exist");
-          break;
-        }
+  private static void showStatus(Command.ShowStatus command) {
+    LocalDateTime dt = command.time();
+    boolean occupied = currentCal.cal.isTimeSlotOccupied(dt);
+    System.out.println("Status at " + dt + ": " + (occupied ? "Busy" : "Free"));
+  }
 
-        if (currentCal.cal != null) {
-          saveCalendar(currentCal.cal);
-          System.out.println("Saved current calendar data.");
-        }
+  private static void createCalendar(Command.CreateCalendar command) {
+    try {
+      MultiCalendarManagement.addCalendar(new CalendarManagement(), command.timeZone(),
+              command.name());
+      System.out.println("Created calendar with name:" + command.name());
+    } catch (IllegalArgumentException e) {
+      System.out.println("Error: either name is already taken or timezone is invalid.");
+    }
+  }
 
-        for (MultiCalendarManagement.CalendarWithTimeZone cal :
-                MultiCalendarManagement.CALENDAR_LIST) {
-          if (MultiCalendarManagement.getName(cal).equals(name)) {
-            currentCal.cal = MultiCalendarManagement.getCal(cal);
-            inCal = true;
-            System.out.println("Switched to calendar: " + name);
-            break;
-          }
-        }
+  private static void editCalendar(Command.EditCalendar command) {
+    String name = command.name();
+    String prop = command.property();
+    String newProp = command.newValue();
 
+    if (!MultiCalendarManagement.checkName(name)) {
+      System.out.println("Error: calendar doesn't exist.");
+      return;
+    }
 
-        break;
+    if (prop.equalsIgnoreCase("timezone")) {
+      try {
+        MultiCalendarManagement.changeTimeZone(name, newProp);
+        System.out.println("Time zone updated.");
+      } catch (IllegalArgumentException e) {
+        System.out.println("Error: " + e.getMessage());
       }
-
-      case "18": { // copy single event
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        String eventName = parsed[1];
-        LocalDateTime originalStart = InputParsing.createLocalDateTime(parsed[2]);
-        String targetCalName = parsed[3];
-        LocalDateTime newStart = InputParsing.createLocalDateTime(parsed[4]);
-
-        boolean exists = MultiCalendarManagement.checkName(targetCalName);
-        if (!exists) {
-          System.out.println("Error: target calendar doesn't exist.");
-          break;
-        }
-
-        Optional<Event> match = currentCal.cal.getAllEvents().stream()
-                .filter(e -> e.getSubject().equalsIgnoreCase(eventName) &&
-                        e.getStart().equals(originalStart)).findFirst();
-
-        if (match.isEmpty()) {
-          System.out.println("Error: source event not found.");
-          break;
-        }
-
-        Event sourceEvent = match.get();
-        LocalDateTime newEnd = newStart.plusSeconds(
-                java.time.Duration.between(sourceEvent.getStart(),
-                        sourceEvent.getEnd()).getSeconds()
-        );
-
-
-        CalendarManagement targetCal = null;
-        for (MultiCalendarManagement.CalendarWithTimeZone cal :
-                MultiCalendarManagement.CALENDAR_LIST) {
-
-          if (MultiCalendarManagement.getName(cal).equals(targetCalName)) {
-            targetCal = MultiCalendarManagement.getCal(cal);
-            break;
-          }
-        }
-
-        if (targetCal == null) {
-          System.out.println("Error: target calendar not resolved.");
-          break;
-        }
-
-        boolean conflict = targetCal.getAllEvents().stream()
-                .anyMatch(e -> e.getSubject().equalsIgnoreCase(eventName) &&
-                        e.getStart().equals(newStart));
-
-        if (conflict) {
-          System.out.println("Conflict: event with same name already exists.");
-          break;
-        }
-
-        targetCal.addSingleEvent(eventName, newStart, newEnd,
-                null, null, null);
-        System.out.println("Event copied to calendar '" + targetCalName +
-                "' at " + newStart);
-        break;
+    } else if (prop.equalsIgnoreCase("name")) {
+      try {
+        MultiCalendarManagement.renameCalendar(name, newProp);
+        System.out.println("Calendar name updated.");
+      } catch (IllegalArgumentException e) {
+        System.out.println("Error: " + e.getMessage());
       }
+    } else {
+      System.out.println("Error.");
+    }
+  }
 
-      case "19": { // copy entire day of events
-
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-
-        LocalDate from = InputParsing.createLocalDate(parsed[1]);
-        String targetCalName = parsed[2];
-        LocalDate to = InputParsing.createLocalDate(parsed[3]);
-
-
-        boolean exists = MultiCalendarManagement.checkName(targetCalName);
-        if (!exists) {
-          System.out.println("Error: target calendar doesn't exist.");
-          break;
-        }
-
-        // Find target calendar object and timezone
-        MultiCalendarManagement.CalendarWithTimeZone targetCalWTZ = null;
-        for (MultiCalendarManagement.CalendarWithTimeZone cal :
-                MultiCalendarManagement.CALENDAR_LIST) {
-          if (MultiCalendarManagement.getName(cal).equals(targetCalName)) {
-            targetCalWTZ = cal;
-            break;
-          }
-        }
-
-        //find current calendar and tz
-        MultiCalendarManagement.CalendarWithTimeZone currentCal = null;
-        for (MultiCalendarManagement.CalendarWithTimeZone cal :
-                MultiCalendarManagement.CALENDAR_LIST) {
-          if (MultiCalendarManagement.getName(cal).equals(targetCalName)) {
-            currentCal = cal;
-            break;
-          }
-        }
+  private static void useCalendar(Command.UseCalendar command) {
+    String name = command.name();
+    MultiCalendarManagement.CalendarWithTimeZone cal = MultiCalendarManagement.getCalendar(name);
 
+    if (cal == null) {
+      System.out.println("Error: calendar doesn't exist");
+      return;
+    }
 
-        CalendarManagement targetCal = MultiCalendarManagement.getCal(targetCalWTZ);
-        ZoneId targetZone = ZoneId.of(MultiCalendarManagement.getTime(targetCalWTZ));
+    if (currentCal.cal != null) {
+      saveCalendar(currentCal.cal);
+      System.out.println("Saved current calendar data.");
+    }
 
-        ZoneId sourceZone = ZoneId.of(MultiCalendarManagement.getTime(currentCal));
+    currentCal = cal;
+    inCal = true;
+    System.out.println("Switched to calendar: " + name);
+  }
 
-        // Filter events on 'from' date in source calendar
-        List<Event> eventsToCopy = currentCal.cal.getAllEvents().stream()
-                .filter(e -> e.getStart().toLocalDate().equals(from))
-                .collect(Collectors.toList());
+  private static void copyEvent(Command.CopyEvent command) {
+    String eventName = command.subject();
+    String targetCalName = command.target();
+    LocalDateTime newStart = command.targetStart();
 
-        if (eventsToCopy.isEmpty()) {
-          System.out.println("No events found on " + from + " to copy.");
-          break;
-        }
+    MultiCalendarManagement.CalendarWithTimeZone targetCalWTZ =
+            MultiCalendarManagement.getCalendar(targetCalName);
+    if (targetCalWTZ == null) {
+      System.out.println("Error: target calendar doesn't exist.");
+      return;
+    }
 
-        for (Event e : eventsToCopy) {
-          String subject = e.getSubject();
+    Optional<Event> match = findEvent(eventName, command.start());
+    if (match.isEmpty()) {
+      System.out.println("Error: source event not found.");
+      return;
+    }
 
-          // Calculate new start and end in source zone but change date to 'to'
-          LocalTime startTime = e.getStart().toLocalTime();
-          LocalTime endTime = e.getEnd().toLocalTime();
+    Event sourceEvent = match.get();
+    LocalDateTime newEnd = newStart.plusSeconds(
+            sourceEvent.getEndSecond() - sourceEvent.getStartSecond());
 
-          // Original datetime in source zone
-          ZonedDateTime originalStartZoned = ZonedDateTime.of(from, startTime, sourceZone);
-          ZonedDateTime originalEndZoned = ZonedDateTime.of(from, endTime, sourceZone);
+    CalendarManagement targetCal = MultiCalendarManagement.getCal(targetCalWTZ);
 
-          // Convert to target timezone
-          ZonedDateTime targetStartZoned = originalStartZoned.withZoneSameInstant(targetZone);
-          ZonedDateTime targetEndZoned = originalEndZoned.withZoneSameInstant(targetZone);
+    //only events running at the new start can start there
+    long newStartSecond = Event.toSecond(newStart);
+    boolean conflict = targetCal.getEventsBetween(newStart, newStart).stream()
+            .anyMatch(e -> e.getStartSecond() == newStartSecond &&
+                    e.getSubject().equalsIgnoreCase(eventName));
 
-          // Replace date with 'to' (target date)
-          targetStartZoned = targetStartZoned.withYear(to.getYear()).withMonth(to.getMonthValue())
-                  .withDayOfMonth(to.getDayOfMonth());
-          targetEndZoned = targetEndZoned.withYear(to.getYear()).withMonth(to.getMonthValue())
-                  .withDayOfMonth(to.getDayOfMonth());
+    if (conflict) {
+      System.out.println("Conflict: event with same name already exists.");
+      return;
+    }
 
-          LocalDateTime newStart = targetStartZoned.toLocalDateTime();
-          LocalDateTime newEnd = targetEndZoned.toLocalDateTime();
+    targetCal.addSingleEvent(eventName, newStart, newEnd,
+            null, null, null);
+    System.out.println("Event copied to calendar '" + targetCalName +
+            "' at " + newStart);
+  }
 
-          // Check for conflict in target calendar
-          boolean conflict = targetCal.getAllEvents().stream()
-                  .anyMatch(ev -> ev.getSubject().equalsIgnoreCase(subject) &&
-                          ev.getStart().equals(newStart));
+  private static void copyEventsOn(Command.CopyEventsOn command) {
+    LocalDate from = command.date();
 
-          if (conflict) {
-            System.out.println("Conflict: event '" + subject +
-                    "' already exists at " + newStart + " in target calendar. Skipping.");
-            continue;
-          }
+    MultiCalendarManagement.CalendarWithTimeZone targetCalWTZ =
+            MultiCalendarManagement.getCalendar(command.target());
+    if (targetCalWTZ == null) {
+      System.out.println("Error: target calendar doesn't exist.");
+      return;
+    }
 
-          // Copy event details (description, location, etc.) if available
-          targetCal.addSingleEvent(subject, newStart, newEnd,
-                  e.getDescription(), e.getLocation(), e.getStatus());
+    List<CalendarManagement.CopyResult> results = copyEvents(from, from, targetCalWTZ,
+            command.targetDate());
+    if (results.isEmpty()) {
+      System.out.println("No events found on " + from + " to copy.");
+      return;
+    }
 
-          System.out.println("Copied event.");
-        }
-        break;
+    for (CalendarManagement.CopyResult result : results) {
+      if (result.isCopied()) {
+        System.out.println("Copied event.");
+      } else {
+        printCopyConflict(result.getEvent());
       }
+    }
+  }
 
-      case "20": { // copy more than a day of events
-        if (!inCal) {
-          System.out.println("Calendar currently not in use; cannot run command.");
-          break;
-        }
-
-        LocalDate startCopyDate = InputParsing.createLocalDate(parsed[1]);
-        LocalDate endCopyDate = InputParsing.createLocalDate(parsed[2]);
-        String targetCalName = parsed[3];
-        LocalDate newStartDate = InputParsing.createLocalDate(parsed[4]);
-
-        if (endCopyDate.isBefore(startCopyDate)) {
-          System.out.println("Error: end date must not be before start date.");
-          break;
-        }
-
-        boolean exists = MultiCalendarManagement.checkName(targetCalName);
-        if (!exists) {
-          System.out.println("Error: target calendar doesn't exist.");
-          break;
-        }
-
-        MultiCalendarManagement.CalendarWithTimeZone targetCalWTZ = null;
-        for (MultiCalendarManagement.CalendarWithTimeZone cal :
-                MultiCalendarManagement.CALENDAR_LIST) {
-          if (MultiCalendarManagement.getName(cal).equals(targetCalName)) {
-            targetCalWTZ = cal;
-            break;
-          }
-        }
-
-        MultiCalendarManagement.CalendarWithTimeZone currentCalWTZ = null;
-        for (MultiCalendarManagement.CalendarWithTimeZone cal :
-                MultiCalendarManagement.CALENDAR_LIST) {
-          if (MultiCalendarManagement.getCal(cal) == currentCal.cal) {
-            currentCalWTZ = cal;
-            break;
-          }
-        }
-
-        if (targetCalWTZ == null || currentCalWTZ == null) {
-          System.out.println("Error: calendar resolution failed.");
-          break;
-        }
-
-        CalendarManagement targetCal = MultiCalendarManagement.getCal(targetCalWTZ);
-        ZoneId sourceZone = ZoneId.of(MultiCalendarManagement.getTime(currentCalWTZ));
-        ZoneId targetZone = ZoneId.of(MultiCalendarManagement.getTime(targetCalWTZ));
-
-        long totalDays = java.time.temporal.ChronoUnit.DAYS.between(startCopyDate, endCopyDate) + 1;
-
-        for (int i = 0; i < totalDays; i++) {
-          LocalDate currentSourceDate = startCopyDate.plusDays(i);
-          LocalDate currentTargetDate = newStartDate.plusDays(i);
-
-          List<Event> dayEvents = currentCal.cal.getAllEvents().stream()
-                  .filter(e -> e.getStart().toLocalDate().equals(currentSourceDate))
-                  .collect(Collectors.toList());
-
-          for (Event e : dayEvents) {
-            String subject = e.getSubject();
-            LocalTime startTime = e.getStart().toLocalTime();
-            LocalTime endTime = e.getEnd().toLocalTime();
-
-            // Time in source time zone
-            ZonedDateTime originalStartZoned = ZonedDateTime.of(currentSourceDate,
-                    startTime, sourceZone);
-            ZonedDateTime originalEndZoned = ZonedDateTime.of(currentSourceDate,
-                    endTime, sourceZone);
-
-            // Convert to target zone
-            ZonedDateTime targetStartZoned = originalStartZoned.withZoneSameInstant(targetZone)
-                    .withYear(currentTargetDate.getYear())
-                    .withMonth(currentTargetDate.getMonthValue())
-                    .withDayOfMonth(currentTargetDate.getDayOfMonth());
-
-            ZonedDateTime targetEndZoned = originalEndZoned.withZoneSameInstant(targetZone)
-                    .withYear(currentTargetDate.getYear())
-                    .withMonth(currentTargetDate.getMonthValue())
-                    .withDayOfMonth(currentTargetDate.getDayOfMonth());
-
-            LocalDateTime newStart = targetStartZoned.toLocalDateTime();
-            LocalDateTime newEnd = targetEndZoned.toLocalDateTime();
-
-            boolean conflict = targetCal.getAllEvents().stream()
-                    .anyMatch(ev -> ev.getSubject().equalsIgnoreCase(subject) &&
-                            ev.getStart().equals(newStart));
-
-            if (conflict) {
-              System.out.println("Conflict: event '" + subject +
-                      "' already exists at " + newStart + " in target calendar. Skipping.");
-              continue;
-            }
-
-            targetCal.addSingleEvent(subject, newStart, newEnd,
-                    e.getDescription(), e.getLocation(), e.getStatus());
+  private static void copyEventsBetween(Command.CopyEventsBetween command) {
+    if (command.to().isBefore(command.from())) {
+      System.out.println("Error: end date must not be before start date.");
+      return;
+    }
 
-            System.out.println("Copied event '" + subject + "' to " + newStart);
-          }
-        }
+    MultiCalendarManagement.CalendarWithTimeZone targetCalWTZ =
+            MultiCalendarManagement.getCalendar(command.target());
+    if (targetCalWTZ == null) {
+      System.out.println("Error: target calendar doesn't exist.");
+      return;
+    }
 
-        break;
+    for (CalendarManagement.CopyResult result : copyEvents(command.from(), command.to(),
+            targetCalWTZ, command.targetDate())) {
+      Event copy = result.getEvent();
+      if (result.isCopied()) {
+        System.out.println("Copied event '" + copy.getSubject() + "' to " + copy.getStart());
+      } else {
+        printCopyConflict(copy);
       }
-
-      default:
-        System.out.println("Unknown command code: " + parsed[0]);
     }
+  }
+
+  //copy days of the current calendar into the target in one bulk operation
+  private static List<CalendarManagement.CopyResult> copyEvents(
+          LocalDate from, LocalDate to,
+          MultiCalendarManagement.CalendarWithTimeZone targetCalWTZ, LocalDate targetStart) {
+    return currentCal.cal.copyEventsBetween(from, to,
+            MultiCalendarManagement.getZoneId(currentCal),
+            MultiCalendarManagement.getCal(targetCalWTZ), targetStart,
+            MultiCalendarManagement.getZoneId(targetCalWTZ));
+  }
 
+  private static void printCopyConflict(Event copy) {
+    System.out.println("Conflict: event '" + copy.getSubject() +
+            "' already exists at " + copy.getStart() + " in target calendar. Skipping.");
   }
-  
+
   private static void saveCalendar(CalendarManagement calendar) {
-    for (MultiCalendarManagement.CalendarWithTimeZone cwtz :
-            MultiCalendarManagement.CALENDAR_LIST) {
-      if (MultiCalendarManagement.getCal(cwtz) == calendar) {
-        MultiCalendarManagement.editCalendar(cwtz, calendar);
-        break;
-      }
+    //the placeholder used before any calendar is chosen is not registered
+    if (MultiCalendarManagement.getCalendar(MultiCalendarManagement.getName(currentCal))
+            == currentCal) {
+      MultiCalendarManagement.editCalendar(currentCal, calendar);
     }
   }
 
@@ -0,0 +1,274 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Class to hold the result of scanning one command with CommandScanner.
+ * Arguments are kept as positions in the scanned text, and dates, date-times and
+ * numbers are kept as already decoded int fields, so nothing has to be parsed
+ * again. The same object is meant to be reused for every command, which is why
+ * a scan overwrites it instead of creating a new one; Strings and date objects
+ * are only created when a getter asks for them.
+ */
+public class ScannedCommand {
+
+  /**
+   * Largest number of arguments any command has.
+   */
+  public static final int MAX_ARGUMENTS = 5;
+
+  /**
+   * What kind of value an argument holds.
+   */
+  public enum Kind {
+    /** Any text, such as a subject, property or calendar name. */
+    TEXT,
+    /** A date (yyyy-MM-dd). */
+    DATE,
+    /** A date and time (yyyy-MM-ddThh:mm). */
+    DATE_TIME,
+    /** A positive whole number. */
+    NUMBER
+  }
+
+  private CharSequence input;
+  private int type;
+  private int count;
+
+  private final int[] starts = new int[MAX_ARGUMENTS];
+  private final int[] ends = new int[MAX_ARGUMENTS];
+  private final Kind[] kinds = new Kind[MAX_ARGUMENTS];
+
+  //decoded fields of each argument; only meaningful for the matching kind
+  private final int[] years = new int[MAX_ARGUMENTS];
+  private final int[] months = new int[MAX_ARGUMENTS];
+  private final int[] days = new int[MAX_ARGUMENTS];
+  private final int[] hours = new int[MAX_ARGUMENTS];
+  private final int[] minutes = new int[MAX_ARGUMENTS];
+  private final int[] numbers = new int[MAX_ARGUMENTS];
+
+  /**
+   * Constructor for an empty ScannedCommand.
+   */
+  public ScannedCommand() {
+    this.input = "";
+    this.type = -1;
+    this.count = 0;
+  }
+
+  /**
+   * Get the command type, as numbered in InputParsing.COMMAND_BANK.
+   *
+   * @return command type; -1 if the text was not a valid command
+   */
+  public int getType() {
+    return type;
+  }
+
+  /**
+   * Get number of arguments of the command.
+   *
+   * @return number of arguments
+   */
+  public int getArgumentCount() {
+    return count;
+  }
+
+  /**
+   * Get what kind of value an argument holds.
+   *
+   * @param i index of the argument
+   * @return kind of the argument
+   */
+  public Kind getKind(int i) {
+    return kinds[check(i)];
+  }
+
+  /**
+   * Get the text of an argument. Creates a new String.
+   *
+   * @param i index of the argument
+   * @return argument text
+   */
+  public String getArgument(int i) {
+    check(i);
+    return input.subSequence(starts[i], ends[i]).toString();
+  }
+
+  /**
+   * Checks whether an argument has exactly the given text, without creating a String.
+   *
+   * @param i    index of the argument
+   * @param text to compare with
+   * @return true if the argument equals the text
+   */
+  public boolean argumentEquals(int i, String text) {
+    check(i);
+    if (ends[i] - starts[i] != text.length()) {
+      return false;
+    }
+    for (int k = 0; k < text.length(); k++) {
+      if (input.charAt(starts[i] + k) != text.charAt(k)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get year of a date or date-time argument.
+   *
+   * @param i index of the argument
+   * @return year
+   */
+  public int getYear(int i) {
+    return years[checkDate(i)];
+  }
+
+  /**
+   * Get month of a date or date-time argument.
+   *
+   * @param i index of the argument
+   * @return month, from 1 to 12
+   */
+  public int getMonth(int i) {
+    return months[checkDate(i)];
+  }
+
+  /**
+   * Get day of the month of a date or date-time argument.
+   *
+   * @param i index of the argument
+   * @return day of the month
+   */
+  public int getDay(int i) {
+    return days[checkDate(i)];
+  }
+
+  /**
+   * Get hour of a date-time argument.
+   *
+   * @param i index of the argument
+   * @return hour
+   */
+  public int getHour(int i) {
+    return hours[checkKind(i, Kind.DATE_TIME)];
+  }
+
+  /**
+   * Get minute of a date-time argument.
+   *
+   * @param i index of the argument
+   * @return minute
+   */
+  public int getMinute(int i) {
+    return minutes[checkKind(i, Kind.DATE_TIME)];
+  }
+
+  /**
+   * Get value of a number argument.
+   *
+   * @param i index of the argument
+   * @return the number
+   */
+  public int getNumber(int i) {
+    return numbers[checkKind(i, Kind.NUMBER)];
+  }
+
+  /**
+   * Builds the date of a date or date-time argument.
+   *
+   * @param i index of the argument
+   * @return the date
+   */
+  public LocalDate getDate(int i) {
+    checkDate(i);
+    return LocalDate.of(years[i], months[i], days[i]);
+  }
+
+  /**
+   * Builds the date and time of a date-time argument, the same way
+   * InputParsing.createLocalDateTime would.
+   *
+   * @param i index of the argument
+   * @return the date and time
+   */
+  public LocalDateTime getDateTime(int i) {
+    checkKind(i, Kind.DATE_TIME);
+    return LocalDateTime.of(years[i], months[i], days[i], hours[i], minutes[i]);
+  }
+
+  /**
+   * Returns the command in the form returned by InputParsing.parseCommand:
+   * the command type followed by the argument texts.
+   *
+   * @return array of command type and arguments
+   */
+  public String[] toParsedArray() {
+    String[] parsed = new String[count + 1];
+    parsed[0] = String.valueOf(type);
+    for (int i = 0; i < count; i++) {
+      parsed[i + 1] = getArgument(i);
+    }
+    return parsed;
+  }
+
+  // --- Methods used by CommandScanner ---
+
+  //clear the result before scanning new text
+  void reset(CharSequence input) {
+    this.input = input;
+    this.type = -1;
+    this.count = 0;
+  }
+
+  void setType(int type) {
+    this.type = type;
+  }
+
+  //add an argument and return its index
+  int addArgument(int start, int end, Kind kind) {
+    int i = count++;
+    starts[i] = start;
+    ends[i] = end;
+    kinds[i] = kind;
+    return i;
+  }
+
+  void setDate(int i, int year, int month, int day) {
+    years[i] = year;
+    months[i] = month;
+    days[i] = day;
+  }
+
+  void setTime(int i, int hour, int minute) {
+    hours[i] = hour;
+    minutes[i] = minute;
+  }
+
+  void setNumber(int i, int number) {
+    numbers[i] = number;
+  }
+
+  // --- Helper methods ---
+
+  private int check(int i) {
+    if (i < 0 || i >= count) {
+      throw new IllegalArgumentException("No argument at index " + i + ".");
+    }
+    return i;
+  }
+
+  private int checkDate(int i) {
+    if (kinds[check(i)] != Kind.DATE && kinds[i] != Kind.DATE_TIME) {
+      throw new IllegalArgumentException("Argument " + i + " is not a date.");
+    }
+    return i;
+  }
+
+  private int checkKind(int i, Kind kind) {
+    if (kinds[check(i)] != kind) {
+      throw new IllegalArgumentException("Argument " + i + " is not a " + kind + ".");
+    }
+    return i;
+  }
+}
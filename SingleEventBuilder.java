@@ -6,6 +6,26 @@ import java.util.UUID;
  */
 public class SingleEventBuilder {
 
+  //shares one instance of each subject, location and status between events
+  protected final StringDictionary strings;
+
+  /**
+   * Constructor for a SingleEventBuilder with its own string dictionary.
+   */
+  public SingleEventBuilder() {
+    this(new StringDictionary());
+  }
+
+  /**
+   * Constructor for a SingleEventBuilder whose events share strings through
+   * the given dictionary, so equal subjects, locations and statuses are one object.
+   *
+   * @param strings dictionary of the calendar the events are built for
+   */
+  public SingleEventBuilder(StringDictionary strings) {
+    this.strings = strings;
+  }
+
   /**
    * Creates a new single event.
    *
@@ -23,12 +43,12 @@ public class SingleEventBuilder {
     UUID id = UUID.randomUUID();
 
     Event event = new Event.EventBuilder()
-            .subject(subject)
+            .subject(strings.canonical(subject))
             .start(start)
             .end(end)
             .description(description)
-            .location(location)
-            .status(status)
+            .location(strings.canonical(location))
+            .status(strings.canonical(status))
             .identifier(id)
             .build();
 
@@ -71,13 +91,13 @@ public class SingleEventBuilder {
             .identifier(old.getIdentifier());
 
     if ("subject".equalsIgnoreCase(property)) {
-      builder.subject(value);
+      builder.subject(strings.canonical(value));
     } else if ("description".equalsIgnoreCase(property)) {
       builder.description(value);
     } else if ("location".equalsIgnoreCase(property)) {
-      builder.location(value);
+      builder.location(strings.canonical(value));
     } else if ("status".equalsIgnoreCase(property)) {
-      builder.status(value);
+      builder.status(strings.canonical(value));
     } else if ("start".equalsIgnoreCase(property)) {
       builder.start(LocalDateTime.parse(value));
     } else if ("end".equalsIgnoreCase(property)) {
@@ -0,0 +1,129 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that gives every distinct string a small int id, so a column can hold
+ * ids instead of references to many equal strings. Ids are handed out in the
+ * order strings are first seen and never change; null always has id -1.
+ * The same dictionary also hands out one shared instance of each string, and
+ * counts how often a string was already known and roughly how many bytes of
+ * duplicate strings that let go. All methods are synchronized.
+ */
+public class StringDictionary {
+
+  private final Map<String, Integer> ids;
+  private final List<String> strings;
+  private long lookups;
+  private long hits;
+  private long savedBytes;
+
+  /**
+   * Constructor for an empty StringDictionary.
+   */
+  public StringDictionary() {
+    this.ids = new HashMap<>();
+    this.strings = new ArrayList<>();
+  }
+
+  /**
+   * Returns the id of a string, adding the string if it is new.
+   *
+   * @param s string to look up; may be null
+   * @return id of the string, or -1 for null
+   */
+  public synchronized int intern(String s) {
+    if (s == null) {
+      return -1;
+    }
+
+    lookups++;
+    Integer id = ids.get(s);
+    if (id == null) {
+      id = strings.size();
+      ids.put(s, id);
+      strings.add(s);
+    } else {
+      hits++;
+      if (strings.get(id) != s) {
+        savedBytes += heapBytes(s);
+      }
+    }
+    return id;
+  }
+
+  /**
+   * Returns the shared instance of a string, adding the string if it is new.
+   *
+   * @param s string to look up; may be null
+   * @return an equal string held by the dictionary, or null for null
+   */
+  public synchronized String canonical(String s) {
+    return get(intern(s));
+  }
+
+  /**
+   * Returns the id of a string without adding it.
+   *
+   * @param s string to look up; may be null
+   * @return id of the string, or -1 for null or a string that was never added
+   */
+  public synchronized int find(String s) {
+    Integer id = s == null ? null : ids.get(s);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Returns the string with the given id.
+   *
+   * @param id id given out by intern, or -1
+   * @return the string, or null for -1
+   */
+  public synchronized String get(int id) {
+    return id < 0 ? null : strings.get(id);
+  }
+
+  /**
+   * Returns the number of distinct strings.
+   *
+   * @return number of strings in the dictionary
+   */
+  public synchronized int size() {
+    return strings.size();
+  }
+
+  /**
+   * Returns the number of non-null strings looked up with intern or canonical.
+   *
+   * @return number of lookups
+   */
+  public synchronized long getLookups() {
+    return lookups;
+  }
+
+  /**
+   * Returns the number of lookups that found a string already in the dictionary.
+   *
+   * @return number of hits
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns an estimate of the heap no longer needed because equal strings
+   * were replaced by the shared instance.
+   *
+   * @return estimated bytes saved
+   */
+  public synchronized long getSavedBytes() {
+    return savedBytes;
+  }
+
+  //String object plus its byte array (one byte per char unless a char needs two)
+  private static long heapBytes(String s) {
+    int perChar = s.chars().allMatch(c -> c < 256) ? 1 : 2;
+    return 24 + ((16 + perChar * s.length() + 7) & ~7);
+  }
+}
@@ -0,0 +1,229 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the CalendarManagement operations at different calendar sizes.
+ * Run all sizes, or pick some with -p:
+ * <pre>
+ * java -jar benchmarks.jar CalendarBenchmark -p events=100000
+ * </pre>
+ * The calendar holds the given number of single events, one every few
+ * minutes over about two years and each 30 to 120 minutes long, plus one
+ * stored weekly series that the edit benchmarks change. No benchmark grows
+ * the calendar, so every measured call sees the same size: adding is measured
+ * on a duplicate, which is rejected, and copies go into a new empty calendar.
+ *
+ * <p>The calendar classes are in the default package, so they are reached
+ * through method handles as in ParsingBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarBenchmark {
+
+  private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+  private static final int SPAN_MINUTES = 730 * 24 * 60;
+  private static final String SERIES = "Weekly review";
+  private static final ZoneId SOURCE_ZONE = ZoneId.of("America/New_York");
+  private static final ZoneId TARGET_ZONE = ZoneId.of("Europe/Paris");
+
+  private static final MethodHandle NEW_CALENDAR;
+  private static final MethodHandle ADD_SINGLE_EVENT;
+  private static final MethodHandle GET_EVENTS_BETWEEN;
+  private static final MethodHandle GET_EVENTS_FROM;
+  private static final MethodHandle IS_TIME_SLOT_OCCUPIED;
+  private static final MethodHandle ADD_SERIES;
+  private static final MethodHandle EDIT_ENTIRE_SERIES;
+  private static final MethodHandle EDIT_SERIES_FROM_DATE;
+  private static final MethodHandle COPY_EVENTS_BETWEEN;
+
+  static {
+    try {
+      Class<?> calendar = Class.forName("CalendarManagement");
+
+      NEW_CALENDAR = Handles.constructor(calendar);
+      ADD_SINGLE_EVENT = Handles.method(calendar, "addSingleEvent", void.class,
+              String.class, LocalDateTime.class, LocalDateTime.class,
+              String.class, String.class, String.class);
+      GET_EVENTS_BETWEEN = Handles.method(calendar, "getEventsBetween", List.class,
+              LocalDateTime.class, LocalDateTime.class);
+      GET_EVENTS_FROM = Handles.method(calendar, "getEventsFrom", List.class,
+              LocalDateTime.class, int.class);
+      IS_TIME_SLOT_OCCUPIED = Handles.method(calendar, "isTimeSlotOccupied", boolean.class,
+              LocalDateTime.class);
+      ADD_SERIES = Handles.method(calendar, "addEventSeriesByOccurrences", List.class,
+              String.class, LocalTime.class, LocalTime.class, LocalDate.class, String.class,
+              int.class, String.class, String.class, String.class);
+      EDIT_ENTIRE_SERIES = Handles.method(calendar, "editEntireSeries", void.class,
+              String.class, LocalDateTime.class, String.class, String.class);
+      EDIT_SERIES_FROM_DATE = Handles.method(calendar, "editSeriesFromDate", void.class,
+              String.class, LocalDateTime.class, String.class, String.class);
+      COPY_EVENTS_BETWEEN = Handles.method(calendar, "copyEventsBetween", List.class,
+              LocalDate.class, LocalDate.class, ZoneId.class, calendar, LocalDate.class,
+              ZoneId.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * Number of single events in the calendar.
+   */
+  @Param({"1000", "100000", "1000000"})
+  public int events;
+
+  private Object calendar;
+  private int step;
+  private Random random;
+  private int[] durations;
+  private LocalDateTime seriesStart;
+  private LocalDateTime seriesMiddle;
+  private boolean toggle;
+
+  /**
+   * Fills the calendar.
+   *
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Setup
+  public void setUp() throws Throwable {
+    calendar = (Object) NEW_CALENDAR.invokeExact();
+    step = Math.max(1, SPAN_MINUTES / events);
+    random = new Random(42);
+    durations = new int[events];
+
+    for (int i = 0; i < events; i++) {
+      durations[i] = 30 + random.nextInt(91);
+      LocalDateTime start = BASE.plusMinutes((long) i * step);
+      ADD_SINGLE_EVENT.invokeExact(calendar, "Event " + i % 1000, start,
+              start.plusMinutes(durations[i]), "", "Room " + i % 50, "public");
+    }
+
+    List<?> series = (List<?>) ADD_SERIES.invokeExact(calendar, SERIES, LocalTime.of(16, 0),
+            LocalTime.of(17, 0), BASE.toLocalDate(), "F", 52, "", "Office", "public");
+    if (series.size() != 52) {
+      throw new IllegalStateException("Series has " + series.size() + " events.");
+    }
+    seriesStart = BASE.toLocalDate().plusDays(4).atTime(16, 0);
+    seriesMiddle = seriesStart.plusWeeks(26);
+    toggle = false;
+  }
+
+  /**
+   * addSingleEvent for an event that already exists, which is found by the
+   * duplicate check and rejected (the cost includes the exception).
+   *
+   * @param blackhole consumes the results
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public void addDuplicateEvent(Blackhole blackhole) throws Throwable {
+    int i = random.nextInt(events);
+    LocalDateTime start = BASE.plusMinutes((long) i * step);
+    try {
+      ADD_SINGLE_EVENT.invokeExact(calendar, "Event " + i % 1000, start,
+              start.plusMinutes(durations[i]), "", "Room " + i % 50, "public");
+    } catch (IllegalArgumentException e) {
+      blackhole.consume(e);
+    }
+  }
+
+  /**
+   * getEventsBetween for one random day.
+   *
+   * @return events on that day
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public List<?> getEventsOnDay() throws Throwable {
+    LocalDateTime from = BASE.plusDays(random.nextInt(730));
+    return (List<?>) GET_EVENTS_BETWEEN.invokeExact(calendar, from, from.plusDays(1));
+  }
+
+  /**
+   * getEventsFrom for the next ten events from a random day, as the GUI shows them.
+   *
+   * @return the next ten events
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public List<?> getNextTen() throws Throwable {
+    LocalDateTime from = BASE.plusDays(random.nextInt(730));
+    return (List<?>) GET_EVENTS_FROM.invokeExact(calendar, from, 10);
+  }
+
+  /**
+   * isTimeSlotOccupied at a random minute.
+   *
+   * @return whether the minute is busy
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public boolean isTimeSlotOccupied() throws Throwable {
+    LocalDateTime at = BASE.plusMinutes(random.nextInt(SPAN_MINUTES));
+    return (boolean) IS_TIME_SLOT_OCCUPIED.invokeExact(calendar, at);
+  }
+
+  /**
+   * editEntireSeries changing the location of all 52 events of the series.
+   *
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public void editEntireSeries() throws Throwable {
+    toggle = !toggle;
+    String location = toggle ? "Office" : "Room 1";
+    EDIT_ENTIRE_SERIES.invokeExact(calendar, SERIES, seriesStart, "location", location);
+  }
+
+  /**
+   * editSeriesFromDate changing the location of the second half of the series.
+   *
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public void editSeriesFromDate() throws Throwable {
+    toggle = !toggle;
+    String location = toggle ? "Office" : "Room 1";
+    EDIT_SERIES_FROM_DATE.invokeExact(calendar, SERIES, seriesMiddle, "location", location);
+  }
+
+  /**
+   * copyEventsBetween for one random week, from New York into a new empty
+   * calendar in Paris.
+   *
+   * @return one result per copied event
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public List<?> copyWeek() throws Throwable {
+    LocalDate from = BASE.toLocalDate().plusDays(random.nextInt(723));
+    Object target = (Object) NEW_CALENDAR.invokeExact();
+    return (List<?>) COPY_EVENTS_BETWEEN.invokeExact(calendar, from, from.plusDays(6),
+            SOURCE_ZONE, target, from.plusYears(3), TARGET_ZONE);
+  }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Method handles to the calendar classes for the benchmarks.
+ * The calendar classes are in the default package and cannot be named here,
+ * so every one of them in a handle's type is replaced by Object; a benchmark
+ * passes and receives them as plain Objects and calls the handle with
+ * invokeExact.
+ */
+final class Handles {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private Handles() {
+  }
+
+  /**
+   * Handle to the no-argument constructor of a calendar class, returning Object.
+   *
+   * @param owner class to construct
+   * @return handle of type ()Object
+   * @throws ReflectiveOperationException if there is no such constructor
+   */
+  static MethodHandle constructor(Class<?> owner) throws ReflectiveOperationException {
+    return LOOKUP.findConstructor(owner, MethodType.methodType(void.class))
+            .asType(MethodType.methodType(Object.class));
+  }
+
+  /**
+   * Handle to an instance method of a calendar class, taking the instance first.
+   *
+   * @param owner      class declaring the method
+   * @param name       method name
+   * @param returnType declared return type
+   * @param parameters declared parameter types
+   * @return handle with calendar classes in its type replaced by Object
+   * @throws ReflectiveOperationException if there is no such method
+   */
+  static MethodHandle method(Class<?> owner, String name, Class<?> returnType,
+                             Class<?>... parameters) throws ReflectiveOperationException {
+    MethodHandle handle = LOOKUP.findVirtual(owner, name,
+            MethodType.methodType(returnType, parameters));
+    return handle.asType(erase(handle.type()));
+  }
+
+  private static MethodType erase(MethodType type) {
+    MethodType erased = type;
+    for (int i = 0; i < type.parameterCount(); i++) {
+      if (isCalendarClass(type.parameterType(i))) {
+        erased = erased.changeParameterType(i, Object.class);
+      }
+    }
+    if (isCalendarClass(type.returnType())) {
+      erased = erased.changeReturnType(Object.class);
+    }
+    return erased;
+  }
+
+  private static boolean isCalendarClass(Class<?> type) {
+    return !type.isPrimitive() && !type.isArray() && type.getPackageName().isEmpty();
+  }
+}
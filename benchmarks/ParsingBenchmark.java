@@ -0,0 +1,189 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the ways of reading a command.
+ * Run with the GC profiler to see allocations per command
+ * (gc.alloc.rate.norm, in bytes per operation):
+ * <pre>
+ * java -jar benchmarks.jar ParsingBenchmark -prof gc
+ * </pre>
+ * Each operation reads one command from a fixed mix of commands.
+ *
+ * <p>JMH does not allow benchmarks in the default package, and classes in the
+ * default package cannot be imported from any other, so the calendar classes are
+ * reached through method handles looked up once. Calls through a static final
+ * handle are inlined by the JIT and add no allocation of their own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+
+  private static final String[] COMMANDS = {
+      "create event Standup from 2025-06-02T09:15 to 2025-06-02T09:30 repeats M for 10 times",
+      "create event Lunch from 2025-06-02T12:10 to 2025-06-02T13:10",
+      "create event Holiday on 2025-07-04",
+      "edit event location Lunch from 2025-06-02T12:10 to 2025-06-02T13:10 with Cafe",
+      "edit series status Standup from 2025-06-02T09:15 with private",
+      "print events from 2025-06-01T08:10 to 2025-06-30T18:10",
+      "show status on 2025-06-02T12:30",
+      "use calendar --name Work",
+      "copy events between 2025-06-05 and 2025-06-08 --target Home to 2025-06-28",
+      "not a command at all"
+  };
+
+  private static final MethodHandle PARSE_COMMAND;
+  private static final MethodHandle NEW_SCANNER;
+  private static final MethodHandle NEW_COMMAND;
+  private static final MethodHandle SCAN;
+  private static final MethodHandle GET_TYPE;
+  private static final MethodHandle GET_ARGUMENT_COUNT;
+  private static final MethodHandle GET_KIND;
+  private static final MethodHandle GET_YEAR;
+  private static final MethodHandle GET_MINUTE;
+  private static final MethodHandle GET_DATE_TIME;
+  private static final Object DATE_TIME;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      Class<?> parsing = Class.forName("InputParsing");
+      Class<?> scanner = Class.forName("CommandScanner");
+      Class<?> command = Class.forName("ScannedCommand");
+      Class<?> kind = Class.forName("ScannedCommand$Kind");
+
+      PARSE_COMMAND = lookup.findStatic(parsing, "parseCommand",
+              MethodType.methodType(String[].class, String.class));
+
+      NEW_SCANNER = lookup.findConstructor(scanner, MethodType.methodType(void.class))
+              .asType(MethodType.methodType(Object.class));
+      NEW_COMMAND = lookup.findConstructor(command, MethodType.methodType(void.class))
+              .asType(MethodType.methodType(Object.class));
+      SCAN = lookup.findVirtual(scanner, "scan",
+                      MethodType.methodType(boolean.class, CharSequence.class, command))
+              .asType(MethodType.methodType(boolean.class, Object.class,
+                      CharSequence.class, Object.class));
+      GET_TYPE = getter(lookup, command, "getType", int.class, false);
+      GET_ARGUMENT_COUNT = getter(lookup, command, "getArgumentCount", int.class, false);
+      GET_KIND = getter(lookup, command, "getKind", kind, true);
+      GET_YEAR = getter(lookup, command, "getYear", int.class, true);
+      GET_MINUTE = getter(lookup, command, "getMinute", int.class, true);
+      GET_DATE_TIME = getter(lookup, command, "getDateTime", LocalDateTime.class, true);
+      DATE_TIME = kind.getField("DATE_TIME").get(null);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private Object scanner;
+  private Object command;
+  private int next;
+
+  /**
+   * Creates the reusable scanner and result.
+   *
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Setup
+  public void setUp() throws Throwable {
+    scanner = (Object) NEW_SCANNER.invokeExact();
+    command = (Object) NEW_COMMAND.invokeExact();
+    next = 0;
+  }
+
+  /**
+   * parseCommand as used by the program; creates the argument Strings.
+   *
+   * @param blackhole consumes the results
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public void parseCommand(Blackhole blackhole) throws Throwable {
+    blackhole.consume((String[]) PARSE_COMMAND.invokeExact(nextCommand()));
+  }
+
+  /**
+   * The scanner reading into a reused ScannedCommand and reading the decoded
+   * fields of every date-time argument; allocates nothing.
+   *
+   * @param blackhole consumes the results
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public void scanInPlace(Blackhole blackhole) throws Throwable {
+    boolean valid = (boolean) SCAN.invokeExact(scanner, (CharSequence) nextCommand(), command);
+    blackhole.consume(valid);
+    blackhole.consume((int) GET_TYPE.invokeExact(command));
+
+    int count = (int) GET_ARGUMENT_COUNT.invokeExact(command);
+    for (int i = 0; i < count; i++) {
+      if ((Object) GET_KIND.invokeExact(command, i) == DATE_TIME) {
+        blackhole.consume((int) GET_YEAR.invokeExact(command, i));
+        blackhole.consume((int) GET_MINUTE.invokeExact(command, i));
+      }
+    }
+  }
+
+  /**
+   * The scanner followed by building a LocalDateTime for every date-time
+   * argument, which is the part of the original path that still allocates.
+   *
+   * @param blackhole consumes the results
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public void scanToDateTime(Blackhole blackhole) throws Throwable {
+    boolean valid = (boolean) SCAN.invokeExact(scanner, (CharSequence) nextCommand(), command);
+    blackhole.consume(valid);
+
+    int count = (int) GET_ARGUMENT_COUNT.invokeExact(command);
+    for (int i = 0; i < count; i++) {
+      if ((Object) GET_KIND.invokeExact(command, i) == DATE_TIME) {
+        blackhole.consume((LocalDateTime) GET_DATE_TIME.invokeExact(command, i));
+      }
+    }
+  }
+
+  private String nextCommand() {
+    String text = COMMANDS[next];
+    next = (next + 1) % COMMANDS.length;
+    return text;
+  }
+
+  //handle to a ScannedCommand getter, taking the command as an Object
+  private static MethodHandle getter(MethodHandles.Lookup lookup, Class<?> command,
+                                     String name, Class<?> returnType, boolean indexed)
+          throws ReflectiveOperationException {
+    MethodType type = indexed
+            ? MethodType.methodType(returnType, int.class)
+            : MethodType.methodType(returnType);
+    MethodHandle handle = lookup.findVirtual(command, name, type);
+
+    Class<?> result = returnType.isPrimitive() || returnType == LocalDateTime.class
+            ? returnType : Object.class;
+    return indexed
+            ? handle.asType(MethodType.methodType(result, Object.class, int.class))
+            : handle.asType(MethodType.methodType(result, Object.class));
+  }
+}
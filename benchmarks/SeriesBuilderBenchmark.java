@@ -0,0 +1,104 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of creating event series with EventSeriesBuilder, as a list of
+ * events and as a single recurrence rule. Series creation does not depend on
+ * the size of a calendar, so it is measured on the builder alone; adding the
+ * created events to a calendar is covered by CalendarBenchmark.
+ * <pre>
+ * java -jar benchmarks.jar SeriesBuilderBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeriesBuilderBenchmark {
+
+  private static final LocalDate START = LocalDate.of(2025, 6, 2);
+  private static final LocalTime FROM = LocalTime.of(9, 15);
+  private static final LocalTime TO = LocalTime.of(9, 30);
+
+  private static final MethodHandle NEW_BUILDER;
+  private static final MethodHandle CREATE_SERIES;
+  private static final MethodHandle CREATE_RULE;
+
+  static {
+    try {
+      Class<?> builder = Class.forName("EventSeriesBuilder");
+
+      NEW_BUILDER = Handles.constructor(builder);
+      CREATE_SERIES = Handles.method(builder, "createSeriesByOccurrences", List.class,
+              String.class, LocalTime.class, LocalTime.class, LocalDate.class, String.class,
+              int.class, String.class, String.class, String.class);
+      CREATE_RULE = Handles.method(builder, "createRuleByOccurrences",
+              Class.forName("RecurrenceRule"), String.class, LocalTime.class, LocalTime.class,
+              LocalDate.class, String.class, int.class, String.class, String.class,
+              String.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * Number of occurrences in each series.
+   */
+  @Param({"10", "1000"})
+  public int occurrences;
+
+  private Object builder;
+
+  /**
+   * Creates the builder.
+   *
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Setup
+  public void setUp() throws Throwable {
+    builder = (Object) NEW_BUILDER.invokeExact();
+  }
+
+  /**
+   * createSeriesByOccurrences on weekdays, building one event per occurrence.
+   *
+   * @return the events
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public List<?> createSeries() throws Throwable {
+    return (List<?>) CREATE_SERIES.invokeExact(builder, "Standup", FROM, TO, START, "MTWRF",
+            occurrences, "", "Office", "public");
+  }
+
+  /**
+   * createRuleByOccurrences on weekdays, building only the rule.
+   *
+   * @return the rule
+   * @throws Throwable if the calendar classes cannot be called
+   */
+  @Benchmark
+  public Object createRule() throws Throwable {
+    return (Object) CREATE_RULE.invokeExact(builder, "Standup", FROM, TO, START, "MTWRF",
+            occurrences, "", "Office", "public");
+  }
+}